@@ -1,41 +1,92 @@
 package com.loopy.carden.config;
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.loopy.carden.service.cache.TwoTierCache;
+import com.loopy.carden.service.cache.TwoTierCacheManager;
+import com.loopy.carden.service.cache.TwoTierCacheManager.CacheSpec;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Map;
 
+/**
+ * Spring caches: a bounded in-process Caffeine tier on every node over an optional shared
+ * Redis tier ({@code carden.cache.redis.enabled}), see {@link TwoTierCacheManager}.
+ * Puts and evictions made inside a transaction are applied after it commits.
+ */
 @Configuration
-//@EnableCaching  // Temporarily disabled
+@EnableCaching
 public class CacheConfig {
 
+    @Value("${carden.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${carden.cache.redis.retry-interval-seconds:30}")
+    private long redisRetryIntervalSeconds;
+
+    @Value("${carden.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Bean
+    public TwoTierCacheManager cacheManager(ObjectProvider<RedisConnectionFactory> connectionFactory) {
+        Map<String, CacheSpec> specs = Map.of(
+                "topics", new CacheSpec(1_000, Duration.ofHours(1)),
+                "decks", new CacheSpec(localMaxSize, Duration.ofMinutes(10)),
+                "userProfile", new CacheSpec(localMaxSize, Duration.ofMinutes(30)),
+                "userTts", new CacheSpec(localMaxSize, Duration.ofMinutes(30)),
+                "studyStreak", new CacheSpec(localMaxSize, Duration.ofMinutes(5)));
+        CacheSpec defaultSpec = new CacheSpec(localMaxSize, Duration.ofMinutes(10));
+
+        RedisConnectionFactory redis = redisEnabled ? connectionFactory.getIfAvailable() : null;
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(specs, defaultSpec, redis,
+                redis != null ? remoteCacheConfiguration() : null,
+                Duration.ofSeconds(redisRetryIntervalSeconds));
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    /**
+     * Hit, miss and eviction metrics of the local tier (cache.gets, cache.evictions, ...)
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Configure ObjectMapper for Redis serialization with LocalDateTime support
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+
+    private RedisCacheConfiguration remoteCacheConfiguration() {
+        // Configure ObjectMapper for Redis serialization with LocalDateTime support; type
+        // information is stored with each value so DTOs deserialize to their own class
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder().allowIfSubType("com.loopy.carden.").allowIfSubType("java.").build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+
         GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-        
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(10))
+
+        return RedisCacheConfiguration.defaultCacheConfig()
+            .prefixCacheNameWith("carden:")
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
             .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
-            .build();
     }
 }
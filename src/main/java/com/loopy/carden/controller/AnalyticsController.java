@@ -7,6 +7,8 @@ import com.loopy.carden.dto.statistics.UserStatisticsDto;
 import com.loopy.carden.entity.User;
 import com.loopy.carden.service.InsightsService;
 import com.loopy.carden.service.StatisticsService;
+import com.loopy.carden.service.analytics.AnalyticsResultCache;
+import com.loopy.carden.service.overview.UserOverviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -35,7 +37,8 @@ import java.util.Map;
 public class AnalyticsController {
 
     private final StatisticsService statisticsService;
-    private final InsightsService insightsService;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final UserOverviewService userOverviewService;
 
     @GetMapping("/overview")
     @Operation(summary = "Get user statistics overview",
@@ -43,7 +46,7 @@ public class AnalyticsController {
     public ResponseEntity<StandardResponse<UserStatisticsDto>> getUserOverview(
             @AuthenticationPrincipal User user) {
         
-        UserStatisticsDto stats = statisticsService.getUserStatistics(user.getId());
+        UserStatisticsDto stats = userOverviewService.getOverview(user.getId());
         
         log.debug("Retrieved overview statistics for user {}: {} total cards, {}% accuracy", 
                 user.getId(), stats.getTotalCards(), stats.getOverallAccuracy());
@@ -57,7 +60,7 @@ public class AnalyticsController {
     public ResponseEntity<StandardResponse<Map<String, Object>>> getSimplifiedOverview(
             @AuthenticationPrincipal User user) {
         
-        UserStatisticsDto fullStats = statisticsService.getUserStatistics(user.getId());
+        UserStatisticsDto fullStats = analyticsResultCache.getSnapshot(user.getId()).overview();
         
         // Create simplified version with only essential metrics
         Map<String, Object> simplified = Map.of(
@@ -146,37 +149,9 @@ public class AnalyticsController {
     public ResponseEntity<StandardResponse<Map<String, Object>>> getAnalyticsSummary(
             @AuthenticationPrincipal User user) {
         
-        UserStatisticsDto overview = statisticsService.getUserStatistics(user.getId());
-        StudyStreakDto streaks = statisticsService.getStudyStreak(user.getId());
-        
-        // Performance for last 30 days
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime thirtyDaysAgo = now.minusDays(30);
-        PerformanceStatsDto performance = statisticsService.getPerformanceStats(user.getId(), thirtyDaysAgo, now);
-        
-        Map<String, Object> summary = Map.of(
-                "overview", Map.of(
-                        "totalCards", overview.getTotalCards(),
-                        "totalSessions", overview.getTotalSessions(),
-                        "overallAccuracy", Math.round(overview.getOverallAccuracy() * 100.0) / 100.0,
-                        "totalStudyTimeMinutes", overview.getTotalStudyTimeMinutes()
-                ),
-                "streaks", Map.of(
-                        "current", streaks.getCurrentStreak(),
-                        "longest", streaks.getLongestStreak(),
-                        "nextMilestone", streaks.getNextMilestone(),
-                        "daysToMilestone", streaks.getDaysToMilestone()
-                ),
-                "recent", Map.of(
-                        "sessionsLast30Days", performance.getTotalSessions(),
-                        "accuracyLast30Days", Math.round(performance.getAverageAccuracy() * 100.0) / 100.0,
-                        "studyTimeLast30Days", performance.getTotalStudyTime(),
-                        "cardsStudiedLast30Days", performance.getCardsStudied()
-                ),
-                "distribution", overview.getCardStateDistribution()
-        );
+        Map<String, Object> summary = analyticsResultCache.getSummary(user.getId());
         
-        log.debug("Generated analytics summary for user {}", user.getId());
+        log.debug("Served analytics summary for user {}", user.getId());
         
         return ResponseEntity.ok(StandardResponse.success(summary));
     }
@@ -187,7 +162,7 @@ public class AnalyticsController {
     public ResponseEntity<StandardResponse<List<InsightsService.StudyInsight>>> getStudyInsights(
             @AuthenticationPrincipal User user) {
         
-        List<InsightsService.StudyInsight> insights = insightsService.generateInsights(user.getId());
+        List<InsightsService.StudyInsight> insights = analyticsResultCache.getInsights(user.getId());
         
         log.debug("Generated {} insights for user {}", insights.size(), user.getId());
         
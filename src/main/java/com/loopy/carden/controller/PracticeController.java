@@ -1,10 +1,13 @@
 package com.loopy.carden.controller;
 
+import com.loopy.carden.dto.CursorPageDto;
 import com.loopy.carden.dto.StandardResponse;
 import com.loopy.carden.dto.practice.*;
+import com.loopy.carden.dto.session.ReviewSessionResponseDto;
 
 import com.loopy.carden.entity.User;
 import com.loopy.carden.service.PracticeService;
+import com.loopy.carden.service.SchedulerSettingsService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +34,7 @@ import java.util.List;
 public class PracticeController {
 
     private final PracticeService practiceService;
+    private final SchedulerSettingsService schedulerSettingsService;
 
     @PostMapping("/sessions")
     @Operation(summary = "Start a new practice session",
@@ -51,6 +56,20 @@ public class PracticeController {
         return ResponseEntity.ok(StandardResponse.success(session));
     }
 
+    @GetMapping("/sessions/history")
+    @Operation(summary = "Get practice session history",
+               description = "Keyset-paginated sessions, newest first. Pass the returned nextCursor as cursor to read older sessions")
+    public ResponseEntity<StandardResponse<CursorPageDto<ReviewSessionResponseDto>>> getSessionHistory(
+            @Parameter(description = "Cursor from the previous page (omit for the most recent sessions)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-100)")
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        
+        CursorPageDto<ReviewSessionResponseDto> history = practiceService.getSessionHistory(user.getId(), cursor, size);
+        return ResponseEntity.ok(StandardResponse.success(history));
+    }
+
     @PostMapping("/sessions/{sessionId}/complete")
     @Operation(summary = "Complete the current practice session")
     public ResponseEntity<StandardResponse<SessionSummaryDto>> completeSession(
@@ -67,6 +86,8 @@ public class PracticeController {
     public ResponseEntity<StandardResponse<Page<PracticeCardDto>>> getDueCards(
             @Parameter(description = "Deck ID to filter cards (optional)")
             @RequestParam(required = false) Long deckId,
+            @Parameter(description = "Topic ID to limit cards to the user's decks in a topic (optional)")
+            @RequestParam(required = false) Long topicId,
             @Parameter(description = "Page number (0-based)")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size")
@@ -74,7 +95,25 @@ public class PracticeController {
             @AuthenticationPrincipal User user) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<PracticeCardDto> dueCards = practiceService.getDueCards(user.getId(), deckId, pageable);
+        Page<PracticeCardDto> dueCards = practiceService.getDueCards(user.getId(), deckId, topicId, pageable);
+        return ResponseEntity.ok(StandardResponse.success(dueCards));
+    }
+
+    @GetMapping("/due-cards/scroll")
+    @Operation(summary = "Scroll through due cards",
+               description = "Keyset-paginated due cards in due date order. Pass the returned nextCursor as cursor to read the next page")
+    public ResponseEntity<StandardResponse<CursorPageDto<PracticeCardDto>>> scrollDueCards(
+            @Parameter(description = "Deck ID to filter cards (optional)")
+            @RequestParam(required = false) Long deckId,
+            @Parameter(description = "Topic ID to limit cards to the user's decks in a topic (optional)")
+            @RequestParam(required = false) Long topicId,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-100)")
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        
+        CursorPageDto<PracticeCardDto> dueCards = practiceService.scrollDueCards(user.getId(), deckId, topicId, cursor, size);
         return ResponseEntity.ok(StandardResponse.success(dueCards));
     }
 
@@ -84,9 +123,13 @@ public class PracticeController {
     public ResponseEntity<StandardResponse<PracticeCardDto>> getNextCard(
             @Parameter(description = "Deck ID to filter cards (optional)")
             @RequestParam(required = false) Long deckId,
+            @Parameter(description = "Topic ID to limit cards to the user's decks in a topic (optional)")
+            @RequestParam(required = false) Long topicId,
+            @Parameter(description = "Number of following cards to include for preloading (0-20)")
+            @RequestParam(defaultValue = "0") int prefetch,
             @AuthenticationPrincipal User user) {
         
-        PracticeCardDto nextCard = practiceService.getNextCard(user.getId(), deckId);
+        PracticeCardDto nextCard = practiceService.getNextCard(user.getId(), deckId, topicId, prefetch);
         return ResponseEntity.ok(StandardResponse.success(nextCard));
     }
 
@@ -96,13 +139,60 @@ public class PracticeController {
     public ResponseEntity<StandardResponse<ReviewResultDto>> submitReview(
             @PathVariable Long cardId,
             @Valid @RequestBody ReviewSubmissionDto reviewDto,
+            @Parameter(description = "Number of cards after the next card to include for preloading (0-20)")
+            @RequestParam(defaultValue = "0") int prefetch,
             @AuthenticationPrincipal User user) {
         
-        ReviewResultDto result = practiceService.submitReview(cardId, user.getId(), reviewDto);
+        ReviewResultDto result = practiceService.submitReview(cardId, user.getId(), reviewDto, prefetch);
         return ResponseEntity.ok(StandardResponse.success(result));
     }
 
+    @PostMapping("/cards/reviews/batch")
+    @Operation(summary = "Submit a batch of card reviews",
+               description = "Processes several card reviews in order within a single transaction (e.g. reviews queued offline)")
+    public ResponseEntity<StandardResponse<BatchReviewResultDto>> submitReviewBatch(
+            @Valid @RequestBody BatchReviewSubmissionDto batchDto,
+            @AuthenticationPrincipal User user) {
+        
+        BatchReviewResultDto result = practiceService.submitReviewBatch(user.getId(), batchDto);
+        return ResponseEntity.ok(StandardResponse.success(result));
+    }
+
+
+
+    @GetMapping("/scheduler")
+    @Operation(summary = "Get scheduling settings",
+               description = "Returns the default SRS algorithm (SM2 or FSRS) and the FSRS parameters of the user")
+    public ResponseEntity<StandardResponse<SchedulerSettingsDto>> getSchedulerSettings(
+            @AuthenticationPrincipal User user) {
+        
+        SchedulerSettingsDto settings = schedulerSettingsService.getSettings(user.getId());
+        return ResponseEntity.ok(StandardResponse.success(settings));
+    }
+
+    @PatchMapping("/scheduler")
+    @Operation(summary = "Update scheduling settings",
+               description = "Switches the default SRS algorithm and/or the FSRS desired retention (0.7-0.97)")
+    public ResponseEntity<StandardResponse<SchedulerSettingsDto>> updateSchedulerSettings(
+            @Valid @RequestBody SchedulerSettingsDto settingsDto,
+            @AuthenticationPrincipal User user) {
+        
+        SchedulerSettingsDto settings = schedulerSettingsService.updateSettings(user.getId(), settingsDto);
+        return ResponseEntity.ok(StandardResponse.success(settings));
+    }
 
+    @PostMapping("/scheduler/optimize")
+    @Operation(summary = "Optimize FSRS parameters",
+               description = "Starts fitting the FSRS weights to the user's review history in the background " +
+                             "(requires a minimum number of reviews). Poll GET /scheduler until optimizing is false; " +
+                             "a failed run is reported in optimizationError. Returns 429 when the optimizer is busy.")
+    public ResponseEntity<StandardResponse<SchedulerSettingsDto>> optimizeScheduler(
+            @AuthenticationPrincipal User user) {
+        
+        SchedulerSettingsDto settings = schedulerSettingsService.optimize(user.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(StandardResponse.success("FSRS optimization started", settings));
+    }
 
     @GetMapping("/cards/due-count")
     @Operation(summary = "Get count of due cards",
@@ -133,6 +223,22 @@ public class PracticeController {
         return ResponseEntity.ok(StandardResponse.success(newCards));
     }
 
+    @GetMapping("/cards/new/scroll")
+    @Operation(summary = "Scroll through new cards",
+               description = "Keyset-paginated new cards in creation order. Pass the returned nextCursor as cursor to read the next page")
+    public ResponseEntity<StandardResponse<CursorPageDto<PracticeCardDto>>> scrollNewCards(
+            @Parameter(description = "Deck ID to filter cards (optional)")
+            @RequestParam(required = false) Long deckId,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-100)")
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        
+        CursorPageDto<PracticeCardDto> newCards = practiceService.scrollNewCards(user.getId(), deckId, cursor, size);
+        return ResponseEntity.ok(StandardResponse.success(newCards));
+    }
+
     @GetMapping("/cards/learning")
     @Operation(summary = "Get cards in learning phase",
                description = "Retrieves cards currently in the learning phase (failed cards)")
@@ -1,6 +1,7 @@
 package com.loopy.carden.dto.deck;
 
 import com.loopy.carden.entity.Deck;
+import com.loopy.carden.entity.StudyState;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +22,7 @@ public class DeckResponseDto {
     private Long topicId;
     private Deck.Visibility visibility;
     private Deck.CEFRLevel cefrLevel;
+    private StudyState.SrsAlgorithm srsAlgorithm; // null = owner's default
     private String sourceLanguage;
     private String targetLanguage;
     private String coverImageUrl;
@@ -1,6 +1,7 @@
 package com.loopy.carden.dto.deck;
 
 import com.loopy.carden.entity.Deck;
+import com.loopy.carden.entity.StudyState;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,6 +27,8 @@ public class DeckUpdateDto {
 
     private Deck.CEFRLevel cefrLevel;
 
+    private StudyState.SrsAlgorithm srsAlgorithm;
+
     @Size(max = 10, message = "Source language must not exceed 10 characters")
     private String sourceLanguage;
 
@@ -0,0 +1,42 @@
+package com.loopy.carden.dto.practice;
+
+import com.loopy.carden.dto.studystate.StudyStateResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch review submission results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReviewResultDto {
+
+    private Integer processedCount;
+    private Integer correctCount;
+
+    // Per-review results, in submission order
+    private List<ItemResultDto> results;
+
+    // Next card to practice (if available)
+    private PracticeCardDto nextCard;
+
+    // Session progress after the whole batch
+    private ReviewResultDto.SessionProgressDto sessionProgress;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResultDto {
+        private Long cardId;
+        private Integer grade;
+        private Boolean isCorrect;
+        private StudyStateResponseDto.SimplifiedDto updatedStudyState;
+    }
+}
@@ -0,0 +1,41 @@
+package com.loopy.carden.dto.practice;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for submitting several card reviews at once (offline or burst grading)
+ */
+@Data
+public class BatchReviewSubmissionDto {
+
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = 200, message = "A batch can contain at most 200 reviews")
+    @Valid
+    private List<ReviewItem> reviews; // Applied in the given order
+
+    @Data
+    public static class ReviewItem {
+
+        @NotNull(message = "Card ID is required")
+        private Long cardId;
+
+        @NotNull(message = "Grade is required")
+        @Min(value = 0, message = "Grade must be between 0 and 3")
+        @Max(value = 3, message = "Grade must be between 0 and 3")
+        private Integer grade;
+
+        private LocalDateTime reviewedAt; // Defaults to submission time
+
+        @Min(value = 0, message = "Response time cannot be negative")
+        private Integer responseTimeMs = 0;
+    }
+}
@@ -6,6 +6,7 @@ import com.loopy.carden.entity.StudyState.CardState;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO for practice cards with study state information
@@ -17,6 +18,7 @@ public class PracticeCardDto {
     private Long cardId;
     private String frontText;
     private String frontImageUrl;
+    private String audioUrl;
     private String backDefinition;
     private String backMeaningVi;
     private String ipa;
@@ -41,4 +43,7 @@ public class PracticeCardDto {
     private Integer remainingNewCards;
     private Integer remainingReviewCards;
     private Integer remainingLearningCards;
+    
+    // Cards served after this one, in order (only when requested with prefetch)
+    private List<PracticeCardDto> upcomingCards;
 }
@@ -0,0 +1,26 @@
+package com.loopy.carden.dto.practice;
+
+import com.loopy.carden.entity.StudyState.CardState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a study state, its card and deck shown in practice card lists, selected by
+ * constructor expression in one joined query (no entity hydration, no JSONB card columns)
+ */
+public record PracticeCardView(Long studyStateId,
+                               CardState cardState,
+                               LocalDateTime dueDate,
+                               Integer intervalDays,
+                               Integer totalReviews,
+                               Double accuracyRate,
+                               LocalDateTime createdAt,
+                               Long cardId,
+                               String front,
+                               String back,
+                               String imageUrl,
+                               String audioUrl,
+                               String ipaPronunciation,
+                               Long deckId,
+                               String deckTitle) {
+}
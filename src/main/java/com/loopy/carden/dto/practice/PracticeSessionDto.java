@@ -15,6 +15,7 @@ public class PracticeSessionDto {
     private Long sessionId;
     private StudyMode studyMode;
     private Long deckId;
+    private Long topicId;
     private LocalDateTime startTime;
     private Integer cardsStudied;
     private Integer cardsCorrect;
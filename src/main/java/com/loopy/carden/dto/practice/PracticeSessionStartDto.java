@@ -10,14 +10,19 @@ import lombok.Data;
 @Data
 public class PracticeSessionStartDto {
 
+    public static final int DEFAULT_MAX_NEW_CARDS = 20;
+    public static final int DEFAULT_MAX_REVIEW_CARDS = 200;
+
     @NotNull(message = "Study mode is required")
     private StudyMode studyMode;
 
     private Long deckId; // Optional - null for mixed deck sessions
 
-    private Integer maxNewCards = 20; // Limit new cards per session
+    private Long topicId; // Optional - limit the session to the user's decks in a topic
+
+    private Integer maxNewCards = DEFAULT_MAX_NEW_CARDS; // Limit new cards per session
 
-    private Integer maxReviewCards = 200; // Limit review cards per session
+    private Integer maxReviewCards = DEFAULT_MAX_REVIEW_CARDS; // Limit review cards per session
 
     private Boolean includeNewCards = true;
 
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO for review submission results
@@ -35,6 +36,9 @@ public class ReviewResultDto {
     // Next card to practice (if available)
     private PracticeCardDto nextCard;
     
+    // Cards served after nextCard, in order (only when requested with prefetch)
+    private List<PracticeCardDto> upcomingCards;
+    
     // Session progress
     private SessionProgressDto sessionProgress;
     
@@ -46,7 +50,8 @@ public class ReviewResultDto {
         private Integer cardsStudied;
         private Integer cardsCorrect;
         private Double currentAccuracy;
-        private Integer remainingCards;
+        private Integer remainingCards; // Due learning and review cards
+        private Integer remainingNewCards; // New cards not studied yet
         private Integer sessionDurationMinutes;
     }
 }
@@ -0,0 +1,35 @@
+package com.loopy.carden.dto.practice;
+
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the user's scheduling settings.
+ * Updates are partial: only algorithm and desiredRetention are writable.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerSettingsDto {
+
+    private SrsAlgorithm algorithm; // Default for the user's reviews (a deck they own may override it)
+
+    @DecimalMin(value = "0.7", message = "Desired retention must be at least 0.7")
+    @DecimalMax(value = "0.97", message = "Desired retention must not exceed 0.97")
+    private Double desiredRetention; // FSRS target recall probability at the due date
+
+    // Read-only: result of the last FSRS optimization
+    private Integer trainedReviewCount; // 0 = default weights
+    private Double logLoss;
+    private LocalDateTime optimizedAt;
+    private Boolean optimizing; // An optimization run is queued or in progress
+    private String optimizationError; // Why the last run failed (cleared when a new run starts)
+}
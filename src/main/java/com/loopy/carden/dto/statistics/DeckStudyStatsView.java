@@ -0,0 +1,12 @@
+package com.loopy.carden.dto.statistics;
+
+/**
+ * A user's study totals in one deck, aggregated in the database over the user's study states
+ * of that deck (averageAccuracy is null when no card has been reviewed yet)
+ */
+public record DeckStudyStatsView(Long totalCards,
+                                 Long studiedCards,
+                                 Double averageAccuracy,
+                                 Long masteredCards,
+                                 Long difficultCards) {
+}
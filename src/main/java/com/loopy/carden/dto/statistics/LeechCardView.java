@@ -0,0 +1,13 @@
+package com.loopy.carden.dto.statistics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a leech study state, selected by constructor expression (no entity hydration)
+ */
+public record LeechCardView(Long cardId,
+                            Double accuracyRate,
+                            Integer totalReviews,
+                            Integer consecutiveFailures,
+                            LocalDateTime lastReviewDate) {
+}
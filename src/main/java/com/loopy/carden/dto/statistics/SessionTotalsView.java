@@ -0,0 +1,18 @@
+package com.loopy.carden.dto.statistics;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's review session totals, aggregated in one pass over the user's sessions
+ * (sums and averages are null when the user has no matching session)
+ */
+public record SessionTotalsView(Long totalSessions,
+                                Long completedSessions,
+                                Long totalStudyTimeMinutes,
+                                Long totalCardsStudied,
+                                Double averageAccuracy,
+                                Double averageSessionDuration,
+                                LocalDateTime lastActivityDate,
+                                Long recentSessions,
+                                Long recentStudyTimeMinutes) {
+}
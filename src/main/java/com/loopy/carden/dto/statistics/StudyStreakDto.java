@@ -1,7 +1,9 @@
 package com.loopy.carden.dto.statistics;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.Set;
@@ -11,6 +13,8 @@ import java.util.Set;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class StudyStreakDto {
     private Long userId;
     private Integer currentStreak;
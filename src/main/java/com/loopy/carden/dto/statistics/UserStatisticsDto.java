@@ -1,7 +1,9 @@
 package com.loopy.carden.dto.statistics;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -11,6 +13,8 @@ import java.util.Map;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserStatisticsDto {
     private Long userId;
     private Long totalCards;
@@ -26,6 +30,7 @@ public class UserStatisticsDto {
     private LocalDateTime lastActivityDate;
     private Double averageSessionDuration;
     private Double studyEfficiency; // Cards per minute
+    private boolean partial; // Some figures missed the latency budget and hold defaults
 
     /**
      * Simplified DTO for dashboard display
@@ -12,6 +12,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.Type;
 
@@ -26,6 +28,8 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @SQLRestriction("deleted = false")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Deck extends BaseEntity {
 
     @NotBlank
@@ -83,6 +87,10 @@ public class Deck extends BaseEntity {
     @Column(name = "card_count")
     private Integer cardCount = 0;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "srs_algorithm")
+    private StudyState.SrsAlgorithm srsAlgorithm; // Owner's override for their own reviews; null = their default
+
     @Column(name = "deleted", nullable = false)
     private boolean deleted = false;
 
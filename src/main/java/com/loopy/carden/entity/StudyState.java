@@ -85,6 +85,13 @@ public class StudyState extends BaseEntity {
     @Column(name = "graduated_at")
     private LocalDateTime graduatedAt;
 
+    // FSRS memory state (null until first reviewed with FSRS)
+    @Column(name = "stability")
+    private Double stability; // days until retrievability drops to 90%
+
+    @Column(name = "difficulty")
+    private Double difficulty; // 1-10
+
     public enum CardState {
         NEW,        // Card never studied
         LEARNING,   // Card being learned (failed cards)
@@ -92,6 +99,11 @@ public class StudyState extends BaseEntity {
         RELEARNING  // Card failed from review back to learning
     }
 
+    public enum SrsAlgorithm {
+        SM2,        // Anki-style SM-2 with learning steps
+        FSRS        // Free Spaced Repetition Scheduler (memory model with per-user weights)
+    }
+
     // Helper methods
     public boolean isDue() {
         return dueDate.isBefore(LocalDateTime.now()) || dueDate.isEqual(LocalDateTime.now());
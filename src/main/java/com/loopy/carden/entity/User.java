@@ -103,6 +103,11 @@ public class User extends BaseEntity implements UserDetails {
     @Builder.Default
     private Integer learningGoalCardsPerDay = 20;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "srs_algorithm", nullable = false)
+    @Builder.Default
+    private StudyState.SrsAlgorithm srsAlgorithm = StudyState.SrsAlgorithm.SM2;
+
     // Relationships
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
@@ -0,0 +1,48 @@
+package com.loopy.carden.entity;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * FSRS parameters of a user: model weights (defaults until fitted from review_logs)
+ * and the retention the scheduler targets
+ */
+@Entity
+@Table(name = "user_fsrs_parameters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFsrsParameters extends BaseEntity {
+
+    @NotNull
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    @NotNull
+    @Type(JsonType.class)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private List<Double> weights;
+
+    @Column(name = "desired_retention", nullable = false)
+    private Double desiredRetention = 0.9;
+
+    @Column(name = "trained_review_count", nullable = false)
+    private Integer trainedReviewCount = 0; // 0 = default weights
+
+    @Column(name = "log_loss")
+    private Double logLoss;
+
+    @Column(name = "optimized_at")
+    private LocalDateTime optimizedAt;
+}
@@ -35,6 +35,7 @@ public final class DeckMapper {
             deck.setVisibility(dto.getVisibility());
         }
         if (dto.getCefrLevel() != null) deck.setCefrLevel(dto.getCefrLevel());
+        if (dto.getSrsAlgorithm() != null) deck.setSrsAlgorithm(dto.getSrsAlgorithm());
         if (dto.getSourceLanguage() != null) deck.setSourceLanguage(dto.getSourceLanguage());
         if (dto.getTargetLanguage() != null) deck.setTargetLanguage(dto.getTargetLanguage());
         if (dto.getCoverImageUrl() != null) deck.setCoverImageUrl(dto.getCoverImageUrl());
@@ -50,6 +51,7 @@ public final class DeckMapper {
                 .topicId(deck.getTopic() != null ? deck.getTopic().getId() : null)
                 .visibility(deck.getVisibility())
                 .cefrLevel(deck.getCefrLevel())
+                .srsAlgorithm(deck.getSrsAlgorithm())
                 .sourceLanguage(deck.getSourceLanguage())
                 .targetLanguage(deck.getTargetLanguage())
                 .coverImageUrl(deck.getCoverImageUrl())
@@ -1,12 +1,16 @@
 package com.loopy.carden.mapper;
 
 import com.loopy.carden.dto.practice.PracticeCardDto;
+import com.loopy.carden.dto.practice.PracticeCardView;
 import com.loopy.carden.dto.studystate.StudyStateResponseDto;
 import com.loopy.carden.entity.Card;
 import com.loopy.carden.entity.StudyState;
+import com.loopy.carden.entity.StudyState.CardState;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
 /**
  * Mapper for practice-related DTOs
  */
@@ -30,6 +34,7 @@ public class PracticeMapper {
         dto.setCardId(studyState.getCard().getId());
         dto.setFrontText(studyState.getCard().getFront());
         dto.setFrontImageUrl(studyState.getCard().getImageUrl());
+        dto.setAudioUrl(studyState.getCard().getAudioUrl());
         dto.setBackDefinition(studyState.getCard().getBack());
         dto.setBackMeaningVi(studyState.getCard().getBack()); // Use back for Vietnamese meaning
         dto.setIpa(studyState.getCard().getIpaPronunciation());
@@ -58,6 +63,45 @@ public class PracticeMapper {
         return dto;
     }
 
+    /**
+     * Convert a practice card view (projection query row) to PracticeCardDto
+     */
+    public PracticeCardDto toPracticeCardDto(PracticeCardView view) {
+        PracticeCardDto dto = new PracticeCardDto();
+        
+        // Card information
+        dto.setCardId(view.cardId());
+        dto.setFrontText(view.front());
+        dto.setFrontImageUrl(view.imageUrl());
+        dto.setAudioUrl(view.audioUrl());
+        dto.setBackDefinition(view.back());
+        dto.setBackMeaningVi(view.back()); // Use back for Vietnamese meaning
+        dto.setIpa(view.ipaPronunciation());
+        
+        // Study state information
+        CardState cardState = view.cardState();
+        dto.setStudyStateId(view.studyStateId());
+        dto.setCardState(cardState);
+        dto.setDueDate(view.dueDate());
+        dto.setIntervalDays(view.intervalDays());
+        dto.setTotalReviews(view.totalReviews());
+        dto.setAccuracyRate(view.accuracyRate());
+        dto.setIsDue(!view.dueDate().isAfter(LocalDateTime.now()));
+        dto.setIsNew(cardState == CardState.NEW);
+        dto.setIsLearning(cardState == CardState.LEARNING || cardState == CardState.RELEARNING);
+        
+        // Deck information
+        dto.setDeckId(view.deckId());
+        dto.setDeckTitle(view.deckTitle());
+        
+        dto.setShowAnswer(false);
+        dto.setRemainingNewCards(0);
+        dto.setRemainingReviewCards(0);
+        dto.setRemainingLearningCards(0);
+        
+        return dto;
+    }
+
     /**
      * Copy base properties from Card to any PracticeCardDto subclass
      */
@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface DeckRepository extends JpaRepository<Deck, Long>, JpaSpecificationExecutor<Deck> {
     List<Deck> findByUser(User user);
@@ -18,6 +19,24 @@ public interface DeckRepository extends JpaRepository<Deck, Long>, JpaSpecificat
 
 	Page<Deck> findByUserAndVisibility(User user, Deck.Visibility visibility, Pageable pageable);
 
+	/**
+	 * Ids of a user's decks in a topic (resolves a topic scope for practice queries)
+	 */
+	@Query("SELECT d.id FROM Deck d WHERE d.user.id = :userId AND d.topic.id = :topicId")
+	List<Long> findIdsByUserIdAndTopicId(@Param("userId") Long userId, @Param("topicId") Long topicId);
+
+	/**
+	 * Scheduling algorithm of a user's reviews in a deck: the deck's override when the user owns
+	 * the deck, else the user's default (another owner's setting never changes a learner's scheduler)
+	 */
+	@Query(
+		value = "SELECT COALESCE(d.srs_algorithm, u.srs_algorithm) FROM users u " +
+			"LEFT JOIN decks d ON d.id = :deckId AND d.user_id = u.id " +
+			"WHERE u.id = :userId",
+		nativeQuery = true
+	)
+	Optional<String> findEffectiveSrsAlgorithm(@Param("deckId") Long deckId, @Param("userId") Long userId);
+
 	@Query(
 		value = "SELECT * FROM decks d " +
 			"WHERE (:q IS NULL OR (" +
@@ -1,10 +1,12 @@
 package com.loopy.carden.repository;
 
+import com.loopy.carden.dto.statistics.SessionTotalsView;
 import com.loopy.carden.entity.ReviewSession;
 import com.loopy.carden.entity.ReviewSession.SessionStatus;
 import com.loopy.carden.entity.ReviewSession.StudyMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -35,6 +37,31 @@ public interface ReviewSessionRepository extends JpaRepository<ReviewSession, Lo
            "ORDER BY rs.sessionDate DESC")
     Page<ReviewSession> findByUserIdOrderBySessionDateDesc(@Param("userId") Long userId, Pageable pageable);
 
+    /**
+     * First slice of a user's session history, newest first in (sessionDate, id) order.
+     * Slices run no count query; see {@link #findSessionHistoryBefore} for the following ones.
+     */
+    @Query("SELECT rs FROM ReviewSession rs " +
+           "LEFT JOIN FETCH rs.deck " +
+           "WHERE rs.user.id = :userId " +
+           "ORDER BY rs.sessionDate DESC, rs.id DESC")
+    Slice<ReviewSession> findSessionHistory(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Slice of a user's session history preceding the (beforeDate, beforeId) key. The redundant
+     * {@code sessionDate <= :beforeDate} bounds the index range scan.
+     */
+    @Query("SELECT rs FROM ReviewSession rs " +
+           "LEFT JOIN FETCH rs.deck " +
+           "WHERE rs.user.id = :userId " +
+           "AND rs.sessionDate <= :beforeDate " +
+           "AND (rs.sessionDate < :beforeDate OR rs.id < :beforeId) " +
+           "ORDER BY rs.sessionDate DESC, rs.id DESC")
+    Slice<ReviewSession> findSessionHistoryBefore(@Param("userId") Long userId,
+                                                  @Param("beforeDate") LocalDateTime beforeDate,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+
     /**
      * Find user's sessions for a specific deck
      */
@@ -86,6 +113,24 @@ public interface ReviewSessionRepository extends JpaRepository<ReviewSession, Lo
            "AND rs.sessionDate < :cutoffTime")
     List<ReviewSession> findStaleActiveSessions(@Param("cutoffTime") LocalDateTime cutoffTime);
 
+    /**
+     * All overview totals of a user's sessions in one pass; "recent" counts sessions since {@code sinceDate}
+     */
+    @Query("SELECT new com.loopy.carden.dto.statistics.SessionTotalsView(" +
+           "COUNT(rs), " +
+           "COUNT(CASE WHEN rs.sessionStatus = 'COMPLETED' THEN 1 END), " +
+           "SUM(CASE WHEN rs.sessionStatus = 'COMPLETED' THEN rs.durationMinutes END), " +
+           "SUM(rs.cardsStudied), " +
+           "AVG(CASE WHEN rs.cardsStudied > 0 THEN rs.accuracyRate END), " +
+           "AVG(CASE WHEN rs.sessionStatus = 'COMPLETED' THEN rs.durationMinutes END), " +
+           "MAX(rs.sessionDate), " +
+           "COUNT(CASE WHEN rs.sessionDate >= :sinceDate THEN 1 END), " +
+           "SUM(CASE WHEN rs.sessionDate >= :sinceDate THEN rs.durationMinutes END)) " +
+           "FROM ReviewSession rs " +
+           "WHERE rs.user.id = :userId")
+    SessionTotalsView summarizeSessionsByUserId(@Param("userId") Long userId,
+                                                @Param("sinceDate") LocalDateTime sinceDate);
+
     /**
      * Count sessions for a user
      */
@@ -224,27 +269,6 @@ public interface ReviewSessionRepository extends JpaRepository<ReviewSession, Lo
            "AND rs.sessionDate < :cutoffTime")
     int markStaleSessionsAsAbandoned(@Param("cutoffTime") LocalDateTime cutoffTime);
 
-    /**
-     * Get study streak (consecutive days with sessions)
-     */
-    @Query(value = """
-        WITH RECURSIVE date_series AS (
-            SELECT CURRENT_DATE::date as study_date, 0 as days_back
-            UNION ALL
-            SELECT (study_date - INTERVAL '1 day')::date, days_back + 1
-            FROM date_series
-            WHERE days_back < 365
-            AND EXISTS (
-                SELECT 1 FROM review_sessions rs
-                WHERE rs.user_id = :userId
-                AND DATE(rs.session_date) = (study_date - INTERVAL '1 day')::date
-                AND rs.session_status = 'COMPLETED'
-            )
-        )
-        SELECT COUNT(*) - 1 FROM date_series
-        """, nativeQuery = true)
-    int calculateStudyStreak(@Param("userId") Long userId);
-
     /**
      * Get monthly statistics
      */
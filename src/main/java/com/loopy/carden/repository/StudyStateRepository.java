@@ -1,57 +1,111 @@
 package com.loopy.carden.repository;
 
-import com.loopy.carden.entity.Card;
+import com.loopy.carden.dto.practice.PracticeCardView;
+import com.loopy.carden.dto.statistics.DeckStudyStatsView;
+import com.loopy.carden.dto.statistics.LeechCardView;
 import com.loopy.carden.entity.StudyState;
 import com.loopy.carden.entity.StudyState.CardState;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
 
+    /**
+     * Select clause of practice card list queries: only the columns PracticeCardDto shows,
+     * from study state, card and deck in one joined statement
+     */
+    String PRACTICE_CARD_VIEW = "SELECT new com.loopy.carden.dto.practice.PracticeCardView(" +
+            "s.id, s.cardState, s.dueDate, s.intervalDays, s.totalReviews, s.accuracyRate, s.createdAt, " +
+            "c.id, c.front, c.back, c.imageUrl, c.audioUrl, c.ipaPronunciation, d.id, d.title) " +
+            "FROM StudyState s JOIN s.card c JOIN s.deck d ";
+
     /**
      * Find study state by user and card
      */
     Optional<StudyState> findByUserIdAndCardId(Long userId, Long cardId);
 
     /**
-     * Find all due cards for a user (core SRS query)
+     * Find study states of a user for a set of cards (batch review)
      */
     @Query("SELECT s FROM StudyState s " +
-           "WHERE s.user.id = :userId " +
-           "AND s.dueDate <= :now " +
-           "ORDER BY s.dueDate ASC, s.cardState ASC")
-    Page<StudyState> findDueCardsByUser(@Param("userId") Long userId, 
-                                       @Param("now") LocalDateTime now, 
-                                       Pageable pageable);
+           "JOIN FETCH s.card " +
+           "WHERE s.user.id = :userId AND s.card.id IN :cardIds")
+    List<StudyState> findByUserIdAndCardIdIn(@Param("userId") Long userId, @Param("cardIds") Collection<Long> cardIds);
+
+    /**
+     * Create the missing study states of a user for a set of cards; existing rows are left untouched
+     * (no row version or lock is taken for them). Returns the number of states this call inserted,
+     * so concurrent first reviews of a card count it once. Cards that do not exist or are deleted
+     * are skipped.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "study_states"))
+    @Query(value = "INSERT INTO study_states (user_id, card_id, deck_id, repetition_count, ease_factor, " +
+           "interval_days, due_date, card_state, total_reviews, correct_reviews, accuracy_rate, " +
+           "consecutive_failures, current_learning_step, is_leech, created_at, updated_at, version) " +
+           "SELECT :userId, c.id, c.deck_id, 0, 2.5, 1, :now, 'NEW', 0, 0, 0.0, 0, 0, false, :now, :now, 0 " +
+           "FROM cards c WHERE c.id IN (:cardIds) AND c.deleted = false " +
+           "ON CONFLICT (user_id, card_id) DO NOTHING",
+           nativeQuery = true)
+    int insertMissingStudyStates(@Param("userId") Long userId,
+                                 @Param("cardIds") Collection<Long> cardIds,
+                                 @Param("now") LocalDateTime now);
+
+    /**
+     * Seed the deck owner's NEW study states for every live card of a deck in one statement.
+     * Called whenever cards are added, so new cards are plain study_states rows and need no
+     * anti-join against cards. created_at comes from the card to keep creation order for
+     * new-card selection; cards that already have a state are left untouched. The native query
+     * space hint keeps Hibernate from clearing the whole second-level cache for this insert.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "study_states"))
+    @Query(value = "INSERT INTO study_states (user_id, card_id, deck_id, repetition_count, ease_factor, " +
+           "interval_days, due_date, card_state, total_reviews, correct_reviews, accuracy_rate, " +
+           "consecutive_failures, current_learning_step, is_leech, created_at, updated_at, version) " +
+           "SELECT d.user_id, c.id, c.deck_id, 0, 2.5, 1, :now, 'NEW', 0, 0, 0.0, 0, 0, false, " +
+           "COALESCE(c.created_at, :now), :now, 0 " +
+           "FROM cards c JOIN decks d ON d.id = c.deck_id " +
+           "WHERE c.deck_id = :deckId AND c.deleted = false AND d.deleted = false " +
+           "ON CONFLICT (user_id, card_id) DO NOTHING",
+           nativeQuery = true)
+    int seedStudyStatesForDeck(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
 
     /**
-     * Find all due cards for a user in a specific deck
+     * Find all due learning and review cards for a user (core SRS query); seeded NEW states
+     * carry a due date too but are served by the new-card queries
      */
     @Query("SELECT s FROM StudyState s " +
            "WHERE s.user.id = :userId " +
-           "AND s.deck.id = :deckId " +
            "AND s.dueDate <= :now " +
-           "ORDER BY s.dueDate ASC")
-    List<StudyState> findDueCardsByUserAndDeck(@Param("userId") Long userId,
-                                              @Param("deckId") Long deckId,
-                                              @Param("now") LocalDateTime now);
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.cardState ASC")
+    Page<StudyState> findDueCardsByUser(@Param("userId") Long userId, 
+                                       @Param("now") LocalDateTime now, 
+                                       Pageable pageable);
 
     /**
-     * Count due cards for a user
+     * Count due learning and review cards for a user (new cards are counted separately)
      */
     @Query("SELECT COUNT(s) FROM StudyState s " +
            "WHERE s.user.id = :userId " +
-           "AND s.dueDate <= :now")
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW'")
     Long countDueCardsByUser(@Param("userId") Long userId, 
                             @Param("now") LocalDateTime now);
 
@@ -67,14 +121,205 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
                                              Pageable pageable);
 
     /**
-     * Find new cards for a user (cards never studied)
+     * First study state of a user's due learning and review cards in (dueDate, id) order, with card
+     * and deck loaded (next-card selection; a slice runs no count query)
      */
     @Query("SELECT s FROM StudyState s " +
+           "JOIN FETCH s.card " +
+           "JOIN FETCH s.deck " +
+           "WHERE s.user.id = :userId " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.id ASC")
+    Slice<StudyState> findDueCardsSlice(@Param("userId") Long userId,
+                                        @Param("now") LocalDateTime now,
+                                        Pageable pageable);
+
+    /**
+     * First study state of a user's new cards in (createdAt, id) order, with card and deck loaded
+     */
+    @Query("SELECT s FROM StudyState s " +
+           "JOIN FETCH s.card " +
+           "JOIN FETCH s.deck " +
            "WHERE s.user.id = :userId " +
            "AND s.cardState = 'NEW' " +
-           "ORDER BY s.createdAt ASC")
-    Page<StudyState> findNewCardsByUser(@Param("userId") Long userId, 
-                                       Pageable pageable);
+           "ORDER BY s.createdAt ASC, s.id ASC")
+    Slice<StudyState> findNewCardsSlice(@Param("userId") Long userId,
+                                        Pageable pageable);
+
+    /**
+     * Find due card views of a user (learning and review cards, like {@link #countDueCardsByUser})
+     */
+    @Query(value = PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.id ASC",
+           countQuery = "SELECT COUNT(s) FROM StudyState s JOIN s.card c " +
+           "WHERE s.user.id = :userId " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW'")
+    Page<PracticeCardView> findDueCardViews(@Param("userId") Long userId,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+
+    /**
+     * Find due card views of a user in a set of decks
+     */
+    @Query(value = PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.id ASC",
+           countQuery = "SELECT COUNT(s) FROM StudyState s JOIN s.card c " +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW'")
+    Page<PracticeCardView> findDueCardViewsInDecks(@Param("userId") Long userId,
+                                                   @Param("deckIds") Collection<Long> deckIds,
+                                                   @Param("now") LocalDateTime now,
+                                                   Pageable pageable);
+
+    /**
+     * Find new card views of a user (cards never studied) in creation order
+     */
+    @Query(value = PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.cardState = 'NEW' " +
+           "ORDER BY s.createdAt ASC, s.id ASC",
+           countQuery = "SELECT COUNT(s) FROM StudyState s JOIN s.card c " +
+           "WHERE s.user.id = :userId " +
+           "AND s.cardState = 'NEW'")
+    Page<PracticeCardView> findNewCardViews(@Param("userId") Long userId,
+                                            Pageable pageable);
+
+    /**
+     * Find learning card views of a user (failed cards in learning phase) that are due
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.cardState IN ('LEARNING', 'RELEARNING') " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC")
+    List<PracticeCardView> findLearningCardViews(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now);
+
+    /**
+     * First slice of a user's due card views in (dueDate, id) order.
+     * Slices run no count query; see {@link #findDueCardViewSliceAfter} for the following ones.
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.id ASC")
+    Slice<PracticeCardView> findDueCardViewSlice(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    /**
+     * Slice of a user's due card views following the (afterDue, afterId) key. The redundant
+     * {@code dueDate >= :afterDue} bounds the index range scan.
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "AND s.dueDate >= :afterDue " +
+           "AND (s.dueDate > :afterDue OR s.id > :afterId) " +
+           "ORDER BY s.dueDate ASC, s.id ASC")
+    Slice<PracticeCardView> findDueCardViewSliceAfter(@Param("userId") Long userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("afterDue") LocalDateTime afterDue,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+
+    /**
+     * First slice of a user's due card views in a set of decks in (dueDate, id) order
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "ORDER BY s.dueDate ASC, s.id ASC")
+    Slice<PracticeCardView> findDueCardViewSliceInDecks(@Param("userId") Long userId,
+                                                        @Param("deckIds") Collection<Long> deckIds,
+                                                        @Param("now") LocalDateTime now,
+                                                        Pageable pageable);
+
+    /**
+     * Slice of a user's due card views in a set of decks following the (afterDue, afterId) key
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState <> 'NEW' " +
+           "AND s.dueDate >= :afterDue " +
+           "AND (s.dueDate > :afterDue OR s.id > :afterId) " +
+           "ORDER BY s.dueDate ASC, s.id ASC")
+    Slice<PracticeCardView> findDueCardViewSliceInDecksAfter(@Param("userId") Long userId,
+                                                             @Param("deckIds") Collection<Long> deckIds,
+                                                             @Param("now") LocalDateTime now,
+                                                             @Param("afterDue") LocalDateTime afterDue,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+
+    /**
+     * First slice of a user's new card views in (createdAt, id) order
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.cardState = 'NEW' " +
+           "ORDER BY s.createdAt ASC, s.id ASC")
+    Slice<PracticeCardView> findNewCardViewSlice(@Param("userId") Long userId,
+                                                 Pageable pageable);
+
+    /**
+     * Slice of a user's new card views following the (afterCreated, afterId) key
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.cardState = 'NEW' " +
+           "AND s.createdAt >= :afterCreated " +
+           "AND (s.createdAt > :afterCreated OR s.id > :afterId) " +
+           "ORDER BY s.createdAt ASC, s.id ASC")
+    Slice<PracticeCardView> findNewCardViewSliceAfter(@Param("userId") Long userId,
+                                                      @Param("afterCreated") LocalDateTime afterCreated,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+
+    /**
+     * First slice of a user's new card views in a set of decks in (createdAt, id) order
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.cardState = 'NEW' " +
+           "ORDER BY s.createdAt ASC, s.id ASC")
+    Slice<PracticeCardView> findNewCardViewSliceInDecks(@Param("userId") Long userId,
+                                                        @Param("deckIds") Collection<Long> deckIds,
+                                                        Pageable pageable);
+
+    /**
+     * Slice of a user's new card views in a set of decks following the (afterCreated, afterId) key
+     */
+    @Query(PRACTICE_CARD_VIEW +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.cardState = 'NEW' " +
+           "AND s.createdAt >= :afterCreated " +
+           "AND (s.createdAt > :afterCreated OR s.id > :afterId) " +
+           "ORDER BY s.createdAt ASC, s.id ASC")
+    Slice<PracticeCardView> findNewCardViewSliceInDecksAfter(@Param("userId") Long userId,
+                                                             @Param("deckIds") Collection<Long> deckIds,
+                                                             @Param("afterCreated") LocalDateTime afterCreated,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
 
     /**
      * Find learning cards (failed cards in learning phase)
@@ -88,12 +333,28 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
                                             @Param("now") LocalDateTime now);
 
     /**
-     * Find all study states for a deck (for deck statistics)
+     * Aggregate a user's study states in a deck (served by idx_study_states_user_deck_due)
      */
-    @Query("SELECT s FROM StudyState s " +
-           "WHERE s.deck.id = :deckId " +
-           "ORDER BY s.createdAt DESC")
-    List<StudyState> findByDeckId(@Param("deckId") Long deckId);
+    @Query("SELECT new com.loopy.carden.dto.statistics.DeckStudyStatsView(" +
+           "COUNT(s), " +
+           "COUNT(CASE WHEN s.totalReviews > 0 THEN 1 END), " +
+           "AVG(CASE WHEN s.totalReviews > 0 THEN s.accuracyRate END), " +
+           "COUNT(CASE WHEN s.accuracyRate >= 90 AND s.totalReviews >= 5 THEN 1 END), " +
+           "COUNT(CASE WHEN s.accuracyRate < 50 AND s.totalReviews >= 3 THEN 1 END)) " +
+           "FROM StudyState s " +
+           "WHERE s.user.id = :userId AND s.deck.id = :deckId")
+    DeckStudyStatsView aggregateDeckStudyStats(@Param("userId") Long userId, @Param("deckId") Long deckId);
+
+    /**
+     * Leech cards of a user, worst accuracy first (served by the partial idx_study_states_is_leech)
+     */
+    @Query("SELECT new com.loopy.carden.dto.statistics.LeechCardView(" +
+           "s.card.id, s.accuracyRate, s.totalReviews, s.consecutiveFailures, s.lastReviewDate) " +
+           "FROM StudyState s " +
+           "WHERE s.user.id = :userId AND s.isLeech = true " +
+           "AND s.totalReviews >= :minReviews " +
+           "ORDER BY s.accuracyRate ASC")
+    List<LeechCardView> findLeechCardViews(@Param("userId") Long userId, @Param("minReviews") int minReviews);
 
     /**
      * Calculate user's overall statistics
@@ -133,6 +394,20 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
     @Query("DELETE FROM StudyState s WHERE s.deck.id = :deckId")
     void deleteByDeckId(@Param("deckId") Long deckId);
 
+    /**
+     * Delete the never-studied (NEW) states of a soft-deleted card; reviewed states are kept
+     */
+    @Modifying
+    @Query("DELETE FROM StudyState s WHERE s.card.id = :cardId AND s.cardState = 'NEW'")
+    int deleteNewByCardId(@Param("cardId") Long cardId);
+
+    /**
+     * Delete the never-studied (NEW) states of a soft-deleted deck; reviewed states are kept
+     */
+    @Modifying
+    @Query("DELETE FROM StudyState s WHERE s.deck.id = :deckId AND s.cardState = 'NEW'")
+    int deleteNewByDeckId(@Param("deckId") Long deckId);
+
     /**
      * Delete study states when a user is deleted
      */
@@ -151,14 +426,6 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
            "ELSE 0.0 END")
     int updateAllAccuracyRates();
 
-    /**
-     * Find overdue cards (for debugging/maintenance)
-     */
-    @Query("SELECT s FROM StudyState s " +
-           "WHERE s.dueDate < :cutoffDate " +
-           "ORDER BY s.dueDate ASC")
-    List<StudyState> findOverdueCards(@Param("cutoffDate") LocalDateTime cutoffDate);
-
     /**
      * Count total cards in different states for a user
      */
@@ -174,100 +441,104 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
     @Query("SELECT COUNT(s) FROM StudyState s WHERE s.user.id = :userId")
     long countByUserId(@Param("userId") Long userId);
 
-    /**
-     * Find cards that don't have study states yet for a user (truly new cards)
-     * This should be used to find cards available for first-time study
-     */
-    @Query("SELECT c FROM Card c " +
-           "WHERE c.deck.user.id = :userId " +
-           "AND c.id NOT IN (SELECT s.card.id FROM StudyState s WHERE s.user.id = :userId) " +
-           "ORDER BY c.createdAt ASC")
-    Page<Card> findCardsWithoutStudyState(@Param("userId") Long userId, Pageable pageable);
-
-    /**
-     * Count cards that don't have study states yet for a user
-     */
-    @Query("SELECT COUNT(c) FROM Card c " +
-           "WHERE c.deck.user.id = :userId " +
-           "AND c.id NOT IN (SELECT s.card.id FROM StudyState s WHERE s.user.id = :userId)")
-    long countCardsWithoutStudyState(@Param("userId") Long userId);
-
-    /**
-     * Find the earliest due date for cards that are not yet due
-     * Used to determine when user can study next
-     */
-    @Query("SELECT MIN(s.dueDate) FROM StudyState s " +
-           "WHERE s.user.id = :userId " +
-           "AND s.dueDate > :now")
-    Optional<LocalDateTime> findNextDueTime(@Param("userId") Long userId, 
-                                          @Param("now") LocalDateTime now);
+    // ===== Study queue loading (scheduling keys only, no entity hydration) =====
 
     /**
-     * Count cards that will be due at a specific time
+     * Scheduling keys of every card of a practice session in one query:
+     * [studyStateId, cardId, deckId, cardState, dueDate, createdAt]; optionally limited to a deck
+     * and/or a topic. Contains all learning cards, review cards due at {@code now} (earliest first,
+     * at most {@code maxReviewCards}) and NEW states (oldest first, at most {@code maxNewCards}).
      */
-    @Query("SELECT COUNT(s) FROM StudyState s " +
-           "WHERE s.user.id = :userId " +
-           "AND s.dueDate <= :targetTime " +
-           "AND s.dueDate > :now")
-    Long countCardsDueByTime(@Param("userId") Long userId,
-                           @Param("now") LocalDateTime now,
-                           @Param("targetTime") LocalDateTime targetTime);
+    @Query(value = "SELECT * FROM (" +
+           "  SELECT s.id, s.card_id, s.deck_id, s.card_state, s.due_date, s.created_at FROM study_states s " +
+           "  WHERE s.user_id = :userId AND (CAST(:deckId AS BIGINT) IS NULL OR s.deck_id = :deckId) " +
+           "  AND (CAST(:topicId AS BIGINT) IS NULL OR s.deck_id IN (" +
+           "    SELECT td.id FROM decks td WHERE td.user_id = :userId AND td.topic_id = :topicId)) " +
+           "  AND :includeLearning = TRUE AND s.card_state IN ('LEARNING', 'RELEARNING')" +
+           ") learning " +
+           "UNION ALL " +
+           "SELECT * FROM (" +
+           "  SELECT s.id, s.card_id, s.deck_id, s.card_state, s.due_date, s.created_at FROM study_states s " +
+           "  WHERE s.user_id = :userId AND (CAST(:deckId AS BIGINT) IS NULL OR s.deck_id = :deckId) " +
+           "  AND (CAST(:topicId AS BIGINT) IS NULL OR s.deck_id IN (" +
+           "    SELECT td.id FROM decks td WHERE td.user_id = :userId AND td.topic_id = :topicId)) " +
+           "  AND :includeReview = TRUE AND s.card_state = 'REVIEW' AND s.due_date <= :now " +
+           "  ORDER BY s.due_date ASC LIMIT :maxReviewCards" +
+           ") review " +
+           "UNION ALL " +
+           "SELECT * FROM (" +
+           "  SELECT s.id, s.card_id, s.deck_id, s.card_state, s.due_date, s.created_at FROM study_states s " +
+           "  WHERE s.user_id = :userId AND (CAST(:deckId AS BIGINT) IS NULL OR s.deck_id = :deckId) " +
+           "  AND (CAST(:topicId AS BIGINT) IS NULL OR s.deck_id IN (" +
+           "    SELECT td.id FROM decks td WHERE td.user_id = :userId AND td.topic_id = :topicId)) " +
+           "  AND :includeNew = TRUE AND s.card_state = 'NEW' " +
+           "  ORDER BY s.created_at ASC LIMIT :maxNewCards" +
+           ") fresh",
+           nativeQuery = true)
+    List<Object[]> findSessionQueueKeys(@Param("userId") Long userId,
+                                        @Param("deckId") Long deckId,
+                                        @Param("topicId") Long topicId,
+                                        @Param("includeLearning") boolean includeLearning,
+                                        @Param("includeReview") boolean includeReview,
+                                        @Param("includeNew") boolean includeNew,
+                                        @Param("maxReviewCards") int maxReviewCards,
+                                        @Param("maxNewCards") int maxNewCards,
+                                        @Param("now") LocalDateTime now);
 
     // ===== Deck-specific queries =====
 
     /**
-     * Count due cards for a specific deck
+     * Card ids of due learning cards in a set of decks, earliest first
+     * (index-only scan on idx_study_states_user_deck_due)
      */
-    @Query("SELECT COUNT(s) FROM StudyState s " +
+    @Query("SELECT s.card.id FROM StudyState s " +
            "WHERE s.user.id = :userId " +
-           "AND s.deck.id = :deckId " +
-           "AND s.dueDate <= :now")
-    Long countDueCardsByUserAndDeck(@Param("userId") Long userId,
-                                   @Param("deckId") Long deckId,
-                                   @Param("now") LocalDateTime now);
-
-    /**
-     * Count learning cards for a specific deck
-     */
-    @Query("SELECT COUNT(s) FROM StudyState s " +
-           "WHERE s.user.id = :userId " +
-           "AND s.deck.id = :deckId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
            "AND s.cardState IN ('LEARNING', 'RELEARNING') " +
-           "AND s.dueDate <= :now")
-    Long countLearningCardsByUserAndDeck(@Param("userId") Long userId,
-                                        @Param("deckId") Long deckId,
-                                        @Param("now") LocalDateTime now);
+           "ORDER BY s.dueDate ASC")
+    List<Long> findDueLearningCardIdsByDecks(@Param("userId") Long userId,
+                                             @Param("deckIds") Collection<Long> deckIds,
+                                             @Param("now") LocalDateTime now,
+                                             Pageable pageable);
 
     /**
-     * Count new cards for a specific deck (with existing StudyState)
+     * Card ids of due review cards in a set of decks, earliest first
+     * (index-only scan on idx_study_states_user_deck_due)
      */
-    @Query("SELECT COUNT(s) FROM StudyState s " +
+    @Query("SELECT s.card.id FROM StudyState s " +
            "WHERE s.user.id = :userId " +
-           "AND s.deck.id = :deckId " +
-           "AND s.cardState = 'NEW'")
-    Long countNewCardsByUserAndDeck(@Param("userId") Long userId,
-                                   @Param("deckId") Long deckId);
+           "AND s.deck.id IN :deckIds " +
+           "AND s.dueDate <= :now " +
+           "AND s.cardState = 'REVIEW' " +
+           "ORDER BY s.dueDate ASC")
+    List<Long> findDueReviewCardIdsByDecks(@Param("userId") Long userId,
+                                           @Param("deckIds") Collection<Long> deckIds,
+                                           @Param("now") LocalDateTime now,
+                                           Pageable pageable);
 
     /**
-     * Count cards without StudyState for a specific deck
+     * Card ids of NEW study states in a set of decks, oldest first
+     * (index-only scan on idx_study_states_user_deck_new)
      */
-    @Query("SELECT COUNT(c) FROM Card c " +
-           "WHERE c.deck.user.id = :userId " +
-           "AND c.deck.id = :deckId " +
-           "AND c.id NOT IN (SELECT s.card.id FROM StudyState s WHERE s.user.id = :userId)")
-    Long countCardsWithoutStudyStateByDeck(@Param("userId") Long userId,
-                                          @Param("deckId") Long deckId);
+    @Query("SELECT s.card.id FROM StudyState s " +
+           "WHERE s.user.id = :userId " +
+           "AND s.deck.id IN :deckIds " +
+           "AND s.cardState = 'NEW' " +
+           "ORDER BY s.createdAt ASC")
+    List<Long> findNewCardIdsByDecks(@Param("userId") Long userId,
+                                     @Param("deckIds") Collection<Long> deckIds,
+                                     Pageable pageable);
 
     /**
-     * Find next due time for a specific deck
+     * Load a user's study state of a card with its card and deck
      */
-    @Query("SELECT MIN(s.dueDate) FROM StudyState s " +
-           "WHERE s.user.id = :userId " +
-           "AND s.deck.id = :deckId " +
-           "AND s.dueDate > :now")
-    Optional<LocalDateTime> findNextDueTimeByDeck(@Param("userId") Long userId,
-                                                 @Param("deckId") Long deckId,
-                                                 @Param("now") LocalDateTime now);
+    @Query("SELECT s FROM StudyState s " +
+           "JOIN FETCH s.card " +
+           "JOIN FETCH s.deck " +
+           "WHERE s.user.id = :userId AND s.card.id = :cardId")
+    Optional<StudyState> findByUserIdAndCardIdWithCardAndDeck(@Param("userId") Long userId,
+                                                             @Param("cardId") Long cardId);
 
     // ===== Deck statistics queries =====
 
@@ -291,4 +562,201 @@ public interface StudyStateRepository extends JpaRepository<StudyState, Long> {
      */
     @Query("SELECT COUNT(c) FROM Card c WHERE c.deck.id = :deckId")
     Long countCardsByDeck(@Param("deckId") Long deckId);
+
+    // ===== Review write path =====
+
+    /**
+     * Load the scheduling snapshot of a card for a user in one round trip.
+     * Returns [deckId, id, version, repetitionCount, easeFactor, intervalDays, dueDate, cardState,
+     * lastReviewDate, lastScore, totalReviews, correctReviews, accuracyRate, consecutiveFailures,
+     * currentLearningStep, isLeech, graduatedAt, createdAt, stability, difficulty, srsAlgorithm];
+     * state columns are null when the user has never studied the card. srsAlgorithm is the
+     * effective algorithm (the deck's override when the user owns the deck, else the user's default).
+     */
+    @Query(value = "SELECT c.deck_id, s.id, s.version, s.repetition_count, s.ease_factor, s.interval_days, " +
+           "s.due_date, s.card_state, s.last_review_date, s.last_score, s.total_reviews, s.correct_reviews, " +
+           "s.accuracy_rate, s.consecutive_failures, s.current_learning_step, s.is_leech, s.graduated_at, s.created_at, " +
+           "s.stability, s.difficulty, " +
+           "COALESCE(CASE WHEN d.user_id = u.id THEN d.srs_algorithm END, u.srs_algorithm) " +
+           "FROM cards c " +
+           "JOIN decks d ON d.id = c.deck_id " +
+           "JOIN users u ON u.id = :userId " +
+           "LEFT JOIN study_states s ON s.card_id = c.id AND s.user_id = :userId " +
+           "WHERE c.id = :cardId AND c.deleted = false",
+           nativeQuery = true)
+    List<Object[]> findReviewSnapshot(@Param("userId") Long userId, @Param("cardId") Long cardId);
+
+    /**
+     * Persist a reviewed study state and everything the review response needs in a single statement:
+     * <ul>
+     *   <li>updates the existing state (optimistic version check) or inserts the first one</li>
+     *   <li>bumps the counters and score distribution of the user's active review session, and the
+     *   card totals of that session's day in user_daily_stats</li>
+     *   <li>selects the next card (due learning, due review, then new cards)</li>
+     *   <li>sums the remaining due learning and review cards and the new cards from the user's
+     *   user_deck_counters rows; only decks whose row is past its horizon or max-age
+     *   ({@code minCountedAt}) are counted from study_states</li>
+     * </ul>
+     * All parts of a data-modifying CTE see the same snapshot, so the reviewed card is excluded
+     * from the candidate queries and passed in with its new priority. The counters already hold
+     * the review's delta (reported before this statement); a recounted deck does not, so its
+     * counts are corrected by {@code wasDue}/{@code isDue}/{@code wasNew}.
+     * Returns [stateId, stateVersion, sessionId, cardsStudied, cardsCorrect, accuracyRate,
+     * durationMinutes, nextStudyStateId, nextCardId, remainingDue, remainingNew]; stateId is null
+     * when the version check failed or a concurrent request inserted the state first.
+     */
+    @Query(value = "WITH updated_state AS (" +
+           "  UPDATE study_states SET " +
+           "    repetition_count = :repetitionCount, ease_factor = :easeFactor, interval_days = :intervalDays, " +
+           "    due_date = :dueDate, card_state = :cardState, last_review_date = :lastReviewDate, " +
+           "    last_score = :lastScore, total_reviews = :totalReviews, correct_reviews = :correctReviews, " +
+           "    accuracy_rate = :accuracyRate, consecutive_failures = :consecutiveFailures, " +
+           "    current_learning_step = CAST(:currentLearningStep AS INTEGER), is_leech = :isLeech, " +
+           "    graduated_at = CAST(:graduatedAt AS TIMESTAMP), stability = CAST(:stability AS DOUBLE PRECISION), " +
+           "    difficulty = CAST(:difficulty AS DOUBLE PRECISION), updated_at = :now, version = version + 1 " +
+           "  WHERE id = :stateId AND version = :expectedVersion " +
+           "  RETURNING id, version" +
+           "), inserted_state AS (" +
+           "  INSERT INTO study_states (user_id, card_id, deck_id, repetition_count, ease_factor, interval_days, " +
+           "    due_date, card_state, last_review_date, last_score, total_reviews, correct_reviews, accuracy_rate, " +
+           "    consecutive_failures, current_learning_step, is_leech, graduated_at, stability, difficulty, " +
+           "    created_at, updated_at, version) " +
+           "  SELECT :userId, :cardId, :deckId, :repetitionCount, :easeFactor, :intervalDays, " +
+           "    :dueDate, :cardState, :lastReviewDate, :lastScore, :totalReviews, :correctReviews, :accuracyRate, " +
+           "    :consecutiveFailures, CAST(:currentLearningStep AS INTEGER), :isLeech, CAST(:graduatedAt AS TIMESTAMP), " +
+           "    CAST(:stability AS DOUBLE PRECISION), CAST(:difficulty AS DOUBLE PRECISION), :now, :now, 0 " +
+           "  WHERE :stateId = 0 " +
+           "  ON CONFLICT (user_id, card_id) DO NOTHING " +
+           "  RETURNING id, version" +
+           "), saved_state AS (" +
+           "  SELECT id, version FROM updated_state UNION ALL SELECT id, version FROM inserted_state" +
+           "), updated_session AS (" +
+           "  UPDATE review_sessions SET " +
+           "    cards_studied = cards_studied + 1, " +
+           "    cards_correct = cards_correct + :correct, " +
+           "    new_cards = new_cards + :newCard, " +
+           "    review_cards = review_cards + :reviewCard, " +
+           "    relearning_cards = relearning_cards + :relearningCard, " +
+           "    accuracy_rate = (cards_correct + :correct) * 100.0 / (cards_studied + 1), " +
+           "    session_stats = jsonb_set(jsonb_set(" +
+           "      COALESCE(session_stats, CAST('{\"scoreDistribution\": [0, 0, 0, 0]}' AS JSONB)), " +
+           "      ARRAY['scoreDistribution', CAST(:grade AS TEXT)], " +
+           "      to_jsonb(COALESCE(CAST(session_stats -> 'scoreDistribution' ->> :grade AS INTEGER), 0) + 1)), " +
+           "      ARRAY['averageResponseTime'], " +
+           "      to_jsonb(CASE WHEN session_stats ->> 'averageResponseTime' IS NULL THEN :responseTimeMs " +
+           "        ELSE (CAST(session_stats ->> 'averageResponseTime' AS INTEGER) * cards_studied + :responseTimeMs) " +
+           "          / (cards_studied + 1) END)), " +
+           "    updated_at = :now, version = version + 1 " +
+           "  WHERE id = (SELECT rs.id FROM review_sessions rs " +
+           "              WHERE rs.user_id = :userId AND rs.session_status = 'IN_PROGRESS' " +
+           "              ORDER BY rs.session_date DESC LIMIT 1) " +
+           "  RETURNING id, user_id, session_date, cards_studied, cards_correct, accuracy_rate, duration_minutes" +
+           "), daily_stats AS (" +
+           "  INSERT INTO user_daily_stats (user_id, stat_date, session_count, cards_studied, cards_correct, " +
+           "    new_cards, study_minutes, updated_at) " +
+           "  SELECT se.user_id, CAST(se.session_date AS DATE), 0, 1, :correct, :newCard, 0, :now " +
+           "  FROM updated_session se " +
+           "  ON CONFLICT (user_id, stat_date) DO UPDATE SET " +
+           "    cards_studied = user_daily_stats.cards_studied + EXCLUDED.cards_studied, " +
+           "    cards_correct = user_daily_stats.cards_correct + EXCLUDED.cards_correct, " +
+           "    new_cards = user_daily_stats.new_cards + EXCLUDED.new_cards, " +
+           "    updated_at = EXCLUDED.updated_at" +
+           "), next_card AS (" +
+           "  SELECT candidates.state_id, candidates.card_id FROM (" +
+           "    (SELECT s.id AS state_id, s.card_id, 1 AS priority, s.due_date AS order_time FROM study_states s " +
+           "     WHERE s.user_id = :userId AND s.card_id <> :cardId " +
+           "     AND s.card_state IN ('LEARNING', 'RELEARNING') AND s.due_date <= :now " +
+           "     ORDER BY s.due_date, s.card_id LIMIT 1) " +
+           "    UNION ALL " +
+           "    (SELECT s.id, s.card_id, 2, s.due_date FROM study_states s " +
+           "     WHERE s.user_id = :userId AND s.card_id <> :cardId " +
+           "     AND s.card_state = 'REVIEW' AND s.due_date <= :now " +
+           "     ORDER BY s.due_date, s.card_id LIMIT 1) " +
+           "    UNION ALL " +
+           "    (SELECT s.id, s.card_id, 3, s.created_at FROM study_states s " +
+           "     WHERE s.user_id = :userId AND s.card_id <> :cardId AND s.card_state = 'NEW' " +
+           "     ORDER BY s.created_at, s.card_id LIMIT 1) " +
+           "    UNION ALL " +
+           "    SELECT (SELECT id FROM saved_state), :cardId, :reviewedPriority, :dueDate WHERE :reviewedPriority > 0" +
+           "  ) candidates " +
+           "  ORDER BY candidates.priority, candidates.order_time, candidates.card_id LIMIT 1" +
+           "), counters AS (" +
+           "  SELECT uc.deck_id, uc.new_count, uc.learning_due_count + uc.review_due_count AS due_count, " +
+           "    NOT ((uc.next_due_at IS NULL OR uc.next_due_at > :now) AND uc.counted_at > :minCountedAt) AS stale " +
+           "  FROM user_deck_counters uc WHERE uc.user_id = :userId" +
+           "), remaining AS (" +
+           "  SELECT " +
+           "    COALESCE(SUM(CASE WHEN c.stale " +
+           "      THEN r.due_count + CASE WHEN c.deck_id = :deckId THEN :isDue - :wasDue ELSE 0 END " +
+           "      ELSE c.due_count END), 0) AS due_count, " +
+           "    COALESCE(SUM(CASE WHEN c.stale " +
+           "      THEN r.new_count - CASE WHEN c.deck_id = :deckId THEN :wasNew ELSE 0 END " +
+           "      ELSE c.new_count END), 0) AS new_count " +
+           "  FROM counters c " +
+           "  CROSS JOIN LATERAL (" +
+           "    SELECT COUNT(*) FILTER (WHERE s.card_state <> 'NEW' AND s.due_date <= :now) AS due_count, " +
+           "      COUNT(*) FILTER (WHERE s.card_state = 'NEW') AS new_count " +
+           "    FROM study_states s WHERE c.stale AND s.user_id = :userId AND s.deck_id = c.deck_id" +
+           "  ) r" +
+           ") " +
+           "SELECT st.id, st.version, se.id AS session_id, se.cards_studied, se.cards_correct, se.accuracy_rate, " +
+           "  se.duration_minutes, nc.state_id AS next_state_id, nc.card_id AS next_card_id, " +
+           "  rc.due_count AS remaining_due, rc.new_count AS remaining_new " +
+           "FROM (SELECT 1) AS one " +
+           "LEFT JOIN saved_state st ON true " +
+           "LEFT JOIN updated_session se ON true " +
+           "LEFT JOIN next_card nc ON true " +
+           "CROSS JOIN remaining rc",
+           nativeQuery = true)
+    List<Object[]> applyReview(@Param("userId") Long userId,
+                               @Param("cardId") Long cardId,
+                               @Param("deckId") Long deckId,
+                               @Param("stateId") Long stateId,
+                               @Param("expectedVersion") Long expectedVersion,
+                               @Param("repetitionCount") Integer repetitionCount,
+                               @Param("easeFactor") Double easeFactor,
+                               @Param("intervalDays") Integer intervalDays,
+                               @Param("dueDate") LocalDateTime dueDate,
+                               @Param("cardState") String cardState,
+                               @Param("lastReviewDate") LocalDateTime lastReviewDate,
+                               @Param("lastScore") Integer lastScore,
+                               @Param("totalReviews") Integer totalReviews,
+                               @Param("correctReviews") Integer correctReviews,
+                               @Param("accuracyRate") Double accuracyRate,
+                               @Param("consecutiveFailures") Integer consecutiveFailures,
+                               @Param("currentLearningStep") Integer currentLearningStep,
+                               @Param("isLeech") Boolean isLeech,
+                               @Param("graduatedAt") LocalDateTime graduatedAt,
+                               @Param("stability") Double stability,
+                               @Param("difficulty") Double difficulty,
+                               @Param("grade") int grade,
+                               @Param("responseTimeMs") int responseTimeMs,
+                               @Param("correct") int correct,
+                               @Param("newCard") int newCard,
+                               @Param("reviewCard") int reviewCard,
+                               @Param("relearningCard") int relearningCard,
+                               @Param("reviewedPriority") int reviewedPriority,
+                               @Param("wasDue") int wasDue,
+                               @Param("isDue") int isDue,
+                               @Param("wasNew") int wasNew,
+                               @Param("now") LocalDateTime now,
+                               @Param("minCountedAt") LocalDateTime minCountedAt);
+
+    /**
+     * Load a study state with its card and deck for display
+     */
+    @Query("SELECT s FROM StudyState s " +
+           "JOIN FETCH s.card " +
+           "JOIN FETCH s.deck " +
+           "WHERE s.id = :id")
+    Optional<StudyState> findByIdWithCardAndDeck(@Param("id") Long id);
+
+    /**
+     * Load several study states with their cards and decks for display
+     */
+    @Query("SELECT s FROM StudyState s " +
+           "JOIN FETCH s.card " +
+           "JOIN FETCH s.deck " +
+           "WHERE s.id IN :ids")
+    List<StudyState> findAllByIdWithCardAndDeck(@Param("ids") Collection<Long> ids);
 }
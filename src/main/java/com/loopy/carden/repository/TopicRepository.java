@@ -1,23 +1,30 @@
 package com.loopy.carden.repository;
 
 import com.loopy.carden.entity.Topic;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TopicRepository extends JpaRepository<Topic, Long> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM Topic t WHERE t.parentTopic IS NULL ORDER BY t.displayOrder ASC")
     List<Topic> findRootTopicsOrderByDisplayOrder();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM Topic t WHERE t.parentTopic = :parentTopic ORDER BY t.displayOrder ASC")
     List<Topic> findChildTopicsOrderByDisplayOrder(@Param("parentTopic") Topic parentTopic);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM Topic t WHERE t.isSystemTopic = true ORDER BY t.displayOrder ASC")
     List<Topic> findSystemTopicsOrderByDisplayOrder();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM Topic t WHERE t.isSystemTopic = false ORDER BY t.displayOrder ASC")
     List<Topic> findNonSystemTopicsOrderByDisplayOrder();
 }
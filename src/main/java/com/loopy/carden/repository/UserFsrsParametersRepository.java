@@ -0,0 +1,16 @@
+package com.loopy.carden.repository;
+
+import com.loopy.carden.entity.UserFsrsParameters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserFsrsParametersRepository extends JpaRepository<UserFsrsParameters, Long> {
+
+    /**
+     * Find the FSRS parameters of a user
+     */
+    Optional<UserFsrsParameters> findByUserId(Long userId);
+}
@@ -11,6 +11,8 @@ import com.loopy.carden.exception.BadRequestException;
 import com.loopy.carden.exception.ResourceNotFoundException;
 import com.loopy.carden.exception.ServiceException;
 import com.loopy.carden.repository.DeckRepository;
+import com.loopy.carden.repository.StudyStateRepository;
+import com.loopy.carden.service.counter.CardCounterService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +34,8 @@ import java.util.Map;
 public class BulkCardGenerationService {
 
     private final DeckRepository deckRepository;
+    private final StudyStateRepository studyStateRepository;
+    private final CardCounterService cardCounterService;
     private final CardService cardService;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
@@ -67,6 +71,13 @@ public class BulkCardGenerationService {
             // Parse and validate response
             BulkCardGenerationResponseDto response = parsePythonResponse(pythonResponse, request, deck, startTime);
             
+            // The Python service writes the cards itself: seed their NEW study states in one statement
+            if (response.getTotalSaved() != null && response.getTotalSaved() > 0) {
+                int seeded = studyStateRepository.seedStudyStatesForDeck(deck.getId(), LocalDateTime.now());
+                cardCounterService.onCardsAdded(deck.getUser().getId(), deck.getId(), seeded);
+                log.debug("Seeded {} new study states for deck {}", seeded, deck.getId());
+            }
+            
             log.info("Bulk card generation completed for deck {} - {} cards saved", 
                     request.getDeckId(), response.getTotalSaved());
             
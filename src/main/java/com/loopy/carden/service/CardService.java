@@ -10,11 +10,12 @@ import com.loopy.carden.mapper.CardMapper;
 import com.loopy.carden.repository.CardRepository;
 import com.loopy.carden.repository.CardSpecifications;
 import com.loopy.carden.repository.DeckRepository;
+import com.loopy.carden.repository.StudyStateRepository;
+import com.loopy.carden.service.cache.EntityCacheEvictor;
+import com.loopy.carden.service.counter.CardCounterService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-// Cache annotations removed temporarily
-// import org.springframework.cache.annotation.CacheEvict;
-// import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -29,6 +30,10 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final DeckRepository deckRepository;
+    private final StudyStateRepository studyStateRepository;
+    private final CardCounterService cardCounterService;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final CacheManager cacheManager;
 
     @Transactional
     public Card createCard(User owner, Long deckId, Card card) {
@@ -50,13 +55,16 @@ public class CardService {
         
         var saved = cardRepository.save(card);
         
+        // Seed the owner's NEW study state so the card is served as a new card
+        int seeded = studyStateRepository.insertMissingStudyStates(owner.getId(), List.of(saved.getId()), LocalDateTime.now());
+        cardCounterService.onCardsAdded(owner.getId(), deckId, seeded);
+        
         // Update deck card count
         updateDeckCardCount(deck);
         
         return saved;
     }
 
-    // @Cacheable(value = "cards", key = "#cardId")
     public Card getCard(User requester, Long cardId) {
         var card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + cardId));
@@ -87,7 +95,6 @@ public class CardService {
     }
 
     @Transactional
-    // @CacheEvict(value = "cards", key = "#cardId")
     public Card updateCard(User owner, Long cardId, CardUpdateDto updateDto) {
         var existingCard = cardRepository.findById(cardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + cardId));
@@ -118,7 +125,6 @@ public class CardService {
     }
 
     @Transactional
-    // @CacheEvict(value = "cards", key = "#cardId")
     public void deleteCard(User owner, Long cardId) {
         var card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + cardId));
@@ -130,6 +136,11 @@ public class CardService {
         card.setDeleted(true);
         card.setDeletedAt(LocalDateTime.now());
         cardRepository.save(card);
+        entityCacheEvictor.evictAfterCommit(Card.class, cardId);
+        
+        // Seeded new-card state would otherwise keep the card in the owner's queue
+        int removed = studyStateRepository.deleteNewByCardId(cardId);
+        cardCounterService.onCardsRemoved(card.getDeck().getUser().getId(), card.getDeck().getId(), removed);
         
         // Update deck card count
         updateDeckCardCount(card.getDeck());
@@ -156,6 +167,8 @@ public class CardService {
         }
         
         var savedCards = cardRepository.saveAll(cards);
+        int seeded = studyStateRepository.seedStudyStatesForDeck(deck.getId(), LocalDateTime.now());
+        cardCounterService.onCardsAdded(owner.getId(), deck.getId(), seeded);
         updateDeckCardCount(deck);
         
         return savedCards;
@@ -217,6 +230,8 @@ public class CardService {
     private void updateDeckCardCount(Deck deck) {
         long cardCount = cardRepository.countByDeckId(deck.getId());
         deck.setCardCount((int) cardCount);
+        // Cached deck details carry the card count
+        cacheManager.getCache(DeckService.DECKS_CACHE).evict(deck.getId());
         // Note: This would require DeckRepository.save(deck) but we don't want circular dependency
         // This should be handled by a separate service or event
     }
@@ -9,8 +9,14 @@ import com.loopy.carden.exception.ResourceNotFoundException;
 import com.loopy.carden.mapper.DeckMapper;
 import com.loopy.carden.repository.DeckRepository;
 import com.loopy.carden.repository.DeckSpecifications;
+import com.loopy.carden.repository.StudyStateRepository;
+import com.loopy.carden.service.cache.EntityCacheEvictor;
+import com.loopy.carden.service.counter.CardCounterService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,8 +27,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class DeckService {
 
+    static final String DECKS_CACHE = "decks";
+
     private final DeckRepository deckRepository;
     private final TopicService topicService;
+    private final StudyStateRepository studyStateRepository;
+    private final CardCounterService cardCounterService;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final CacheManager cacheManager;
 
     @Transactional
     public DeckResponseDto createDeck(User owner, DeckCreateDto request) {
@@ -33,16 +45,27 @@ public class DeckService {
         return DeckMapper.toResponseDto(saved);
     }
 
+    /**
+     * Deck details, served from the "decks" cache; visibility is checked on every call since
+     * the cached entry is shared by all requesters
+     */
     public DeckResponseDto getDeck(User requester, Long deckId) {
-        var deck = deckRepository.findById(deckId)
-                .orElseThrow(() -> new ResourceNotFoundException("Deck not found: " + deckId));
-        if (!canView(requester, deck)) {
+        Cache decks = cacheManager.getCache(DECKS_CACHE);
+        var dto = decks.get(deckId, DeckResponseDto.class);
+        if (dto == null) {
+            var deck = deckRepository.findById(deckId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Deck not found: " + deckId));
+            dto = DeckMapper.toResponseDto(deck);
+            decks.put(deckId, dto);
+        }
+        if (!canView(requester, dto)) {
             throw new ResourceNotFoundException("Deck not found: " + deckId);
         }
-        return DeckMapper.toResponseDto(deck);
+        return dto;
     }
 
     @Transactional
+    @CacheEvict(value = DECKS_CACHE, key = "#deckId")
     public DeckResponseDto updateDeck(User requester, Long deckId, DeckUpdateDto request) {
         var deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck not found: " + deckId));
@@ -54,6 +77,7 @@ public class DeckService {
     }
 
     @Transactional
+    @CacheEvict(value = DECKS_CACHE, key = "#deckId")
     public void deleteDeck(User requester, Long deckId) {
         var deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck not found: " + deckId));
@@ -61,9 +85,13 @@ public class DeckService {
         deck.setDeleted(true);
         deck.setDeletedAt(java.time.LocalDateTime.now());
         deckRepository.save(deck);
+        entityCacheEvictor.evictAfterCommit(Deck.class, deckId);
+        int removed = studyStateRepository.deleteNewByDeckId(deckId);
+        cardCounterService.onCardsRemoved(deck.getUser().getId(), deckId, removed);
     }
 
     @Transactional
+    @CacheEvict(value = DECKS_CACHE, key = "#deckId")
     public String confirmThumbnailUpload(User requester, Long deckId, String publicUrl) {
         var deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck not found: " + deckId));
@@ -104,9 +132,9 @@ public class DeckService {
         return page.map(DeckMapper::toResponseDto);
     }
 
-    private boolean canView(User requester, Deck deck) {
+    private boolean canView(User requester, DeckResponseDto deck) {
         if (deck.getVisibility() == Deck.Visibility.PUBLIC) return true;
-        return requester != null && deck.getUser() != null && requester.getId().equals(deck.getUser().getId());
+        return requester != null && deck.getUserId() != null && requester.getId().equals(deck.getUserId());
     }
 
     private void requireOwner(User requester, Deck deck) {
@@ -2,40 +2,39 @@ package com.loopy.carden.service;
 
 import com.loopy.carden.dto.statistics.PerformanceStatsDto;
 import com.loopy.carden.dto.statistics.UserStatisticsDto;
+import com.loopy.carden.service.analytics.AnalyticsSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Service for generating study insights and recommendations
+ * Service for generating study insights and recommendations. Insights are derived from an
+ * {@link AnalyticsSnapshot} and run no queries of their own.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class InsightsService {
 
-    private final StatisticsService statisticsService;
-
     /**
-     * Generate study insights for a user
+     * Generate study insights from a user's analytics snapshot
      */
-    public List<StudyInsight> generateInsights(Long userId) {
+    public List<StudyInsight> generateInsights(AnalyticsSnapshot snapshot) {
         List<StudyInsight> insights = new ArrayList<>();
         
-        UserStatisticsDto stats = statisticsService.getUserStatistics(userId);
+        UserStatisticsDto stats = snapshot.overview();
         
         // Performance insights
-        insights.addAll(generatePerformanceInsights(userId, stats));
+        insights.addAll(generatePerformanceInsights(stats, snapshot.recent()));
         
         // Streak insights
         insights.addAll(generateStreakInsights(stats));
         
         // Study pattern insights
-        insights.addAll(generateStudyPatternInsights(userId, stats));
+        insights.addAll(generateStudyPatternInsights(stats));
         
         // Motivational insights
         insights.addAll(generateMotivationalInsights(stats));
@@ -46,14 +45,9 @@ public class InsightsService {
     /**
      * Generate performance-related insights
      */
-    private List<StudyInsight> generatePerformanceInsights(Long userId, UserStatisticsDto stats) {
+    private List<StudyInsight> generatePerformanceInsights(UserStatisticsDto stats, PerformanceStatsDto recentPerf) {
         List<StudyInsight> insights = new ArrayList<>();
         
-        // Get last 30 days performance
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime thirtyDaysAgo = now.minusDays(30);
-        PerformanceStatsDto recentPerf = statisticsService.getPerformanceStats(userId, thirtyDaysAgo, now);
-        
         // Accuracy insights
         if (stats.getOverallAccuracy() >= 90.0) {
             insights.add(StudyInsight.builder()
@@ -137,7 +131,7 @@ public class InsightsService {
     /**
      * Generate study pattern insights
      */
-    private List<StudyInsight> generateStudyPatternInsights(Long userId, UserStatisticsDto stats) {
+    private List<StudyInsight> generateStudyPatternInsights(UserStatisticsDto stats) {
         List<StudyInsight> insights = new ArrayList<>();
         
         // Cards distribution insights
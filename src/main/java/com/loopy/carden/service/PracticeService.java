@@ -1,16 +1,25 @@
 package com.loopy.carden.service;
 
+import com.loopy.carden.dto.CursorPageDto;
 import com.loopy.carden.dto.practice.*;
+import com.loopy.carden.dto.session.ReviewSessionResponseDto;
 import com.loopy.carden.entity.Card;
 import com.loopy.carden.entity.ReviewSession;
 import com.loopy.carden.entity.StudyState;
 import com.loopy.carden.exception.ResourceNotFoundException;
 import com.loopy.carden.mapper.PracticeMapper;
 import com.loopy.carden.repository.CardRepository;
+import com.loopy.carden.service.analytics.AnalyticsResultCache;
+import com.loopy.carden.service.counter.CardCounterService.Counters;
+import com.loopy.carden.service.pagination.KeysetCursor;
+import com.loopy.carden.service.queue.StudyQueue;
+import com.loopy.carden.service.queue.StudyQueueService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,12 +38,17 @@ import java.util.Optional;
 @Slf4j
 public class PracticeService {
 
+    private static final int MAX_PREFETCH = 20;
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final StudyStateService studyStateService;
     private final ReviewSessionService reviewSessionService;
     private final CardRepository cardRepository;
     private final PracticeMapper practiceMapper;
     private final AnswerValidationService answerValidationService;
     private final DistractorGenerationService distractorGenerationService;
+    private final StudyQueueService studyQueueService;
+    private final AnalyticsResultCache analyticsResultCache;
 
     /**
      * Start a new practice session
@@ -43,18 +57,20 @@ public class PracticeService {
         // Create new review session
         ReviewSession session = reviewSessionService.startSession(userId, startDto.getDeckId(), startDto.getStudyMode());
         
-        // Get initial card counts
-        long dueCount = studyStateService.getDueCardsCount(userId);
+        // Materialize the session's card list once; next-card selection is served from it
+        StudyQueue queue = studyQueueService.load(session.getId(), userId, startDto);
+        int dueCount = queue.countAvailable(LocalDateTime.now());
         
-        log.info("Started practice session {} for user {} with {} due cards", 
-                session.getId(), userId, dueCount);
+        log.info("Started practice session {} for user {} with {} cards ({} available now)", 
+                session.getId(), userId, queue.size(), dueCount);
         
         return PracticeSessionDto.builder()
                 .sessionId(session.getId())
                 .studyMode(session.getStudyMode())
                 .deckId(session.getDeck() != null ? session.getDeck().getId() : null)
+                .topicId(startDto.getTopicId())
                 .startTime(session.getSessionDate())
-                .dueCardsCount((int) dueCount)
+                .dueCardsCount(dueCount)
                 .maxNewCards(startDto.getMaxNewCards())
                 .maxReviewCards(startDto.getMaxReviewCards())
                 .includeNewCards(startDto.getIncludeNewCards())
@@ -89,14 +105,19 @@ public class PracticeService {
     }
 
     /**
-     * Complete practice session
+     * Complete practice session (cached streak and dashboard analytics of the user are dropped;
+     * the stored overview is refreshed after commit)
      */
+    @CacheEvict(value = "studyStreak", key = "#userId")
     public SessionSummaryDto completeSession(Long sessionId, Long userId) {
         ReviewSession completedSession = reviewSessionService.completeSession(sessionId, userId);
+        studyQueueService.evict(userId);
+        analyticsResultCache.invalidateAfterCommit(userId);
         
         // Calculate next study time information
-        LocalDateTime nextStudyTime = studyStateService.getNextAvailableStudyTime(userId);
-        boolean canStudyNow = studyStateService.hasCardsAvailableNow(userId);
+        Counters counters = studyStateService.getCardCounters(userId, null);
+        boolean canStudyNow = counters.hasCardsAvailable();
+        LocalDateTime nextStudyTime = canStudyNow ? null : counters.nextDueAt;
         Long minutesUntilNext = null;
         
         if (nextStudyTime != null && !canStudyNow) {
@@ -125,18 +146,30 @@ public class PracticeService {
      * Get due cards for practice
      */
     @Transactional(readOnly = true)
-    public Page<PracticeCardDto> getDueCards(Long userId, Long deckId, Pageable pageable) {
-        Page<StudyState> dueStates = studyStateService.getDueCards(userId, pageable);
+    public Page<PracticeCardDto> getDueCards(Long userId, Long deckId, Long topicId, Pageable pageable) {
+        Page<PracticeCardView> dueCards = studyStateService.getDueCardViews(userId, deckId, topicId, pageable);
         
-        return dueStates.map(state -> practiceMapper.toPracticeCardDto(state, deckId));
+        return dueCards.map(practiceMapper::toPracticeCardDto);
     }
 
     /**
      * Get next card to practice with intelligent prioritization
+     * 
+     * @param prefetch Number of following cards to include in {@code upcomingCards} (0 = none)
      */
     @Transactional(readOnly = true)
-    public PracticeCardDto getNextCard(Long userId, Long deckId) {
-        Optional<StudyState> nextState = studyStateService.getNextCard(userId);
+    public PracticeCardDto getNextCard(Long userId, Long deckId, Long topicId, int prefetch) {
+        if (prefetch > 0) {
+            List<PracticeCardDto> cards = getUpcomingCards(userId, deckId, topicId, prefetch + 1);
+            if (cards.isEmpty()) {
+                throw new ResourceNotFoundException("No cards available for practice");
+            }
+            PracticeCardDto nextCard = cards.get(0);
+            nextCard.setUpcomingCards(cards.subList(1, cards.size()));
+            return nextCard;
+        }
+        
+        Optional<StudyState> nextState = studyStateService.getNextCard(userId, deckId, topicId);
         
         if (nextState.isEmpty()) {
             throw new ResourceNotFoundException("No cards available for practice");
@@ -145,42 +178,51 @@ public class PracticeService {
         return practiceMapper.toPracticeCardDto(nextState.get(), deckId);
     }
 
+    /**
+     * The next cards in serving order, loaded together so clients can render and preload media ahead
+     */
+    private List<PracticeCardDto> getUpcomingCards(Long userId, Long deckId, Long topicId, int count) {
+        return studyStateService.getUpcomingCards(userId, deckId, topicId, Math.min(count, MAX_PREFETCH + 1)).stream()
+                .map(state -> practiceMapper.toPracticeCardDto(state, deckId))
+                .toList();
+    }
+
     /**
      * Submit a card review and update SRS state
      */
-    public ReviewResultDto submitReview(Long cardId, Long userId, ReviewSubmissionDto reviewDto) {
-        // Process the review through SRS algorithm
-        StudyState updatedState = studyStateService.processReview(
-                cardId, userId, reviewDto.getGrade(), LocalDateTime.now());
-        
-        // Update active session if exists
-        Optional<ReviewSession> activeSession = reviewSessionService.getActiveSession(userId);
-        if (activeSession.isPresent()) {
-            boolean isNewCard = updatedState.getTotalReviews() == 1;
-            reviewSessionService.recordCardReview(
-                    activeSession.get().getId(), 
-                    userId, 
-                    reviewDto.getGrade(), 
-                    reviewDto.getResponseTimeMs(),
-                    isNewCard
-            );
+    public ReviewResultDto submitReview(Long cardId, Long userId, ReviewSubmissionDto reviewDto, int prefetch) {
+        // State upsert, session counters, next card and remaining counts in one statement
+        StudyStateService.ReviewWriteResult written = studyStateService.processReviewWithProgress(
+                cardId, userId, reviewDto.getGrade(), reviewDto.getResponseTimeMs(), LocalDateTime.now());
+        StudyState updatedState = written.studyState;
+        
+        PracticeCardDto nextCard;
+        List<PracticeCardDto> upcomingCards = null;
+        if (prefetch > 0) {
+            // Next card and the ones after it, loaded together
+            List<PracticeCardDto> cards = getUpcomingCards(userId, null, null, prefetch + 1);
+            nextCard = cards.isEmpty() ? null : cards.get(0);
+            upcomingCards = cards.isEmpty() ? List.of() : cards.subList(1, cards.size());
+        } else {
+            // Next card from the session's list when loaded, else the one selected by the write statement
+            Optional<StudyState> nextState = studyQueueService.getQueue(userId).isPresent()
+                    ? studyStateService.getNextCard(userId)
+                    : studyStateService.loadNextCard(written.nextStudyStateId, written.nextCardId, userId);
+            nextCard = nextState
+                    .map(state -> practiceMapper.toPracticeCardDto(state, null))
+                    .orElse(null);
         }
         
-        // Get next card
-        Optional<StudyState> nextCardState = studyStateService.getNextCard(userId);
-        PracticeCardDto nextCard = nextCardState.map(state -> practiceMapper.toPracticeCardDto(state, null))
-                .orElse(null);
-        
         // Build session progress
         ReviewResultDto.SessionProgressDto progress = null;
-        if (activeSession.isPresent()) {
-            ReviewSession session = activeSession.get();
+        if (written.sessionId != null) {
             progress = new ReviewResultDto.SessionProgressDto();
-            progress.setCardsStudied(session.getCardsStudied());
-            progress.setCardsCorrect(session.getCardsCorrect());
-            progress.setCurrentAccuracy(session.getAccuracyRate());
-            progress.setRemainingCards((int) studyStateService.getDueCardsCount(userId));
-            progress.setSessionDurationMinutes(session.getDurationMinutes());
+            progress.setCardsStudied(written.cardsStudied);
+            progress.setCardsCorrect(written.cardsCorrect);
+            progress.setCurrentAccuracy(written.sessionAccuracy);
+            progress.setRemainingCards((int) written.remainingDue);
+            progress.setRemainingNewCards(written.remainingNew);
+            progress.setSessionDurationMinutes(written.sessionDurationMinutes);
         }
         
         ReviewResultDto result = ReviewResultDto.builder()
@@ -192,6 +234,7 @@ public class PracticeService {
                 .success(true)
                 .updatedStudyState(practiceMapper.toSimplifiedStudyStateDto(updatedState))
                 .nextCard(nextCard)
+                .upcomingCards(upcomingCards)
                 .sessionProgress(progress)
                 .build();
         
@@ -202,39 +245,91 @@ public class PracticeService {
     }
 
     /**
-     * Get count of due cards
+     * Submit a batch of card reviews (e.g. queued while offline) in one transaction
      */
-    @Transactional(readOnly = true)
-    public DueCardsCountDto getDueCardsCount(Long userId, Long deckId) {
-        // Get detailed card counts (deck-specific or global)
-        StudyStateService.CardCounts cardCounts;
-        LocalDateTime nextStudyTime;
-        boolean hasCardsAvailable;
-        
-        if (deckId != null) {
-            // Deck-specific counting
-            cardCounts = studyStateService.getDetailedCardCountsByDeck(userId, deckId);
-            nextStudyTime = studyStateService.getNextAvailableStudyTimeByDeck(userId, deckId);
-            hasCardsAvailable = studyStateService.hasCardsAvailableNowByDeck(userId, deckId);
-        } else {
-            // Global counting
-            cardCounts = studyStateService.getDetailedCardCounts(userId);
-            nextStudyTime = studyStateService.getNextAvailableStudyTime(userId);
-            hasCardsAvailable = studyStateService.hasCardsAvailableNow(userId);
+    public BatchReviewResultDto submitReviewBatch(Long userId, BatchReviewSubmissionDto batchDto) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Reviews are applied in submission order; missing or future timestamps fall back to now
+        List<StudyStateService.ReviewCommand> commands = batchDto.getReviews().stream()
+                .map(item -> new StudyStateService.ReviewCommand(
+                        item.getCardId(),
+                        item.getGrade(),
+                        item.getReviewedAt() != null && !item.getReviewedAt().isAfter(now) ? item.getReviewedAt() : now,
+                        item.getResponseTimeMs() != null ? item.getResponseTimeMs() : 0))
+                .toList();
+        
+        List<StudyStateService.ReviewOutcome> outcomes = studyStateService.processReviewBatch(userId, commands);
+        
+        // Update active session once for the whole batch
+        ReviewSession session = reviewSessionService.getActiveSession(userId)
+                .map(active -> reviewSessionService.recordCardReviews(
+                        active.getId(),
+                        userId,
+                        outcomes.stream()
+                                .map(outcome -> new ReviewSessionService.CardReview(
+                                        outcome.grade, outcome.responseTimeMs, outcome.newCard))
+                                .toList()))
+                .orElse(null);
+        
+        // Get next card
+        Optional<StudyState> nextCardState = studyStateService.getNextCard(userId);
+        PracticeCardDto nextCard = nextCardState.map(state -> practiceMapper.toPracticeCardDto(state, null))
+                .orElse(null);
+        
+        // Build session progress
+        ReviewResultDto.SessionProgressDto progress = null;
+        if (session != null) {
+            Counters counters = studyStateService.getCardCounters(userId, null);
+            progress = new ReviewResultDto.SessionProgressDto();
+            progress.setCardsStudied(session.getCardsStudied());
+            progress.setCardsCorrect(session.getCardsCorrect());
+            progress.setCurrentAccuracy(session.getAccuracyRate());
+            progress.setRemainingCards(counters.totalDue());
+            progress.setRemainingNewCards(counters.newCards);
+            progress.setSessionDurationMinutes(session.getDurationMinutes());
         }
         
+        List<BatchReviewResultDto.ItemResultDto> results = outcomes.stream()
+                .map(outcome -> BatchReviewResultDto.ItemResultDto.builder()
+                        .cardId(outcome.cardId)
+                        .grade(outcome.grade)
+                        .isCorrect(outcome.grade >= 2)
+                        .updatedStudyState(practiceMapper.toSimplifiedStudyStateDto(outcome.studyState))
+                        .build())
+                .toList();
+        
+        log.debug("Processed batch of {} reviews for user {}", results.size(), userId);
+        
+        return BatchReviewResultDto.builder()
+                .processedCount(results.size())
+                .correctCount((int) results.stream().filter(BatchReviewResultDto.ItemResultDto::getIsCorrect).count())
+                .results(results)
+                .nextCard(nextCard)
+                .sessionProgress(progress)
+                .build();
+    }
+
+    /**
+     * Get count of due cards (a counter lookup; the counters row is recounted when stale)
+     */
+    public DueCardsCountDto getDueCardsCount(Long userId, Long deckId) {
+        Counters counters = studyStateService.getCardCounters(userId, deckId);
+        boolean hasCardsAvailable = counters.hasCardsAvailable();
+        LocalDateTime nextStudyTime = hasCardsAvailable ? null : counters.nextDueAt;
+        
         // Calculate minutes until next card is available
         Long minutesUntilNext = null;
-        if (nextStudyTime != null && !hasCardsAvailable) {
+        if (nextStudyTime != null) {
             LocalDateTime now = LocalDateTime.now();
             minutesUntilNext = java.time.Duration.between(now, nextStudyTime).toMinutes();
         }
         
         return DueCardsCountDto.builder()
-                .totalDue(cardCounts.totalDue)
-                .newCards(cardCounts.newCards)
-                .reviewCards(cardCounts.reviewCards)
-                .learningCards(cardCounts.learningCards)
+                .totalDue(counters.totalDue())
+                .newCards(counters.newCards)
+                .reviewCards(counters.reviewDue)
+                .learningCards(counters.learningDue)
                 .nextCardAvailableAt(nextStudyTime)
                 .minutesUntilNext(minutesUntilNext)
                 .hasCardsAvailable(hasCardsAvailable)
@@ -246,9 +341,48 @@ public class PracticeService {
      */
     @Transactional(readOnly = true)
     public Page<PracticeCardDto> getNewCards(Long userId, Long deckId, Pageable pageable) {
-        Page<StudyState> newStates = studyStateService.getNewCards(userId, pageable);
+        Page<PracticeCardView> newCards = studyStateService.getNewCardViews(userId, pageable);
         
-        return newStates.map(state -> practiceMapper.toPracticeCardDto(state, deckId));
+        return newCards.map(practiceMapper::toPracticeCardDto);
+    }
+
+    /**
+     * Get due cards for practice by cursor, in (dueDate, id) order. Runs no count query and
+     * reads every page with the same index seek.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PracticeCardDto> scrollDueCards(Long userId, Long deckId, Long topicId, String cursor, int size) {
+        Slice<PracticeCardView> dueCards = studyStateService.getDueCardViewSlice(
+                userId, deckId, topicId, KeysetCursor.decode(cursor), scrollSize(size));
+        
+        return KeysetCursor.toPage(dueCards,
+                view -> new KeysetCursor(view.dueDate(), view.studyStateId()),
+                practiceMapper::toPracticeCardDto);
+    }
+
+    /**
+     * Get new cards for study by cursor, in creation order, optionally limited to one deck
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PracticeCardDto> scrollNewCards(Long userId, Long deckId, String cursor, int size) {
+        Slice<PracticeCardView> newCards = studyStateService.getNewCardViewSlice(
+                userId, deckId, KeysetCursor.decode(cursor), scrollSize(size));
+        
+        return KeysetCursor.toPage(newCards,
+                view -> new KeysetCursor(view.createdAt(), view.studyStateId()),
+                practiceMapper::toPracticeCardDto);
+    }
+
+    /**
+     * Get the user's practice session history by cursor, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReviewSessionResponseDto> getSessionHistory(Long userId, String cursor, int size) {
+        return reviewSessionService.getSessionHistoryDto(userId, cursor, scrollSize(size));
+    }
+
+    private static int scrollSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
     }
 
     /**
@@ -256,10 +390,10 @@ public class PracticeService {
      */
     @Transactional(readOnly = true)
     public List<PracticeCardDto> getLearningCards(Long userId, Long deckId) {
-        List<StudyState> learningStates = studyStateService.getLearningCards(userId);
+        List<PracticeCardView> learningCards = studyStateService.getLearningCardViews(userId);
         
-        return learningStates.stream()
-                .map(state -> practiceMapper.toPracticeCardDto(state, deckId))
+        return learningCards.stream()
+                .map(practiceMapper::toPracticeCardDto)
                 .toList();
     }
 
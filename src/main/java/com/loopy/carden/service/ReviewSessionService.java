@@ -1,5 +1,6 @@
 package com.loopy.carden.service;
 
+import com.loopy.carden.dto.CursorPageDto;
 import com.loopy.carden.dto.session.ReviewSessionResponseDto;
 import com.loopy.carden.entity.Deck;
 import com.loopy.carden.entity.ReviewSession;
@@ -12,13 +13,22 @@ import com.loopy.carden.mapper.ReviewSessionMapper;
 import com.loopy.carden.repository.DeckRepository;
 import com.loopy.carden.repository.ReviewSessionRepository;
 import com.loopy.carden.repository.UserRepository;
+import com.loopy.carden.service.overview.StudyActivityEvent;
+import com.loopy.carden.service.pagination.KeysetCursor;
+import com.loopy.carden.service.rollup.UserDailyStatsService;
+import com.loopy.carden.service.rollup.UserDailyStatsService.DailyStats;
+import com.loopy.carden.service.streak.UserStudyStreakService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
@@ -38,6 +48,9 @@ public class ReviewSessionService {
     private final UserRepository userRepository;
     private final DeckRepository deckRepository;
     private final ReviewSessionMapper reviewSessionMapper;
+    private final UserDailyStatsService userDailyStatsService;
+    private final UserStudyStreakService userStudyStreakService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Start a new review session
@@ -75,6 +88,8 @@ public class ReviewSessionService {
         session.setSessionStats(stats);
 
         ReviewSession savedSession = reviewSessionRepository.save(session);
+        userDailyStatsService.add(userId, savedSession.getSessionDate(), 1, 0, 0, 0, 0);
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
         
         log.info("Started new review session {} for user {} in deck {} with mode {}", 
                 savedSession.getId(), userId, deckId, studyMode);
@@ -88,7 +103,39 @@ public class ReviewSessionService {
     public ReviewSession recordCardReview(Long sessionId, Long userId, int grade, 
                                         int responseTimeMs, boolean isNewCard) {
         ReviewSession session = getActiveSession(sessionId, userId);
+        Totals before = Totals.of(session);
         
+        applyCardReview(session, grade, responseTimeMs, isNewCard);
+        
+        ReviewSession updatedSession = reviewSessionRepository.save(session);
+        rollUp(updatedSession, before);
+        
+        log.debug("Recorded review for session {}: grade={}, responseTime={}ms, newCard={}", 
+                sessionId, grade, responseTimeMs, isNewCard);
+        
+        return updatedSession;
+    }
+
+    /**
+     * Record several card reviews within a session with a single session update
+     */
+    public ReviewSession recordCardReviews(Long sessionId, Long userId, List<CardReview> reviews) {
+        ReviewSession session = getActiveSession(sessionId, userId);
+        Totals before = Totals.of(session);
+        
+        for (CardReview review : reviews) {
+            applyCardReview(session, review.getGrade(), review.getResponseTimeMs(), review.isNewCard());
+        }
+        
+        ReviewSession updatedSession = reviewSessionRepository.save(session);
+        rollUp(updatedSession, before);
+        
+        log.debug("Recorded {} reviews for session {}", reviews.size(), sessionId);
+        
+        return updatedSession;
+    }
+
+    private void applyCardReview(ReviewSession session, int grade, int responseTimeMs, boolean isNewCard) {
         // Update card counts
         session.setCardsStudied(session.getCardsStudied() + 1);
         
@@ -110,13 +157,6 @@ public class ReviewSessionService {
         
         // Recalculate accuracy rate
         session.updateAccuracyRate();
-        
-        ReviewSession updatedSession = reviewSessionRepository.save(session);
-        
-        log.debug("Recorded review for session {}: grade={}, responseTime={}ms, newCard={}", 
-                sessionId, grade, responseTimeMs, isNewCard);
-        
-        return updatedSession;
     }
 
     /**
@@ -124,6 +164,7 @@ public class ReviewSessionService {
      */
     public ReviewSession updateSessionTiming(Long sessionId, Long userId, boolean isPause) {
         ReviewSession session = getActiveSession(sessionId, userId);
+        Totals before = Totals.of(session);
         SessionStats stats = session.getSessionStats();
         
         if (isPause) {
@@ -135,7 +176,9 @@ public class ReviewSessionService {
         long durationMinutes = ChronoUnit.MINUTES.between(session.getSessionDate(), LocalDateTime.now());
         session.setDurationMinutes((int) durationMinutes);
         
-        return reviewSessionRepository.save(session);
+        ReviewSession updatedSession = reviewSessionRepository.save(session);
+        rollUp(updatedSession, before);
+        return updatedSession;
     }
 
     /**
@@ -149,6 +192,7 @@ public class ReviewSessionService {
         }
         
         ReviewSession session = activeSessionOpt.get();
+        Totals before = Totals.of(session);
         
         // Update progress incrementally
         session.setCardsStudied(session.getCardsStudied() + cardsStudied);
@@ -162,6 +206,7 @@ public class ReviewSessionService {
         session.setDurationMinutes((int) durationMinutes);
         
         ReviewSession updatedSession = reviewSessionRepository.save(session);
+        rollUp(updatedSession, before);
         
         log.debug("Updated session {} progress: +{} cards, +{} correct", 
                 session.getId(), cardsStudied, correctCards);
@@ -174,6 +219,7 @@ public class ReviewSessionService {
      */
     public ReviewSession completeSession(Long sessionId, Long userId) {
         ReviewSession session = getActiveSession(sessionId, userId);
+        Totals before = Totals.of(session);
         
         session.setSessionStatus(SessionStatus.COMPLETED);
         
@@ -188,6 +234,9 @@ public class ReviewSessionService {
         }
         
         ReviewSession completedSession = reviewSessionRepository.save(session);
+        rollUp(completedSession, before);
+        userStudyStreakService.recordStudyDay(userId, completedSession.getSessionDate().toLocalDate());
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
         
         log.info("Completed session {} for user {}. Duration: {} minutes, Cards studied: {}, Accuracy: {}%", 
                 sessionId, userId, completedSession.getDurationMinutes(), 
@@ -201,6 +250,7 @@ public class ReviewSessionService {
      */
     public ReviewSession abandonSession(Long sessionId, Long userId) {
         ReviewSession session = getActiveSession(sessionId, userId);
+        Totals before = Totals.of(session);
         
         session.setSessionStatus(SessionStatus.ABANDONED);
         
@@ -209,6 +259,8 @@ public class ReviewSessionService {
         session.setDurationMinutes((int) durationMinutes);
         
         ReviewSession abandonedSession = reviewSessionRepository.save(session);
+        rollUp(abandonedSession, before);
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
         
         log.info("Abandoned session {} for user {} after {} minutes", 
                 sessionId, userId, abandonedSession.getDurationMinutes());
@@ -252,6 +304,27 @@ public class ReviewSessionService {
         return sessions.map(reviewSessionMapper::toResponseDto);
     }
 
+    /**
+     * Get a slice of the user's session history, newest first, preceding {@code before}
+     * (null for the most recent sessions)
+     */
+    public Slice<ReviewSession> getSessionHistory(Long userId, KeysetCursor before, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        return before == null
+                ? reviewSessionRepository.findSessionHistory(userId, pageable)
+                : reviewSessionRepository.findSessionHistoryBefore(userId, before.time(), before.id(), pageable);
+    }
+
+    /**
+     * Get a page of the user's session history by cursor (DTO response)
+     */
+    public CursorPageDto<ReviewSessionResponseDto> getSessionHistoryDto(Long userId, String cursor, int size) {
+        Slice<ReviewSession> sessions = getSessionHistory(userId, KeysetCursor.decode(cursor), size);
+        return KeysetCursor.toPage(sessions,
+                session -> new KeysetCursor(session.getSessionDate(), session.getId()),
+                reviewSessionMapper::toResponseDto);
+    }
+
     /**
      * Get user's sessions for a specific deck
      */
@@ -267,53 +340,39 @@ public class ReviewSessionService {
     }
 
     /**
-     * Calculate daily study statistics
+     * Calculate daily study statistics (from the daily rollup)
      */
     public DailyStudyStats calculateDailyStats(Long userId, LocalDateTime date) {
-        LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        
-        List<ReviewSession> dailySessions = getUserSessionsInDateRange(userId, startOfDay, endOfDay);
+        LocalDate day = date.toLocalDate();
+        List<DailyStats> days = userDailyStatsService.getRange(userId, day, day);
         
-        if (dailySessions.isEmpty()) {
+        if (days.isEmpty()) {
             return new DailyStudyStats(0, 0, 0, 0.0, 0);
         }
         
-        int totalSessions = dailySessions.size();
-        int totalCards = dailySessions.stream().mapToInt(ReviewSession::getCardsStudied).sum();
-        int totalMinutes = dailySessions.stream().mapToInt(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0).sum();
-        double avgAccuracy = dailySessions.stream()
-                .mapToDouble(s -> s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0)
-                .average()
-                .orElse(0.0);
-        int newCards = dailySessions.stream().mapToInt(ReviewSession::getNewCards).sum();
-        
-        return new DailyStudyStats(totalSessions, totalCards, totalMinutes, avgAccuracy, newCards);
+        DailyStats stats = days.get(0);
+        return new DailyStudyStats(stats.sessionCount(), stats.cardsStudied(), stats.studyMinutes(),
+                stats.accuracy(), stats.newCards());
     }
 
     /**
-     * Get weekly study statistics
+     * Get weekly study statistics (from the daily rollup)
      */
     public WeeklyStudyStats calculateWeeklyStats(Long userId, LocalDateTime weekStart) {
-        LocalDateTime weekEnd = weekStart.plusWeeks(1);
-        List<ReviewSession> weeklySessions = getUserSessionsInDateRange(userId, weekStart, weekEnd);
+        LocalDate firstDay = weekStart.toLocalDate();
+        List<DailyStats> days = userDailyStatsService.getRange(userId, firstDay, firstDay.plusDays(6));
         
-        if (weeklySessions.isEmpty()) {
+        if (days.isEmpty()) {
             return new WeeklyStudyStats(0, 0, 0, 0.0, 0, 0);
         }
         
-        int totalSessions = weeklySessions.size();
-        int totalCards = weeklySessions.stream().mapToInt(ReviewSession::getCardsStudied).sum();
-        int totalMinutes = weeklySessions.stream().mapToInt(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0).sum();
-        double avgAccuracy = weeklySessions.stream()
-                .mapToDouble(s -> s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0)
-                .average()
-                .orElse(0.0);
-        int newCards = weeklySessions.stream().mapToInt(ReviewSession::getNewCards).sum();
-        int studyDays = (int) weeklySessions.stream()
-                .map(s -> s.getSessionDate().toLocalDate())
-                .distinct()
-                .count();
+        int totalSessions = days.stream().mapToInt(DailyStats::sessionCount).sum();
+        int totalCards = days.stream().mapToInt(DailyStats::cardsStudied).sum();
+        int totalCorrect = days.stream().mapToInt(DailyStats::cardsCorrect).sum();
+        int totalMinutes = days.stream().mapToInt(DailyStats::studyMinutes).sum();
+        double avgAccuracy = totalCards > 0 ? totalCorrect * 100.0 / totalCards : 0.0;
+        int newCards = days.stream().mapToInt(DailyStats::newCards).sum();
+        int studyDays = (int) days.stream().filter(day -> day.sessionCount() > 0).count();
         
         return new WeeklyStudyStats(totalSessions, totalCards, totalMinutes, avgAccuracy, newCards, studyDays);
     }
@@ -327,9 +386,12 @@ public class ReviewSessionService {
         List<ReviewSession> abandonedSessions = reviewSessionRepository.findStaleActiveSessions(cutoffTime);
         
         for (ReviewSession session : abandonedSessions) {
+            Totals before = Totals.of(session);
             session.setSessionStatus(SessionStatus.ABANDONED);
             long durationMinutes = ChronoUnit.MINUTES.between(session.getSessionDate(), cutoffTime);
             session.setDurationMinutes((int) durationMinutes);
+            rollUp(session, before);
+            eventPublisher.publishEvent(new StudyActivityEvent(session.getUser().getId()));
         }
         
         if (!abandonedSessions.isEmpty()) {
@@ -342,6 +404,33 @@ public class ReviewSessionService {
     }
 
     // Helper methods
+
+    /**
+     * Session totals counted in the user's daily stats
+     */
+    private record Totals(int cardsStudied, int cardsCorrect, int newCards, int minutes) {
+        static Totals of(ReviewSession session) {
+            return new Totals(orZero(session.getCardsStudied()), orZero(session.getCardsCorrect()),
+                    orZero(session.getNewCards()), orZero(session.getDurationMinutes()));
+        }
+
+        private static int orZero(Integer value) {
+            return value != null ? value : 0;
+        }
+    }
+
+    /**
+     * Add the change of a session since {@code before} to the daily stats of the day it started
+     */
+    private void rollUp(ReviewSession session, Totals before) {
+        Totals after = Totals.of(session);
+        userDailyStatsService.add(session.getUser().getId(), session.getSessionDate(), 0,
+                after.cardsStudied() - before.cardsStudied(),
+                after.cardsCorrect() - before.cardsCorrect(),
+                after.newCards() - before.newCards(),
+                after.minutes() - before.minutes());
+    }
+
     private ReviewSession getActiveSession(Long sessionId, Long userId) {
         ReviewSession session = getSession(sessionId, userId);
         
@@ -379,6 +468,23 @@ public class ReviewSessionService {
         }
     }
 
+    public static class CardReview {
+        private final int grade;
+        private final int responseTimeMs;
+        private final boolean newCard;
+
+        public CardReview(int grade, int responseTimeMs, boolean newCard) {
+            this.grade = grade;
+            this.responseTimeMs = responseTimeMs;
+            this.newCard = newCard;
+        }
+
+        // Getters
+        public int getGrade() { return grade; }
+        public int getResponseTimeMs() { return responseTimeMs; }
+        public boolean isNewCard() { return newCard; }
+    }
+
     // Data classes for statistics
     public static class DailyStudyStats {
         private final int totalSessions;
@@ -0,0 +1,187 @@
+package com.loopy.carden.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.loopy.carden.dto.practice.SchedulerSettingsDto;
+import com.loopy.carden.entity.User;
+import com.loopy.carden.entity.UserFsrsParameters;
+import com.loopy.carden.exception.ResourceNotFoundException;
+import com.loopy.carden.exception.TooManyRequestsException;
+import com.loopy.carden.repository.UserFsrsParametersRepository;
+import com.loopy.carden.repository.UserRepository;
+import com.loopy.carden.service.srs.FsrsOptimizer;
+import com.loopy.carden.service.srs.FsrsScheduler;
+import com.loopy.carden.service.srs.SrsSchedulerResolver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduling algorithm selection and FSRS parameters of a user
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerSettingsService {
+
+    private final UserRepository userRepository;
+    private final UserFsrsParametersRepository fsrsParametersRepository;
+    private final FsrsOptimizer fsrsOptimizer;
+    private final SrsSchedulerResolver schedulerResolver;
+
+    @Value("${carden.fsrs.optimizer.max-concurrent-runs:2}")
+    private int maxConcurrentRuns;
+
+    @Value("${carden.fsrs.optimizer.queue-capacity:8}")
+    private int queueCapacity;
+
+    // Users with a run queued or in progress
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    // Why the last run of a user failed, until the next run starts
+    private final Cache<Long, String> failures = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: a full queue rejects the request instead of fitting on the request thread
+        executor = new ThreadPoolExecutor(maxConcurrentRuns, maxConcurrentRuns, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "fsrs-optimize-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Transactional(readOnly = true)
+    public SchedulerSettingsDto getSettings(Long userId) {
+        User user = findUser(userId);
+        return toDto(user, fsrsParametersRepository.findByUserId(userId).orElse(null));
+    }
+
+    @Transactional
+    public SchedulerSettingsDto updateSettings(Long userId, SchedulerSettingsDto dto) {
+        User user = findUser(userId);
+        if (dto.getAlgorithm() != null) {
+            user.setSrsAlgorithm(dto.getAlgorithm());
+        }
+
+        UserFsrsParameters parameters = fsrsParametersRepository.findByUserId(userId).orElse(null);
+        if (dto.getDesiredRetention() != null) {
+            if (parameters == null) {
+                parameters = newParameters(user);
+            }
+            parameters.setDesiredRetention(dto.getDesiredRetention());
+            parameters = fsrsParametersRepository.save(parameters);
+        }
+
+        schedulerResolver.evict(userId);
+        return toDto(user, parameters);
+    }
+
+    /**
+     * Start fitting the user's FSRS weights to their review history in the background and
+     * return the current settings with {@code optimizing} set. A request while the user's run is
+     * still queued or in progress joins that run; when every slot and the queue are taken the
+     * request is rejected.
+     */
+    public SchedulerSettingsDto optimize(Long userId) {
+        User user = findUser(userId);
+        if (running.add(userId)) {
+            failures.invalidate(userId);
+            try {
+                executor.execute(() -> runOptimization(userId));
+            } catch (RejectedExecutionException e) {
+                running.remove(userId);
+                throw new TooManyRequestsException("FSRS optimization is busy, try again later");
+            }
+        }
+        return toDto(user, fsrsParametersRepository.findByUserId(userId).orElse(null));
+    }
+
+    private void runOptimization(Long userId) {
+        try {
+            FsrsOptimizer.Result result = fsrsOptimizer.optimize(userId);
+
+            User user = findUser(userId);
+            UserFsrsParameters parameters = fsrsParametersRepository.findByUserId(userId)
+                    .orElseGet(() -> newParameters(user));
+            parameters.setWeights(toList(result.weights));
+            parameters.setTrainedReviewCount(result.reviewCount);
+            parameters.setLogLoss(result.logLoss);
+            parameters.setOptimizedAt(LocalDateTime.now());
+            fsrsParametersRepository.save(parameters);
+
+            schedulerResolver.evict(userId);
+            log.info("Saved FSRS weights for user {}: {}", userId, Arrays.toString(result.weights));
+        } catch (RuntimeException e) {
+            log.warn("Failed to optimize FSRS weights of user {}: {}", userId, e.getMessage());
+            failures.put(userId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            running.remove(userId);
+        }
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+
+    private UserFsrsParameters newParameters(User user) {
+        UserFsrsParameters parameters = new UserFsrsParameters();
+        parameters.setUser(user);
+        parameters.setWeights(toList(FsrsScheduler.DEFAULT_WEIGHTS));
+        parameters.setDesiredRetention(FsrsScheduler.DEFAULT_DESIRED_RETENTION);
+        return parameters;
+    }
+
+    private static List<Double> toList(double[] weights) {
+        List<Double> list = new ArrayList<>(weights.length);
+        for (double weight : weights) {
+            list.add(weight);
+        }
+        return list;
+    }
+
+    private SchedulerSettingsDto toDto(User user, UserFsrsParameters parameters) {
+        return SchedulerSettingsDto.builder()
+                .algorithm(user.getSrsAlgorithm())
+                .desiredRetention(parameters != null ? parameters.getDesiredRetention() : FsrsScheduler.DEFAULT_DESIRED_RETENTION)
+                .trainedReviewCount(parameters != null ? parameters.getTrainedReviewCount() : 0)
+                .logLoss(parameters != null ? parameters.getLogLoss() : null)
+                .optimizedAt(parameters != null ? parameters.getOptimizedAt() : null)
+                .optimizing(running.contains(user.getId()))
+                .optimizationError(failures.getIfPresent(user.getId()))
+                .build();
+    }
+}
@@ -1,15 +1,21 @@
 package com.loopy.carden.service;
 
+import com.loopy.carden.dto.statistics.DeckStudyStatsView;
 import com.loopy.carden.dto.statistics.PerformanceStatsDto;
+import com.loopy.carden.dto.statistics.SessionTotalsView;
 import com.loopy.carden.dto.statistics.StudyStreakDto;
 import com.loopy.carden.dto.statistics.UserStatisticsDto;
-import com.loopy.carden.entity.ReviewSession;
-import com.loopy.carden.entity.StudyState;
 import com.loopy.carden.repository.ReviewSessionRepository;
 import com.loopy.carden.repository.StudyStateRepository;
+import com.loopy.carden.service.analytics.QueryFanoutExecutor;
+import com.loopy.carden.service.overview.UserOverviewService;
+import com.loopy.carden.service.rollup.UserDailyStatsService;
+import com.loopy.carden.service.streak.UserStudyStreakService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -30,67 +36,74 @@ public class StatisticsService {
 
     private final StudyStateRepository studyStateRepository;
     private final ReviewSessionRepository reviewSessionRepository;
+    private final QueryFanoutExecutor queryFanoutExecutor;
+    private final UserDailyStatsService userDailyStatsService;
+    private final UserStudyStreakService userStudyStreakService;
 
     /**
-     * Get comprehensive user statistics
+     * Compute comprehensive user statistics. The independent queries run concurrently, each on its
+     * own read-only connection (see {@link QueryFanoutExecutor}); this method holds no connection
+     * while waiting. A result with parts missing the latency budget is flagged partial.
+     * Readers use the stored overview instead (see {@link UserOverviewService}).
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserStatisticsDto getUserStatistics(Long userId) {
-        // Basic counts
-        long totalCards = studyStateRepository.countByUserId(userId);
-        long totalSessions = reviewSessionRepository.countByUserId(userId);
-        long completedSessions = reviewSessionRepository.countCompletedSessionsByUserId(userId);
-        long totalStudyTimeMinutes = reviewSessionRepository.calculateTotalStudyTimeByUserId(userId);
-        long totalCardsStudied = reviewSessionRepository.calculateTotalCardsStudiedByUserId(userId);
-        
-        // Accuracy and performance
-        Double overallAccuracy = reviewSessionRepository.calculateAverageAccuracyByUserId(userId);
-        if (overallAccuracy == null) overallAccuracy = 0.0;
-        
+        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
+        QueryFanoutExecutor.Batch batch = queryFanoutExecutor.batch("User statistics " + userId);
+
+        // Session totals, recent activity (last 30 days) included, in one pass
+        var sessionTotals = batch.submit("sessionTotals",
+                () -> reviewSessionRepository.summarizeSessionsByUserId(userId, thirtyDaysAgo), null);
+        var totalCards = batch.submit("totalCards", () -> studyStateRepository.countByUserId(userId), 0L);
+
         // Study streak
-        int currentStreak = reviewSessionRepository.calculateStudyStreak(userId);
-        
+        var currentStreak = batch.submit("currentStreak",
+                () -> userStudyStreakService.getStreak(userId).currentStreak(LocalDate.now()), 0);
+
         // Card state distribution
-        List<Object[]> cardStateData = studyStateRepository.countCardsByState(userId);
-        Map<String, Long> cardStateDistribution = cardStateData.stream()
-                .collect(Collectors.toMap(
-                    arr -> arr[0].toString(),
-                    arr -> (Long) arr[1]
-                ));
-        
-        // Recent activity (last 30 days)
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        List<ReviewSession> recentSessions = reviewSessionRepository.findRecentSessionsByUser(userId, thirtyDaysAgo);
-        
-        int recentSessionCount = recentSessions.size();
-        long recentStudyTime = recentSessions.stream()
-                .mapToLong(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0)
-                .sum();
-        
+        var cardStateDistribution = batch.submit("cardStateDistribution",
+                () -> studyStateRepository.countCardsByState(userId).stream()
+                        .collect(Collectors.toMap(
+                            arr -> arr[0].toString(),
+                            arr -> (Long) arr[1]
+                        )),
+                Map.<String, Long>of());
+
+        SessionTotalsView sessions = sessionTotals.get();
+        if (sessions == null) {
+            sessions = new SessionTotalsView(0L, 0L, null, null, null, null, null, 0L, null);
+        }
+        long totalStudyTimeMinutes = orZero(sessions.totalStudyTimeMinutes());
+        long totalCardsStudied = orZero(sessions.totalCardsStudied());
+
         return UserStatisticsDto.builder()
                 .userId(userId)
-                .totalCards(totalCards)
-                .totalSessions(totalSessions)
-                .completedSessions(completedSessions)
+                .totalCards(totalCards.get())
+                .totalSessions(sessions.totalSessions())
+                .completedSessions(sessions.completedSessions())
                 .totalStudyTimeMinutes(totalStudyTimeMinutes)
                 .totalCardsStudied(totalCardsStudied)
-                .overallAccuracy(overallAccuracy)
-                .currentStreak(currentStreak)
-                .cardStateDistribution(cardStateDistribution)
-                .recentSessionCount(recentSessionCount)
-                .recentStudyTimeMinutes(recentStudyTime)
-                .lastActivityDate(getLastActivityDate(userId))
-                .averageSessionDuration(calculateAverageSessionDuration(userId))
-                .studyEfficiency(calculateStudyEfficiency(userId))
+                .overallAccuracy(sessions.averageAccuracy() != null ? sessions.averageAccuracy() : 0.0)
+                .currentStreak(currentStreak.get())
+                .cardStateDistribution(cardStateDistribution.get())
+                .recentSessionCount(sessions.recentSessions().intValue())
+                .recentStudyTimeMinutes(orZero(sessions.recentStudyTimeMinutes()))
+                .lastActivityDate(sessions.lastActivityDate())
+                .averageSessionDuration(sessions.averageSessionDuration() != null ? sessions.averageSessionDuration() : 0.0)
+                .studyEfficiency(calculateStudyEfficiency(totalStudyTimeMinutes, totalCardsStudied))
+                .partial(batch.isPartial())
                 .build();
     }
 
     /**
-     * Get performance statistics over time
+     * Get performance statistics over time, from the daily rollup (one row per day studied; the
+     * range covers whole days from the start date to the end date)
      */
     public PerformanceStatsDto getPerformanceStats(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<ReviewSession> sessions = reviewSessionRepository.findByUserIdAndSessionDateBetween(userId, startDate, endDate);
+        List<UserDailyStatsService.DailyStats> days = userDailyStatsService.getRange(
+                userId, startDate.toLocalDate(), endDate.toLocalDate());
         
-        if (sessions.isEmpty()) {
+        if (days.isEmpty()) {
             return PerformanceStatsDto.builder()
                     .userId(userId)
                     .startDate(startDate)
@@ -106,27 +119,21 @@ public class StatisticsService {
         }
         
         // Calculate basic metrics
-        int totalSessions = sessions.size();
-        double averageAccuracy = sessions.stream()
-                .mapToDouble(s -> s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0)
-                .average()
-                .orElse(0.0);
-        long totalStudyTime = sessions.stream()
-                .mapToLong(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0)
-                .sum();
-        int cardsStudied = sessions.stream()
-                .mapToInt(s -> s.getCardsStudied() != null ? s.getCardsStudied() : 0)
-                .sum();
+        int totalSessions = days.stream().mapToInt(UserDailyStatsService.DailyStats::sessionCount).sum();
+        long totalStudyTime = days.stream().mapToLong(UserDailyStatsService.DailyStats::studyMinutes).sum();
+        int cardsStudied = days.stream().mapToInt(UserDailyStatsService.DailyStats::cardsStudied).sum();
+        int cardsCorrect = days.stream().mapToInt(UserDailyStatsService.DailyStats::cardsCorrect).sum();
+        double averageAccuracy = cardsStudied > 0 ? cardsCorrect * 100.0 / cardsStudied : 0.0;
         
         // Daily averages
-        Map<LocalDate, DailyStats> dailyStats = calculateDailyStats(sessions);
+        Map<LocalDate, DailyStats> dailyStats = calculateDailyStats(days);
         Map<String, Double> dailyAverages = calculateDailyAverages(dailyStats);
         
         // Weekly trends
-        List<WeeklyTrend> weeklyTrends = calculateWeeklyTrends(sessions);
+        List<WeeklyTrend> weeklyTrends = calculateWeeklyTrends(days);
         
         // Accuracy trend over time
-        List<AccuracyPoint> accuracyTrend = calculateAccuracyTrend(sessions);
+        List<AccuracyPoint> accuracyTrend = calculateAccuracyTrend(days);
         
         return PerformanceStatsDto.builder()
                 .userId(userId)
@@ -147,17 +154,11 @@ public class StatisticsService {
     /**
      * Get study streak information
      */
+    @Cacheable(value = "studyStreak", key = "#userId", sync = true)
     public StudyStreakDto getStudyStreak(Long userId) {
-        int currentStreak = reviewSessionRepository.calculateStudyStreak(userId);
-        
-        // Calculate longest streak by finding all study dates and checking consecutive days
-        List<ReviewSession> allSessions = reviewSessionRepository.findByUserIdOrderBySessionDateDesc(userId, null).getContent();
-        
-        Set<LocalDate> studyDates = allSessions.stream()
-                .map(s -> s.getSessionDate().toLocalDate())
-                .collect(Collectors.toSet());
-        
-        int longestStreak = calculateLongestStreak(studyDates);
+        LocalDate today = LocalDate.now();
+        UserStudyStreakService.Streak streak = userStudyStreakService.getStreak(userId);
+        int currentStreak = streak.currentStreak(today);
         
         // Streak milestones
         List<Integer> milestones = Arrays.asList(7, 14, 30, 60, 100, 365);
@@ -169,12 +170,12 @@ public class StatisticsService {
         return StudyStreakDto.builder()
                 .userId(userId)
                 .currentStreak(currentStreak)
-                .longestStreak(longestStreak)
+                .longestStreak(streak.longestRun())
                 .nextMilestone(nextMilestone)
                 .daysToMilestone(nextMilestone - currentStreak)
-                .studyDates(studyDates)
-                .streakStartDate(calculateStreakStartDate(userId, currentStreak))
-                .isActive(isStreakActive(userId))
+                .studyDates(streak.studyDates())
+                .streakStartDate(streak.streakStartDate(today))
+                .isActive(streak.isActive(today))
                 .build();
     }
 
@@ -182,12 +183,9 @@ public class StatisticsService {
      * Get deck-specific statistics
      */
     public Map<String, Object> getDeckStatistics(Long userId, Long deckId) {
-        List<StudyState> deckStudyStates = studyStateRepository.findByDeckId(deckId);
-        List<StudyState> userDeckStates = deckStudyStates.stream()
-                .filter(s -> s.getUser().getId().equals(userId))
-                .collect(Collectors.toList());
+        DeckStudyStatsView stats = studyStateRepository.aggregateDeckStudyStats(userId, deckId);
         
-        if (userDeckStates.isEmpty()) {
+        if (stats.totalCards() == 0) {
             return Map.of(
                 "totalCards", 0,
                 "studiedCards", 0,
@@ -197,112 +195,54 @@ public class StatisticsService {
             );
         }
         
-        int totalCards = userDeckStates.size();
-        int studiedCards = (int) userDeckStates.stream()
-                .filter(s -> s.getTotalReviews() > 0)
-                .count();
-        
-        double averageAccuracy = userDeckStates.stream()
-                .filter(s -> s.getTotalReviews() > 0)
-                .mapToDouble(StudyState::getAccuracyRate)
-                .average()
-                .orElse(0.0);
-        
-        int masteredCards = (int) userDeckStates.stream()
-                .filter(s -> s.getAccuracyRate() >= 90.0 && s.getTotalReviews() >= 5)
-                .count();
-        
-        int difficultCards = (int) userDeckStates.stream()
-                .filter(s -> s.getAccuracyRate() < 50.0 && s.getTotalReviews() >= 3)
-                .count();
+        int totalCards = stats.totalCards().intValue();
+        int studiedCards = stats.studiedCards().intValue();
         
         return Map.of(
             "totalCards", totalCards,
             "studiedCards", studiedCards,
-            "averageAccuracy", averageAccuracy,
-            "masteredCards", masteredCards,
-            "difficultCards", difficultCards,
+            "averageAccuracy", stats.averageAccuracy() != null ? stats.averageAccuracy() : 0.0,
+            "masteredCards", stats.masteredCards().intValue(),
+            "difficultCards", stats.difficultCards().intValue(),
             "completionRate", (double) studiedCards / totalCards * 100.0
         );
     }
 
     /**
-     * Get leech cards (cards that are frequently failed)
+     * Get leech cards (cards flagged by the scheduler after repeated failures)
      */
     public List<Map<String, Object>> getLeechCards(Long userId, int minFailures) {
-        // This would require additional tracking in StudyState entity
-        // For now, return cards with low accuracy and many reviews
-        List<StudyState> potentialLeeches = studyStateRepository.findAll().stream()
-                .filter(s -> s.getUser().getId().equals(userId))
-                .filter(s -> s.getAccuracyRate() < 40.0 && s.getTotalReviews() >= minFailures)
-                .sorted((a, b) -> Double.compare(a.getAccuracyRate(), b.getAccuracyRate()))
-                .collect(Collectors.toList());
-        
-        return potentialLeeches.stream()
-                .map(s -> {
+        return studyStateRepository.findLeechCardViews(userId, minFailures).stream()
+                .map(leech -> {
                     Map<String, Object> leechInfo = new HashMap<>();
-                    leechInfo.put("cardId", s.getCard().getId());
-                    leechInfo.put("accuracyRate", s.getAccuracyRate());
-                    leechInfo.put("totalReviews", s.getTotalReviews());
-                    leechInfo.put("consecutiveFailures", s.getConsecutiveFailures() != null ? s.getConsecutiveFailures() : 0);
-                    leechInfo.put("lastReviewDate", s.getLastReviewDate());
+                    leechInfo.put("cardId", leech.cardId());
+                    leechInfo.put("accuracyRate", leech.accuracyRate());
+                    leechInfo.put("totalReviews", leech.totalReviews());
+                    leechInfo.put("consecutiveFailures", leech.consecutiveFailures() != null ? leech.consecutiveFailures() : 0);
+                    leechInfo.put("lastReviewDate", leech.lastReviewDate());
                     return leechInfo;
                 })
                 .collect(Collectors.toList());
     }
 
     // Helper methods for calculations
-    private LocalDateTime getLastActivityDate(Long userId) {
-        return reviewSessionRepository.findByUserIdOrderBySessionDateDesc(userId, null)
-                .stream()
-                .findFirst()
-                .map(ReviewSession::getSessionDate)
-                .orElse(null);
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 
-    private double calculateAverageSessionDuration(Long userId) {
-        List<ReviewSession> completedSessions = reviewSessionRepository.findByUserIdAndSessionStatus(userId, 
-                ReviewSession.SessionStatus.COMPLETED);
-        
-        return completedSessions.stream()
-                .filter(s -> s.getDurationMinutes() != null)
-                .mapToInt(ReviewSession::getDurationMinutes)
-                .average()
-                .orElse(0.0);
-    }
-
-    private double calculateStudyEfficiency(Long userId) {
+    private double calculateStudyEfficiency(long totalStudyTime, long totalCards) {
         // Efficiency = Cards studied per minute
-        long totalStudyTime = reviewSessionRepository.calculateTotalStudyTimeByUserId(userId);
-        long totalCards = reviewSessionRepository.calculateTotalCardsStudiedByUserId(userId);
-        
         if (totalStudyTime == 0) return 0.0;
         return (double) totalCards / totalStudyTime;
     }
 
-    private Map<LocalDate, DailyStats> calculateDailyStats(List<ReviewSession> sessions) {
-        return sessions.stream()
-                .collect(Collectors.groupingBy(
-                    s -> s.getSessionDate().toLocalDate(),
-                    Collectors.collectingAndThen(
-                        Collectors.toList(),
-                        daySessionList -> {
-                            int sessionCount = daySessionList.size();
-                            long studyTime = daySessionList.stream()
-                                    .mapToLong(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0)
-                                    .sum();
-                            int cardsStudied = daySessionList.stream()
-                                    .mapToInt(s -> s.getCardsStudied() != null ? s.getCardsStudied() : 0)
-                                    .sum();
-                            double avgAccuracy = daySessionList.stream()
-                                    .mapToDouble(s -> s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0)
-                                    .average()
-                                    .orElse(0.0);
-                            
-                            return new DailyStats(sessionCount, studyTime, cardsStudied, avgAccuracy);
-                        }
-                    )
-                ));
+    private Map<LocalDate, DailyStats> calculateDailyStats(List<UserDailyStatsService.DailyStats> days) {
+        Map<LocalDate, DailyStats> dailyStats = new LinkedHashMap<>();
+        for (UserDailyStatsService.DailyStats day : days) {
+            dailyStats.put(day.date(), new DailyStats(day.sessionCount(), day.studyMinutes(),
+                    day.cardsStudied(), day.accuracy()));
+        }
+        return dailyStats;
     }
 
     private Map<String, Double> calculateDailyAverages(Map<LocalDate, DailyStats> dailyStats) {
@@ -340,32 +280,26 @@ public class StatisticsService {
         );
     }
 
-    private List<WeeklyTrend> calculateWeeklyTrends(List<ReviewSession> sessions) {
+    private List<WeeklyTrend> calculateWeeklyTrends(List<UserDailyStatsService.DailyStats> days) {
         WeekFields weekFields = WeekFields.of(Locale.getDefault());
         
-        return sessions.stream()
+        return days.stream()
                 .collect(Collectors.groupingBy(
-                    s -> Map.entry(
-                        s.getSessionDate().get(weekFields.weekOfWeekBasedYear()),
-                        s.getSessionDate().getYear()
+                    day -> Map.entry(
+                        day.date().get(weekFields.weekOfWeekBasedYear()),
+                        day.date().getYear()
                     )
                 ))
                 .entrySet().stream()
                 .map(entry -> {
                     Map.Entry<Integer, Integer> weekYear = entry.getKey();
-                    List<ReviewSession> weekSessions = entry.getValue();
+                    List<UserDailyStatsService.DailyStats> weekDays = entry.getValue();
                     
-                    int totalSessions = weekSessions.size();
-                    long totalTime = weekSessions.stream()
-                            .mapToLong(s -> s.getDurationMinutes() != null ? s.getDurationMinutes() : 0)
-                            .sum();
-                    int totalCards = weekSessions.stream()
-                            .mapToInt(s -> s.getCardsStudied() != null ? s.getCardsStudied() : 0)
-                            .sum();
-                    double avgAccuracy = weekSessions.stream()
-                            .mapToDouble(s -> s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0)
-                            .average()
-                            .orElse(0.0);
+                    int totalSessions = weekDays.stream().mapToInt(UserDailyStatsService.DailyStats::sessionCount).sum();
+                    long totalTime = weekDays.stream().mapToLong(UserDailyStatsService.DailyStats::studyMinutes).sum();
+                    int totalCards = weekDays.stream().mapToInt(UserDailyStatsService.DailyStats::cardsStudied).sum();
+                    int totalCorrect = weekDays.stream().mapToInt(UserDailyStatsService.DailyStats::cardsCorrect).sum();
+                    double avgAccuracy = totalCards > 0 ? totalCorrect * 100.0 / totalCards : 0.0;
                     
                     return new WeeklyTrend(weekYear.getValue(), weekYear.getKey(), 
                             totalSessions, totalTime, totalCards, avgAccuracy);
@@ -374,11 +308,10 @@ public class StatisticsService {
                 .collect(Collectors.toList());
     }
 
-    private List<AccuracyPoint> calculateAccuracyTrend(List<ReviewSession> sessions) {
-        return sessions.stream()
-                .sorted(Comparator.comparing(ReviewSession::getSessionDate))
-                .map(s -> new AccuracyPoint(s.getSessionDate(), 
-                        s.getAccuracyRate() != null ? s.getAccuracyRate() : 0.0))
+    private List<AccuracyPoint> calculateAccuracyTrend(List<UserDailyStatsService.DailyStats> days) {
+        return days.stream()
+                .filter(day -> day.cardsStudied() > 0)
+                .map(day -> new AccuracyPoint(day.date().atStartOfDay(), day.accuracy()))
                 .collect(Collectors.toList());
     }
 
@@ -411,46 +344,6 @@ public class StatisticsService {
         return Math.max(0.0, 100.0 - standardDeviation); // Higher consistency = lower deviation
     }
 
-    private int calculateLongestStreak(Set<LocalDate> studyDates) {
-        if (studyDates.isEmpty()) return 0;
-        
-        List<LocalDate> sortedDates = studyDates.stream()
-                .sorted()
-                .collect(Collectors.toList());
-        
-        int longestStreak = 1;
-        int currentStreak = 1;
-        
-        for (int i = 1; i < sortedDates.size(); i++) {
-            LocalDate current = sortedDates.get(i);
-            LocalDate previous = sortedDates.get(i - 1);
-            
-            if (ChronoUnit.DAYS.between(previous, current) == 1) {
-                currentStreak++;
-                longestStreak = Math.max(longestStreak, currentStreak);
-            } else {
-                currentStreak = 1;
-            }
-        }
-        
-        return longestStreak;
-    }
-
-    private LocalDate calculateStreakStartDate(Long userId, int currentStreak) {
-        if (currentStreak == 0) return null;
-        return LocalDate.now().minusDays(currentStreak - 1);
-    }
-
-    private boolean isStreakActive(Long userId) {
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1).withHour(0).withMinute(0);
-        LocalDateTime today = LocalDateTime.now().withHour(23).withMinute(59);
-        
-        List<ReviewSession> recentSessions = reviewSessionRepository.findByUserIdAndSessionDateBetween(
-                userId, yesterday, today);
-        
-        return !recentSessions.isEmpty();
-    }
-
     // Helper classes for data aggregation
     public static class DailyStats {
         private final int sessionCount;
@@ -1,29 +1,52 @@
 package com.loopy.carden.service;
 
+import com.loopy.carden.dto.practice.PracticeCardView;
 import com.loopy.carden.dto.studystate.StudyStateResponseDto;
-import com.loopy.carden.entity.Card;
 import com.loopy.carden.entity.StudyState;
 import com.loopy.carden.entity.StudyState.CardState;
-import com.loopy.carden.entity.User;
-import org.springframework.data.domain.PageImpl;
 import com.loopy.carden.exception.ResourceNotFoundException;
 import com.loopy.carden.mapper.StudyStateMapper;
 import com.loopy.carden.repository.CardRepository;
+import com.loopy.carden.repository.DeckRepository;
 import com.loopy.carden.repository.StudyStateRepository;
 import com.loopy.carden.repository.UserRepository;
+import com.loopy.carden.service.counter.CardCounterService;
+import com.loopy.carden.service.counter.CardCounterService.Counters;
+import com.loopy.carden.service.overview.StudyActivityEvent;
+import com.loopy.carden.service.pagination.KeysetCursor;
+import com.loopy.carden.service.queue.StudyQueue;
+import com.loopy.carden.service.queue.StudyQueueService;
+import com.loopy.carden.service.reviewlog.ReviewLogEntry;
+import com.loopy.carden.service.reviewlog.ReviewLogWriter;
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+import com.loopy.carden.service.srs.Sm2Scheduler;
+import com.loopy.carden.service.srs.SrsScheduler;
+import com.loopy.carden.service.srs.SrsSchedulerResolver;
+import com.loopy.carden.service.srs.SrsState;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 /**
  * Service implementing Spaced Repetition System (SRS) algorithm
@@ -37,25 +60,14 @@ public class StudyStateService {
 
     private final StudyStateRepository studyStateRepository;
     private final CardRepository cardRepository;
+    private final DeckRepository deckRepository;
     private final UserRepository userRepository;
     private final StudyStateMapper studyStateMapper;
-
-    // SRS Algorithm Constants
-    private static final double INITIAL_EASE_FACTOR = 2.5;
-    private static final double MIN_EASE_FACTOR = 1.3;
-    private static final double MAX_EASE_FACTOR = 3.0;
-    private static final int MAX_INTERVAL_DAYS = 365;
-    private static final int LEECH_THRESHOLD = 8;
-    
-    // Learning phases (in minutes): 1min, 10min, 1day
-    private static final List<Integer> LEARNING_STEPS = Arrays.asList(1, 10, 1440);
-    private static final double GRADUATION_INTERVAL = 1.0; // days
-    private static final double EASY_GRADUATION_INTERVAL = 4.0; // days
-    
-    // Review multipliers
-    private static final double HARD_MULTIPLIER = 1.2;
-    private static final double EASY_MULTIPLIER = 1.3;
-    private static final double INTERVAL_FUZZ = 0.05; // 5% fuzz to prevent synchronization
+    private final StudyQueueService studyQueueService;
+    private final SrsSchedulerResolver schedulerResolver;
+    private final ReviewLogWriter reviewLogWriter;
+    private final CardCounterService cardCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Process a card review and update its study state
@@ -72,20 +84,11 @@ public class StudyStateService {
         StudyState studyState = getOrCreateStudyState(cardId, userId);
         StudyState previousState = cloneState(studyState);
         
-        // Update review statistics
-        updateReviewStatistics(studyState, grade, reviewTime);
-        
-        // Apply SRS algorithm based on current card state
-        if (studyState.getCardState() == CardState.NEW || studyState.isLearning()) {
-            processLearningCard(studyState, grade, reviewTime);
-        } else {
-            processReviewCard(studyState, grade, reviewTime);
-        }
-        
-        // Apply interval fuzz and constraints
-        applyIntervalConstraints(studyState);
+        applyReview(studyState, resolveScheduler(userId, studyState.getDeck().getId()), grade, reviewTime, null);
         
         StudyState result = studyStateRepository.save(studyState);
+        studyQueueService.onReviewed(result);
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
         
         log.debug("Card {} review processed. Grade: {}, Previous interval: {} days, New interval: {} days, " +
                   "State: {} -> {}", 
@@ -97,209 +100,362 @@ public class StudyStateService {
     }
 
     /**
-     * Get or create study state for a card-user combination
+     * Process an ordered batch of reviews for one user.
+     * States are loaded with one query, updated in memory and flushed together so
+     * Hibernate can group the UPDATE statements into JDBC batches.
+     * 
+     * @param userId The user reviewing the cards
+     * @param reviews Reviews in the order they happened (the same card may appear more than once)
+     * @return One outcome per review, in the same order
      */
-    private StudyState getOrCreateStudyState(Long cardId, Long userId) {
-        return studyStateRepository.findByUserIdAndCardId(userId, cardId)
-                .orElseGet(() -> createNewStudyState(cardId, userId));
+    public List<ReviewOutcome> processReviewBatch(Long userId, List<ReviewCommand> reviews) {
+        reviews.forEach(review -> validateGrade(review.grade));
+        
+        Set<Long> cardIds = reviews.stream()
+                .map(review -> review.cardId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        
+        Map<Long, StudyState> statesByCard = new HashMap<>();
+        studyStateRepository.findByUserIdAndCardIdIn(userId, cardIds)
+                .forEach(state -> statesByCard.put(state.getCard().getId(), state));
+        
+        // Create missing states atomically, then load them
+        List<Long> missingCardIds = cardIds.stream()
+                .filter(cardId -> !statesByCard.containsKey(cardId))
+                .toList();
+        if (!missingCardIds.isEmpty()) {
+            studyStateRepository.insertMissingStudyStates(userId, missingCardIds, LocalDateTime.now());
+            List<StudyState> inserted = studyStateRepository.findByUserIdAndCardIdIn(userId, missingCardIds);
+            inserted.forEach(state -> statesByCard.put(state.getCard().getId(), state));
+            inserted.stream()
+                    .collect(Collectors.groupingBy(state -> state.getDeck().getId(), Collectors.counting()))
+                    .forEach((deckId, count) -> cardCounterService.onCardsAdded(userId, deckId, count.intValue()));
+            missingCardIds.stream()
+                    .filter(cardId -> !statesByCard.containsKey(cardId))
+                    .findFirst()
+                    .ifPresent(cardId -> {
+                        throw new ResourceNotFoundException("Card not found with id: " + cardId);
+                    });
+        }
+        
+        Map<Long, SrsScheduler> schedulersByDeck = new HashMap<>();
+        List<ReviewOutcome> outcomes = new ArrayList<>(reviews.size());
+        for (ReviewCommand review : reviews) {
+            StudyState state = statesByCard.get(review.cardId);
+            SrsScheduler scheduler = schedulersByDeck.computeIfAbsent(state.getDeck().getId(),
+                    deckId -> resolveScheduler(userId, deckId));
+            applyReview(state, scheduler, review.grade, review.reviewTime, review.responseTimeMs);
+            outcomes.add(new ReviewOutcome(review.cardId, review.grade, review.responseTimeMs,
+                    state.getTotalReviews() == 1, state));
+        }
+        
+        List<StudyState> saved = studyStateRepository.saveAll(statesByCard.values());
+        saved.forEach(studyQueueService::onReviewed);
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
+        
+        log.debug("Processed batch of {} reviews over {} cards for user {}", 
+                reviews.size(), cardIds.size(), userId);
+        
+        return outcomes;
     }
 
     /**
-     * Create a new study state for a card
+     * Process a single review with a fixed number of round trips: one read of the card's
+     * current state and one statement that writes the state, updates the active session,
+     * selects the next card and reads the remaining due and new card counts from the counters.
+     * 
+     * @return The reviewed state (detached) together with session progress and the next card keys
      */
-    private StudyState createNewStudyState(Long cardId, Long userId) {
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + cardId));
+    public ReviewWriteResult processReviewWithProgress(Long cardId, Long userId, int grade,
+                                                      int responseTimeMs, LocalDateTime reviewTime) {
+        validateGrade(grade);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-        StudyState studyState = new StudyState();
-        studyState.setCard(card);
-        studyState.setUser(user);
-        studyState.setDeck(card.getDeck());
-        studyState.setCardState(CardState.NEW);
-        studyState.setEaseFactor(INITIAL_EASE_FACTOR);
-        studyState.setRepetitionCount(0);
-        studyState.setIntervalDays(1);
-        studyState.setDueDate(LocalDateTime.now());
-        studyState.setTotalReviews(0);
-        studyState.setCorrectReviews(0);
-        studyState.setAccuracyRate(0.0);
-        studyState.setConsecutiveFailures(0);
-        studyState.setCurrentLearningStep(0);
-        studyState.setIsLeech(false);
-
-        return studyState;
+        List<Object[]> snapshot = studyStateRepository.findReviewSnapshot(userId, cardId);
+        if (snapshot.isEmpty()) {
+            throw new ResourceNotFoundException("Card not found with id: " + cardId);
+        }
+        
+        Object[] row = snapshot.get(0);
+        StudyState studyState = toSnapshotState(row, userId, cardId);
+        boolean existing = studyState.getId() != null;
+        LocalDateTime now = LocalDateTime.now();
+        // Only learning and review cards count as due; an unstudied NEW state was not in the count
+        boolean wasDue = existing && studyState.getCardState() != CardState.NEW
+                && !studyState.getDueDate().isAfter(now);
+        boolean wasNew = existing && studyState.getCardState() == CardState.NEW;
+        SrsScheduler scheduler = schedulerResolver.resolve(userId, SrsAlgorithm.valueOf((String) row[20]));
+        
+        applyReview(studyState, scheduler, grade, reviewTime, responseTimeMs);
+        
+        boolean isNewCard = studyState.getTotalReviews() == 1;
+        boolean isDue = !studyState.getDueDate().isAfter(now);
+        
+        List<Object[]> written = studyStateRepository.applyReview(
+                userId, cardId, studyState.getDeck().getId(),
+                existing ? studyState.getId() : 0L,
+                existing ? studyState.getVersion() : -1L,
+                studyState.getRepetitionCount(),
+                studyState.getEaseFactor(),
+                studyState.getIntervalDays(),
+                studyState.getDueDate(),
+                studyState.getCardState().name(),
+                studyState.getLastReviewDate(),
+                studyState.getLastScore(),
+                studyState.getTotalReviews(),
+                studyState.getCorrectReviews(),
+                studyState.getAccuracyRate(),
+                studyState.getConsecutiveFailures(),
+                studyState.getCurrentLearningStep(),
+                studyState.getIsLeech(),
+                studyState.getGraduatedAt(),
+                studyState.getStability(),
+                studyState.getDifficulty(),
+                grade,
+                responseTimeMs,
+                grade >= 2 ? 1 : 0,
+                isNewCard ? 1 : 0,
+                !isNewCard && grade != 0 ? 1 : 0,
+                !isNewCard && grade == 0 ? 1 : 0,
+                isDue ? servingPriority(studyState.getCardState()) : 0,
+                wasDue ? 1 : 0,
+                isDue ? 1 : 0,
+                wasNew ? 1 : 0,
+                now,
+                cardCounterService.minCountedAt(now));
+        
+        Object[] result = written.get(0);
+        if (result[0] == null) {
+            // Version check failed or another request created the state first
+            throw new ObjectOptimisticLockingFailureException(StudyState.class, studyState.getId());
+        }
+        
+        studyState.setId(((Number) result[0]).longValue());
+        studyState.setVersion(((Number) result[1]).longValue());
+        if (!existing) {
+            studyState.setCreatedAt(now);
+        }
+        studyState.setUpdatedAt(now);
+        studyQueueService.onReviewed(studyState);
+        eventPublisher.publishEvent(new StudyActivityEvent(userId));
+        
+        log.debug("Card {} review written for user {}. Grade: {}, State: {}, Due: {}", 
+                cardId, userId, grade, studyState.getCardState(), studyState.getDueDate());
+        
+        return new ReviewWriteResult(
+                studyState,
+                result[2] != null ? ((Number) result[2]).longValue() : null,
+                result[3] != null ? ((Number) result[3]).intValue() : 0,
+                result[4] != null ? ((Number) result[4]).intValue() : 0,
+                result[5] != null ? ((Number) result[5]).doubleValue() : 0.0,
+                result[6] != null ? ((Number) result[6]).intValue() : null,
+                result[7] != null ? ((Number) result[7]).longValue() : null,
+                result[8] != null ? ((Number) result[8]).longValue() : null,
+                ((Number) result[9]).longValue(),
+                ((Number) result[10]).intValue());
     }
 
     /**
-     * Process learning phase cards (new cards and failed review cards)
-     */
-    private void processLearningCard(StudyState state, int grade, LocalDateTime reviewTime) {
-        int currentStep = getCurrentLearningStep(state);
-        
-        switch (grade) {
-            case 0: // Again - restart learning
-                state.setCardState(CardState.LEARNING);
-                currentStep = 0;
-                setLearningInterval(state, currentStep, reviewTime);
-                decreaseEaseFactor(state, 0.2);
-                incrementConsecutiveFailures(state);
-                break;
-                
-            case 1: // Hard - repeat current step  
-                state.setCardState(CardState.LEARNING);
-                setLearningInterval(state, currentStep, reviewTime);
-                decreaseEaseFactor(state, 0.15);
-                break;
-                
-            case 2: // Good - advance to next step
-                state.setCardState(CardState.LEARNING);
-                if (currentStep < LEARNING_STEPS.size() - 1) {
-                    currentStep++;
-                    setLearningInterval(state, currentStep, reviewTime);
-                } else {
-                    // Graduate to review
-                    graduateCard(state, GRADUATION_INTERVAL, reviewTime);
-                }
-                resetConsecutiveFailures(state);
-                break;
-                
-            case 3: // Easy - graduate immediately
-                graduateCard(state, EASY_GRADUATION_INTERVAL, reviewTime);
-                increaseEaseFactor(state, 0.15);
-                resetConsecutiveFailures(state);
-                break;
-        }
-        
-        updateLearningStep(state, currentStep);
-    }
-
-    /**
-     * Process review phase cards (graduated cards)
-     */
-    private void processReviewCard(StudyState state, int grade, LocalDateTime reviewTime) {
-        double easeFactor = state.getEaseFactor();
-        int currentInterval = state.getIntervalDays();
-        
-        switch (grade) {
-            case 0: // Again - send back to learning
-                state.setCardState(CardState.RELEARNING);
-                setLearningInterval(state, 0, reviewTime);
-                decreaseEaseFactor(state, 0.2);
-                incrementConsecutiveFailures(state);
-                updateLearningStep(state, 0);
-                break;
-                
-            case 1: // Hard
-                int hardInterval = Math.max(1, (int) (currentInterval * HARD_MULTIPLIER));
-                state.setIntervalDays(hardInterval);
-                state.setDueDate(reviewTime.plusDays(hardInterval));
-                decreaseEaseFactor(state, 0.15);
-                break;
-                
-            case 2: // Good  
-                int goodInterval = Math.max(1, (int) (currentInterval * easeFactor));
-                state.setIntervalDays(goodInterval);
-                state.setDueDate(reviewTime.plusDays(goodInterval));
-                state.setRepetitionCount(state.getRepetitionCount() + 1);
-                resetConsecutiveFailures(state);
-                break;
-                
-            case 3: // Easy
-                int easyInterval = Math.max(1, (int) (currentInterval * easeFactor * EASY_MULTIPLIER));
-                state.setIntervalDays(easyInterval);
-                state.setDueDate(reviewTime.plusDays(easyInterval));
-                state.setRepetitionCount(state.getRepetitionCount() + 1);
-                increaseEaseFactor(state, 0.1);
-                resetConsecutiveFailures(state);
-                break;
-        }
-    }
-
-    /**
-     * Graduate a card from learning to review phase
-     */
-    private void graduateCard(StudyState state, double intervalDays, LocalDateTime reviewTime) {
-        state.setCardState(CardState.REVIEW);
-        state.setIntervalDays((int) intervalDays);
-        state.setDueDate(reviewTime.plusDays((long) intervalDays));
-        state.setRepetitionCount(1);
-        state.setGraduatedAt(reviewTime);
-        
-        // Clear learning step data
-        updateLearningStep(state, -1); // -1 indicates not in learning
-    }
-
-    /**
-     * Set interval for learning phase (in minutes)
-     */
-    private void setLearningInterval(StudyState state, int stepIndex, LocalDateTime reviewTime) {
-        int intervalMinutes = LEARNING_STEPS.get(stepIndex);
-        state.setDueDate(reviewTime.plusMinutes(intervalMinutes));
-        // Store the step for tracking learning progress
-    }
-
-    /**
-     * Apply interval constraints and fuzz
-     */
-    private void applyIntervalConstraints(StudyState state) {
-        if (state.getCardState() == CardState.REVIEW) {
-            int interval = state.getIntervalDays();
-            
-            // Apply fuzz to prevent card synchronization (±5%)
-            if (interval > 2) {
-                double fuzzRange = interval * INTERVAL_FUZZ;
-                double fuzzAmount = (Math.random() * 2 - 1) * fuzzRange;
-                interval = Math.max(1, (int) (interval + fuzzAmount));
-            }
-            
-            // Respect maximum interval
-            interval = Math.min(interval, MAX_INTERVAL_DAYS);
-            
-            state.setIntervalDays(interval);
-            // Recalculate due date with fuzzed interval
-            if (state.getLastReviewDate() != null) {
-                state.setDueDate(state.getLastReviewDate().plusDays(interval));
-            }
+     * Load the next card selected by {@link #processReviewWithProgress} with its card and deck in one query
+     */
+    public Optional<StudyState> loadNextCard(Long studyStateId, Long cardId, Long userId) {
+        if (studyStateId != null) {
+            return studyStateRepository.findByIdWithCardAndDeck(studyStateId);
+        }
+        if (cardId != null) {
+            return studyStateRepository.findByUserIdAndCardIdWithCardAndDeck(userId, cardId);
         }
+        return Optional.empty();
     }
 
     /**
-     * Update review statistics
+     * Build a detached study state from a {@code findReviewSnapshot} row. Associations are
+     * id-only references, so no entity is loaded.
      */
-    private void updateReviewStatistics(StudyState state, int grade, LocalDateTime reviewTime) {
-        state.setLastReviewDate(reviewTime);
-        state.setLastScore(grade);
-        state.setTotalReviews(state.getTotalReviews() + 1);
+    private StudyState toSnapshotState(Object[] row, Long userId, Long cardId) {
+        Long deckId = ((Number) row[0]).longValue();
         
-        if (grade >= 2) { // Grade 2 (Good) and 3 (Easy) are correct
-            state.setCorrectReviews(state.getCorrectReviews() + 1);
+        StudyState studyState = new StudyState();
+        studyState.setUser(userRepository.getReferenceById(userId));
+        studyState.setCard(cardRepository.getReferenceById(cardId));
+        studyState.setDeck(deckRepository.getReferenceById(deckId));
+        
+        if (row[1] == null) {
+            // Never studied: same defaults as StudyStateRepository.insertMissingStudyStates
+            studyState.setCardState(CardState.NEW);
+            studyState.setEaseFactor(Sm2Scheduler.INITIAL_EASE_FACTOR);
+            studyState.setRepetitionCount(0);
+            studyState.setIntervalDays(1);
+            studyState.setDueDate(LocalDateTime.now());
+            studyState.setTotalReviews(0);
+            studyState.setCorrectReviews(0);
+            studyState.setAccuracyRate(0.0);
+            studyState.setConsecutiveFailures(0);
+            studyState.setCurrentLearningStep(0);
+            studyState.setIsLeech(false);
+            return studyState;
         }
         
-        state.updateAccuracyRate();
-        
-        // Check for leech cards
-        if (getConsecutiveFailures(state) >= LEECH_THRESHOLD) {
-            markAsLeech(state);
+        studyState.setId(((Number) row[1]).longValue());
+        studyState.setVersion(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+        studyState.setRepetitionCount(((Number) row[3]).intValue());
+        studyState.setEaseFactor(((Number) row[4]).doubleValue());
+        studyState.setIntervalDays(((Number) row[5]).intValue());
+        studyState.setDueDate(toLocalDateTime(row[6]));
+        studyState.setCardState(CardState.valueOf((String) row[7]));
+        studyState.setLastReviewDate(toLocalDateTime(row[8]));
+        studyState.setLastScore(row[9] != null ? ((Number) row[9]).intValue() : null);
+        studyState.setTotalReviews(row[10] != null ? ((Number) row[10]).intValue() : 0);
+        studyState.setCorrectReviews(row[11] != null ? ((Number) row[11]).intValue() : 0);
+        studyState.setAccuracyRate(row[12] != null ? ((Number) row[12]).doubleValue() : 0.0);
+        studyState.setConsecutiveFailures(((Number) row[13]).intValue());
+        studyState.setCurrentLearningStep(row[14] != null ? ((Number) row[14]).intValue() : null);
+        studyState.setIsLeech((Boolean) row[15]);
+        studyState.setGraduatedAt(toLocalDateTime(row[16]));
+        studyState.setCreatedAt(toLocalDateTime(row[17]));
+        studyState.setStability(row[18] != null ? ((Number) row[18]).doubleValue() : null);
+        studyState.setDifficulty(row[19] != null ? ((Number) row[19]).doubleValue() : null);
+        return studyState;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
         }
+        return (LocalDateTime) value;
     }
 
     /**
-     * Increase ease factor with bounds checking
+     * Serving priority used by the next-card query (1 = learning, 2 = review, 3 = new)
      */
-    private void increaseEaseFactor(StudyState state, double amount) {
-        double newEF = Math.min(MAX_EASE_FACTOR, state.getEaseFactor() + amount);
-        state.setEaseFactor(newEF);
+    private int servingPriority(CardState cardState) {
+        return StudyQueue.PriorityClass.of(cardState).ordinal() + 1;
     }
 
     /**
-     * Decrease ease factor with bounds checking
+     * Scheduler for a user's reviews in a deck (override of a deck they own, else their default algorithm)
      */
-    private void decreaseEaseFactor(StudyState state, double amount) {
-        double newEF = Math.max(MIN_EASE_FACTOR, state.getEaseFactor() - amount);
-        state.setEaseFactor(newEF);
+    private SrsScheduler resolveScheduler(Long userId, Long deckId) {
+        SrsAlgorithm algorithm = deckRepository.findEffectiveSrsAlgorithm(deckId, userId)
+                .map(SrsAlgorithm::valueOf)
+                .orElse(SrsAlgorithm.SM2);
+        return schedulerResolver.resolve(userId, algorithm);
+    }
+
+    /**
+     * Apply one review to a study state in memory (statistics, SRS scheduling, interval constraints)
+     * and append it to the review log.
+     * The scheduling itself is done by the given {@link SrsScheduler} on a primitive copy of the state.
+     */
+    private void applyReview(StudyState studyState, SrsScheduler scheduler, int grade,
+                             LocalDateTime reviewTime, Integer responseTimeMs) {
+        SrsState srsState = toSrsState(studyState);
+        boolean wasLeech = srsState.leech;
+        CardState previousState = studyState.getCardState();
+        int previousInterval = studyState.getIntervalDays();
+        double previousEase = studyState.getEaseFactor();
+        LocalDateTime previousDueDate = studyState.getDueDate();
+        
+        scheduler.review(srsState, grade, toEpochSecond(reviewTime), ThreadLocalRandom.current());
+        
+        copySrsState(srsState, studyState);
+        
+        // A state without id is inserted by the caller's write and was not counted before
+        cardCounterService.onReviewed(studyState.getUser().getId(), studyState.getDeck().getId(),
+                studyState.getId() != null ? previousState : null, previousDueDate, wasLeech,
+                studyState.getCardState(), studyState.getDueDate(), srsState.leech);
+        
+        if (srsState.leech && !wasLeech) {
+            log.warn("Card {} marked as leech for user {} after {} consecutive failures", 
+                    studyState.getCard().getId(), studyState.getUser().getId(), studyState.getConsecutiveFailures());
+        }
+        
+        reviewLogWriter.append(new ReviewLogEntry(
+                studyState.getUser().getId(),
+                studyState.getCard().getId(),
+                studyState.getDeck().getId(),
+                reviewTime,
+                grade,
+                previousState,
+                studyState.getCardState(),
+                previousInterval,
+                studyState.getIntervalDays(),
+                previousEase,
+                studyState.getEaseFactor(),
+                previousDueDate,
+                studyState.getDueDate(),
+                responseTimeMs));
+    }
+
+    private SrsState toSrsState(StudyState studyState) {
+        SrsState srsState = new SrsState();
+        srsState.cardState = studyState.getCardState();
+        srsState.repetitionCount = studyState.getRepetitionCount();
+        srsState.easeFactor = studyState.getEaseFactor();
+        srsState.intervalDays = studyState.getIntervalDays();
+        srsState.dueAt = toEpochSecond(studyState.getDueDate());
+        srsState.lastReviewAt = toEpochSecond(studyState.getLastReviewDate());
+        srsState.lastScore = studyState.getLastScore() != null ? studyState.getLastScore() : -1;
+        srsState.totalReviews = studyState.getTotalReviews() != null ? studyState.getTotalReviews() : 0;
+        srsState.correctReviews = studyState.getCorrectReviews() != null ? studyState.getCorrectReviews() : 0;
+        srsState.accuracyRate = studyState.getAccuracyRate() != null ? studyState.getAccuracyRate() : 0.0;
+        srsState.consecutiveFailures = studyState.getConsecutiveFailures() != null ? studyState.getConsecutiveFailures() : 0;
+        srsState.currentLearningStep = studyState.getCurrentLearningStep() != null ? studyState.getCurrentLearningStep() : 0;
+        srsState.leech = Boolean.TRUE.equals(studyState.getIsLeech());
+        srsState.graduatedAt = toEpochSecond(studyState.getGraduatedAt());
+        srsState.stability = studyState.getStability() != null ? studyState.getStability() : 0.0;
+        srsState.difficulty = studyState.getDifficulty() != null ? studyState.getDifficulty() : 0.0;
+        return srsState;
+    }
+
+    private void copySrsState(SrsState srsState, StudyState studyState) {
+        studyState.setCardState(srsState.cardState);
+        studyState.setRepetitionCount(srsState.repetitionCount);
+        studyState.setEaseFactor(srsState.easeFactor);
+        studyState.setIntervalDays(srsState.intervalDays);
+        studyState.setDueDate(fromEpochSecond(srsState.dueAt));
+        studyState.setLastReviewDate(fromEpochSecond(srsState.lastReviewAt));
+        studyState.setLastScore(srsState.lastScore >= 0 ? srsState.lastScore : null);
+        studyState.setTotalReviews(srsState.totalReviews);
+        studyState.setCorrectReviews(srsState.correctReviews);
+        studyState.setAccuracyRate(srsState.accuracyRate);
+        studyState.setConsecutiveFailures(srsState.consecutiveFailures);
+        // Keep an unset learning step unset when the review did not touch it
+        if (studyState.getCurrentLearningStep() != null || srsState.currentLearningStep != 0) {
+            studyState.setCurrentLearningStep(srsState.currentLearningStep);
+        }
+        studyState.setIsLeech(srsState.leech);
+        studyState.setGraduatedAt(fromEpochSecond(srsState.graduatedAt));
+        studyState.setStability(srsState.stability > 0 ? srsState.stability : null);
+        studyState.setDifficulty(srsState.difficulty > 0 ? srsState.difficulty : null);
+    }
+
+    private long toEpochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : SrsState.NO_TIME;
+    }
+
+    private LocalDateTime fromEpochSecond(long epochSecond) {
+        return epochSecond != SrsState.NO_TIME ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * Get or create study state for a card-user combination.
+     * An existing state is a plain read; a missing one is inserted with ON CONFLICT DO NOTHING,
+     * so there is no unique constraint race and only the request whose insert took effect
+     * counts the new card.
+     */
+    private StudyState getOrCreateStudyState(Long cardId, Long userId) {
+        Optional<StudyState> existing = studyStateRepository.findByUserIdAndCardId(userId, cardId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        
+        int inserted = studyStateRepository.insertMissingStudyStates(userId, List.of(cardId), LocalDateTime.now());
+        StudyState studyState = studyStateRepository.findByUserIdAndCardId(userId, cardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + cardId));
+        if (inserted > 0) {
+            cardCounterService.onCardsAdded(userId, studyState.getDeck().getId(), inserted);
+        }
+        return studyState;
     }
 
     /**
@@ -310,6 +466,23 @@ public class StudyStateService {
         return studyStateRepository.findDueCardsByUser(userId, now, pageable);
     }
 
+    /**
+     * Get due cards for a user limited to a deck or to the user's decks in a topic
+     * (either may be null; both null means the whole collection), as practice card views
+     */
+    public Page<PracticeCardView> getDueCardViews(Long userId, Long deckId, Long topicId, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        if (deckId == null && topicId == null) {
+            return studyStateRepository.findDueCardViews(userId, now, pageable);
+        }
+        
+        List<Long> deckIds = resolveDeckScope(userId, deckId, topicId);
+        if (deckIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return studyStateRepository.findDueCardViewsInDecks(userId, deckIds, now, pageable);
+    }
+
     /**
      * Get due cards for a user with pagination (DTO response)
      */
@@ -319,7 +492,7 @@ public class StudyStateService {
     }
 
     /**
-     * Get due cards count for a user
+     * Get due learning and review cards count for a user (new cards not included)
      */
     public long getDueCardsCount(Long userId) {
         LocalDateTime now = LocalDateTime.now();
@@ -327,234 +500,207 @@ public class StudyStateService {
     }
 
     /**
-     * Get new cards for a user (includes cards without StudyState)
+     * Get new cards for a user (NEW study states, seeded when cards are added to a deck), as practice card views
      */
-    public Page<StudyState> getNewCards(Long userId, Pageable pageable) {
-        // First, get existing NEW state cards
-        Page<StudyState> existingNewCards = studyStateRepository.findNewCardsByUser(userId, pageable);
-        
-        // If we have space for more cards, get cards without StudyState
-        if (!existingNewCards.hasContent() || existingNewCards.getContent().size() < pageable.getPageSize()) {
-            Page<Card> cardsWithoutState = studyStateRepository.findCardsWithoutStudyState(userId, pageable);
-            
-            // Create temporary StudyState objects for these cards (not persisted yet)
-            if (cardsWithoutState.hasContent()) {
-                List<StudyState> tempStudyStates = cardsWithoutState.getContent().stream()
-                        .map(card -> createTempStudyStateForCard(card, userId))
-                        .toList();
-                
-                // Combine existing and temp states
-                List<StudyState> allNewCards = new ArrayList<>(existingNewCards.getContent());
-                allNewCards.addAll(tempStudyStates);
-                
-                return new PageImpl<>(allNewCards, pageable, 
-                    existingNewCards.getTotalElements() + cardsWithoutState.getTotalElements());
-            }
-        }
-        
-        return existingNewCards;
+    public Page<PracticeCardView> getNewCardViews(Long userId, Pageable pageable) {
+        return studyStateRepository.findNewCardViews(userId, pageable);
     }
 
     /**
-     * Create temporary StudyState for a card (not persisted)
+     * Get a slice of due cards in (dueDate, id) order following {@code after} (null for the
+     * first slice), limited to a deck or topic like {@link #getDueCardViews(Long, Long, Long, Pageable)}
      */
-    private StudyState createTempStudyStateForCard(Card card, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-        StudyState studyState = new StudyState();
-        studyState.setCard(card);
-        studyState.setUser(user);
-        studyState.setDeck(card.getDeck());
-        studyState.setCardState(CardState.NEW);
-        studyState.setEaseFactor(INITIAL_EASE_FACTOR);
-        studyState.setRepetitionCount(0);
-        studyState.setIntervalDays(1);
-        studyState.setDueDate(LocalDateTime.now()); // New cards are immediately available
-        studyState.setTotalReviews(0);
-        studyState.setCorrectReviews(0);
-        studyState.setAccuracyRate(0.0);
-        studyState.setConsecutiveFailures(0);
-        studyState.setCurrentLearningStep(0);
-        studyState.setIsLeech(false);
-
-        return studyState;
+    public Slice<PracticeCardView> getDueCardViewSlice(Long userId, Long deckId, Long topicId, KeysetCursor after, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        Pageable pageable = PageRequest.of(0, size);
+        if (deckId == null && topicId == null) {
+            return after == null
+                    ? studyStateRepository.findDueCardViewSlice(userId, now, pageable)
+                    : studyStateRepository.findDueCardViewSliceAfter(userId, now, after.time(), after.id(), pageable);
+        }
+        
+        List<Long> deckIds = resolveDeckScope(userId, deckId, topicId);
+        if (deckIds.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return after == null
+                ? studyStateRepository.findDueCardViewSliceInDecks(userId, deckIds, now, pageable)
+                : studyStateRepository.findDueCardViewSliceInDecksAfter(userId, deckIds, now, after.time(), after.id(), pageable);
     }
 
     /**
-     * Get learning cards for a user
+     * Get a slice of new cards (all decks, or one deck) in (createdAt, id) order following
+     * {@code after} (null for the first slice)
      */
-    public List<StudyState> getLearningCards(Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        return studyStateRepository.findLearningCardsByUser(userId, now);
+    public Slice<PracticeCardView> getNewCardViewSlice(Long userId, Long deckId, KeysetCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (deckId == null) {
+            return after == null
+                    ? studyStateRepository.findNewCardViewSlice(userId, pageable)
+                    : studyStateRepository.findNewCardViewSliceAfter(userId, after.time(), after.id(), pageable);
+        }
+        
+        List<Long> deckIds = resolveDeckScope(userId, deckId, null);
+        return after == null
+                ? studyStateRepository.findNewCardViewSliceInDecks(userId, deckIds, pageable)
+                : studyStateRepository.findNewCardViewSliceInDecksAfter(userId, deckIds, after.time(), after.id(), pageable);
     }
 
     /**
-     * Get next card for review (prioritizes due learning cards, then due review cards, then new cards)
+     * Get the user's next cards in serving order with card and deck loaded, for clients that
+     * prefetch. Cards are loaded with one fetch-join query.
      */
-    public Optional<StudyState> getNextCard(Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // First priority: Learning cards that are due
-        List<StudyState> learningCards = studyStateRepository.findLearningCardsByUser(userId, now);
-        if (!learningCards.isEmpty()) {
-            return Optional.of(learningCards.get(0));
+    public List<StudyState> getUpcomingCards(Long userId, Long deckId, Long topicId, int limit) {
+        List<Long> stateIds = studyQueueService.peekAhead(userId, deckId, topicId, limit).stream()
+                .map(StudyQueue.Entry::studyStateId)
+                .toList();
+        if (stateIds.isEmpty()) {
+            return List.of();
         }
         
-        // Second priority: Review cards that are due
-        Page<StudyState> dueCards = studyStateRepository.findDueCardsByUser(userId, now, PageRequest.of(0, 1));
-        if (dueCards.hasContent()) {
-            return Optional.of(dueCards.getContent().get(0));
-        }
-        
-        // Third priority: New cards (existing StudyState with NEW state)
-        Page<StudyState> existingNewCards = studyStateRepository.findNewCardsByUser(userId, PageRequest.of(0, 1));
-        if (existingNewCards.hasContent()) {
-            return Optional.of(existingNewCards.getContent().get(0));
-        }
-        
-        // Fourth priority: Cards without StudyState (truly new cards)
-        Page<Card> cardsWithoutState = studyStateRepository.findCardsWithoutStudyState(userId, PageRequest.of(0, 1));
-        if (cardsWithoutState.hasContent()) {
-            Card card = cardsWithoutState.getContent().get(0);
-            StudyState tempStudyState = createTempStudyStateForCard(card, userId);
-            return Optional.of(tempStudyState);
-        }
+        Map<Long, StudyState> statesById = new HashMap<>();
+        studyStateRepository.findAllByIdWithCardAndDeck(stateIds)
+                .forEach(state -> statesById.put(state.getId(), state));
         
-        return Optional.empty();
+        // Keep serving order; skip cards deleted since the queue was loaded
+        return stateIds.stream()
+                .map(statesById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
-     * Get the next available study time for a user
-     * Returns null if user has cards currently due or new cards available
+     * Get due learning cards for a user, as practice card views
      */
-    public LocalDateTime getNextAvailableStudyTime(Long userId) {
+    public List<PracticeCardView> getLearningCardViews(Long userId) {
         LocalDateTime now = LocalDateTime.now();
-        
-        // If user has cards currently available, they can study now
-        if (hasCardsAvailableNow(userId)) {
-            return null; // Can study immediately
+        return studyStateRepository.findLearningCardViews(userId, now);
+    }
+
+    /**
+     * Get next card for review (prioritizes due learning cards, then due review cards, then new cards)
+     * Served from the active session's materialized card list when one is loaded for the user.
+     */
+    public Optional<StudyState> getNextCard(Long userId) {
+        // The active session's list is authoritative: an empty queue means the session is done
+        Optional<StudyQueue> queue = studyQueueService.getQueue(userId);
+        if (queue.isPresent()) {
+            return getNextCardFromQueue(queue.get(), userId);
         }
         
-        // Find the earliest future due date
-        return studyStateRepository.findNextDueTime(userId, now).orElse(null);
+        return getNextCardFromDatabase(userId);
     }
-    
+
     /**
-     * Check if user has any cards available to study right now
+     * Get next card for review limited to a deck or to the user's decks in a topic.
+     * Candidates are filtered in the database (index-only scans on the deck-scoped
+     * indexes) instead of scanning the user's whole collection.
      */
-    public boolean hasCardsAvailableNow(Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Check learning cards that are due
-        List<StudyState> learningCards = studyStateRepository.findLearningCardsByUser(userId, now);
-        if (!learningCards.isEmpty()) {
-            return true;
+    public Optional<StudyState> getNextCard(Long userId, Long deckId, Long topicId) {
+        if (deckId == null && topicId == null) {
+            return getNextCard(userId);
         }
         
-        // Check review cards that are due
-        Long dueCardsCount = studyStateRepository.countDueCardsByUser(userId, now);
-        if (dueCardsCount > 0) {
-            return true;
+        Optional<StudyQueue> queue = studyQueueService.getQueue(userId)
+                .filter(loaded -> loaded.hasScope(deckId, topicId));
+        if (queue.isPresent()) {
+            return getNextCardFromQueue(queue.get(), userId);
         }
         
-        // Check new cards (existing StudyState with NEW state)
-        Page<StudyState> existingNewCards = studyStateRepository.findNewCardsByUser(userId, PageRequest.of(0, 1));
-        if (existingNewCards.hasContent()) {
-            return true;
+        List<Long> deckIds = resolveDeckScope(userId, deckId, topicId);
+        if (deckIds.isEmpty()) {
+            return Optional.empty();
         }
-        
-        // Check cards without StudyState (truly new cards)
-        long cardsWithoutState = studyStateRepository.countCardsWithoutStudyState(userId);
-        return cardsWithoutState > 0;
+        return getNextCardFromDecks(userId, deckIds);
     }
 
     /**
-     * Get detailed card counts for a user
+     * Select the next card within a set of decks: card ids come from index-only scans,
+     * then only the selected card is loaded
      */
-    public CardCounts getDetailedCardCounts(Long userId) {
+    private Optional<StudyState> getNextCardFromDecks(Long userId, List<Long> deckIds) {
         LocalDateTime now = LocalDateTime.now();
+        PageRequest first = PageRequest.of(0, 1);
         
-        // Count learning cards (due now)
-        List<StudyState> learningCards = studyStateRepository.findLearningCardsByUser(userId, now);
-        int learningCount = learningCards.size();
-        
-        // Count review cards (due now, excluding learning cards)
-        Long totalDue = studyStateRepository.countDueCardsByUser(userId, now);
-        int reviewCount = Math.max(0, (int) (totalDue - learningCount));
-        
-        // Count new cards (existing StudyState with NEW state)
-        Page<StudyState> existingNewCards = studyStateRepository.findNewCardsByUser(userId, PageRequest.of(0, Integer.MAX_VALUE));
-        int existingNewCount = (int) existingNewCards.getTotalElements();
-        
-        // Count truly new cards (without StudyState)
-        long cardsWithoutState = studyStateRepository.countCardsWithoutStudyState(userId);
-        int totalNewCards = existingNewCount + (int) cardsWithoutState;
-        
-        return new CardCounts(totalNewCards, reviewCount, learningCount, (int) totalDue.longValue());
+        List<Long> cardIds = studyStateRepository.findDueLearningCardIdsByDecks(userId, deckIds, now, first);
+        if (cardIds.isEmpty()) {
+            cardIds = studyStateRepository.findDueReviewCardIdsByDecks(userId, deckIds, now, first);
+        }
+        if (cardIds.isEmpty()) {
+            cardIds = studyStateRepository.findNewCardIdsByDecks(userId, deckIds, first);
+        }
+        if (cardIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return studyStateRepository.findByUserIdAndCardIdWithCardAndDeck(userId, cardIds.get(0));
     }
 
     /**
-     * Get detailed card counts for a specific deck
+     * Decks in scope: the given deck, else the user's decks in the given topic
      */
-    public CardCounts getDetailedCardCountsByDeck(Long userId, Long deckId) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Count learning cards for this deck
-        Long learningCount = studyStateRepository.countLearningCardsByUserAndDeck(userId, deckId, now);
-        
-        // Count total due cards for this deck
-        Long totalDue = studyStateRepository.countDueCardsByUserAndDeck(userId, deckId, now);
-        
-        // Count review cards (due cards excluding learning cards)
-        int reviewCount = Math.max(0, (int) (totalDue - learningCount));
-        
-        // Count new cards for this deck
-        Long existingNewCount = studyStateRepository.countNewCardsByUserAndDeck(userId, deckId);
-        Long cardsWithoutState = studyStateRepository.countCardsWithoutStudyStateByDeck(userId, deckId);
-        int totalNewCards = (int) (existingNewCount + cardsWithoutState);
-        
-        return new CardCounts(totalNewCards, reviewCount, learningCount.intValue(), totalDue.intValue());
+    private List<Long> resolveDeckScope(Long userId, Long deckId, Long topicId) {
+        if (deckId != null) {
+            return List.of(deckId);
+        }
+        return deckRepository.findIdsByUserIdAndTopicId(userId, topicId);
     }
 
     /**
-     * Get next available study time for a specific deck
+     * Select the next card from the in-memory queue and load only that card.
+     * Entries whose card or state has disappeared are dropped from the queue.
      */
-    public LocalDateTime getNextAvailableStudyTimeByDeck(Long userId, Long deckId) {
+    private Optional<StudyState> getNextCardFromQueue(StudyQueue queue, Long userId) {
         LocalDateTime now = LocalDateTime.now();
         
-        // If user has cards currently available in this deck, they can study now
-        if (hasCardsAvailableNowByDeck(userId, deckId)) {
-            return null; // Can study immediately
+        Optional<StudyQueue.Entry> next = queue.peekNext(now);
+        while (next.isPresent()) {
+            StudyQueue.Entry entry = next.get();
+            Optional<StudyState> state = studyStateRepository.findById(entry.studyStateId());
+            if (state.isPresent()) {
+                return state;
+            }
+            queue.remove(entry.cardId());
+            next = queue.peekNext(now);
         }
         
-        // Find the earliest future due date for this deck
-        return studyStateRepository.findNextDueTimeByDeck(userId, deckId, now).orElse(null);
+        return Optional.empty();
     }
 
     /**
-     * Check if user has any cards available to study right now in a specific deck
+     * Select the next card with database queries (no queue loaded for the user)
      */
-    public boolean hasCardsAvailableNowByDeck(Long userId, Long deckId) {
+    private Optional<StudyState> getNextCardFromDatabase(Long userId) {
         LocalDateTime now = LocalDateTime.now();
         
-        // Check if deck has learning cards due
-        Long learningCount = studyStateRepository.countLearningCardsByUserAndDeck(userId, deckId, now);
-        if (learningCount > 0) {
-            return true;
+        // First priority: Learning cards that are due
+        List<StudyState> learningCards = studyStateRepository.findLearningCardsByUser(userId, now);
+        if (!learningCards.isEmpty()) {
+            return Optional.of(learningCards.get(0));
         }
         
-        // Check if deck has review cards due
-        Long dueCount = studyStateRepository.countDueCardsByUserAndDeck(userId, deckId, now);
-        if (dueCount > 0) {
-            return true;
+        // Second priority: Review cards that are due
+        Slice<StudyState> dueCards = studyStateRepository.findDueCardsSlice(userId, now, PageRequest.of(0, 1));
+        if (dueCards.hasContent()) {
+            return Optional.of(dueCards.getContent().get(0));
         }
         
-        // Check if deck has new cards available
-        Long newCardsCount = studyStateRepository.countNewCardsByUserAndDeck(userId, deckId);
-        Long cardsWithoutState = studyStateRepository.countCardsWithoutStudyStateByDeck(userId, deckId);
+        // Third priority: New cards
+        Slice<StudyState> newCards = studyStateRepository.findNewCardsSlice(userId, PageRequest.of(0, 1));
+        if (newCards.hasContent()) {
+            return Optional.of(newCards.getContent().get(0));
+        }
         
-        return (newCardsCount + cardsWithoutState) > 0;
+        return Optional.empty();
+    }
+
+    /**
+     * Card counts of a user, limited to a deck when {@code deckId} is given.
+     * Served from the maintained counters (a key lookup per deck), see {@link CardCounterService}.
+     */
+    public Counters getCardCounters(Long userId, Long deckId) {
+        return deckId != null
+                ? cardCounterService.getDeckCounters(userId, deckId)
+                : cardCounterService.getUserCounters(userId);
     }
 
     /**
@@ -618,19 +764,69 @@ public class StudyStateService {
     }
 
     /**
-     * Data class for card counts
+     * Result of a single review written by {@link #processReviewWithProgress}
      */
-    public static class CardCounts {
-        public final int newCards;
-        public final int reviewCards;
-        public final int learningCards;
-        public final int totalDue;
-        
-        public CardCounts(int newCards, int reviewCards, int learningCards, int totalDue) {
-            this.newCards = newCards;
-            this.reviewCards = reviewCards;
-            this.learningCards = learningCards;
-            this.totalDue = totalDue;
+    public static class ReviewWriteResult {
+        public final StudyState studyState;
+        public final Long sessionId; // null when the user has no active session
+        public final int cardsStudied;
+        public final int cardsCorrect;
+        public final double sessionAccuracy;
+        public final Integer sessionDurationMinutes;
+        public final Long nextStudyStateId; // null for a card without study state
+        public final Long nextCardId; // null when nothing is left to study
+        public final long remainingDue;
+        public final int remainingNew;
+        
+        public ReviewWriteResult(StudyState studyState, Long sessionId, int cardsStudied, int cardsCorrect,
+                                 double sessionAccuracy, Integer sessionDurationMinutes,
+                                 Long nextStudyStateId, Long nextCardId, long remainingDue, int remainingNew) {
+            this.studyState = studyState;
+            this.sessionId = sessionId;
+            this.cardsStudied = cardsStudied;
+            this.cardsCorrect = cardsCorrect;
+            this.sessionAccuracy = sessionAccuracy;
+            this.sessionDurationMinutes = sessionDurationMinutes;
+            this.nextStudyStateId = nextStudyStateId;
+            this.nextCardId = nextCardId;
+            this.remainingDue = remainingDue;
+            this.remainingNew = remainingNew;
+        }
+    }
+
+    /**
+     * Input for one review in a batch
+     */
+    public static class ReviewCommand {
+        public final Long cardId;
+        public final int grade;
+        public final LocalDateTime reviewTime;
+        public final int responseTimeMs;
+        
+        public ReviewCommand(Long cardId, int grade, LocalDateTime reviewTime, int responseTimeMs) {
+            this.cardId = cardId;
+            this.grade = grade;
+            this.reviewTime = reviewTime;
+            this.responseTimeMs = responseTimeMs;
+        }
+    }
+
+    /**
+     * Result of one review in a batch
+     */
+    public static class ReviewOutcome {
+        public final Long cardId;
+        public final int grade;
+        public final int responseTimeMs;
+        public final boolean newCard;
+        public final StudyState studyState; // State after the whole batch
+        
+        public ReviewOutcome(Long cardId, int grade, int responseTimeMs, boolean newCard, StudyState studyState) {
+            this.cardId = cardId;
+            this.grade = grade;
+            this.responseTimeMs = responseTimeMs;
+            this.newCard = newCard;
+            this.studyState = studyState;
         }
     }
 
@@ -658,35 +854,6 @@ public class StudyStateService {
         return new UserStatistics(0L, 0.0, 0L, 0L, 0L);
     }
 
-    // Helper methods for learning step tracking
-    private int getCurrentLearningStep(StudyState state) {
-        return state.getCurrentLearningStep() != null ? state.getCurrentLearningStep() : 0;
-    }
-
-    private void updateLearningStep(StudyState state, int step) {
-        state.setCurrentLearningStep(step);
-    }
-
-    private int getConsecutiveFailures(StudyState state) {
-        return state.getConsecutiveFailures() != null ? state.getConsecutiveFailures() : 0;
-    }
-
-    private void incrementConsecutiveFailures(StudyState state) {
-        int current = getConsecutiveFailures(state);
-        state.setConsecutiveFailures(current + 1);
-    }
-
-    private void resetConsecutiveFailures(StudyState state) {
-        state.setConsecutiveFailures(0);
-    }
-
-    private void markAsLeech(StudyState state) {
-        state.setIsLeech(true);
-        log.warn("Card {} marked as leech for user {} after {} consecutive failures", 
-                state.getCard().getId(), state.getUser().getId(), getConsecutiveFailures(state));
-        // Could implement additional leech handling logic here (suspend, reset difficulty, etc.)
-    }
-
     private void validateGrade(int grade) {
         if (grade < 0 || grade > 3) {
             throw new IllegalArgumentException("Grade must be between 0 and 3, got: " + grade);
@@ -9,6 +9,8 @@ import com.loopy.carden.exception.ResourceNotFoundException;
 import com.loopy.carden.mapper.TopicMapper;
 import com.loopy.carden.repository.TopicRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,15 +31,18 @@ public class TopicService {
                 .orElseThrow(() -> new ResourceNotFoundException("Topic not found: " + id));
     }
 
+    @Cacheable(value = "topics", key = "'all'")
     public List<TopicResponseDto> findAll() {
         return TopicMapper.toResponseDtoList(topicRepository.findAll());
     }
 
+    @Cacheable(value = "topics", key = "'id:' + #id")
     public TopicResponseDto findById(Long id) {
         Topic topic = getByIdOrThrow(id);
         return TopicMapper.toResponseDto(topic);
     }
 
+    @CacheEvict(value = "topics", allEntries = true)
     public TopicResponseDto create(TopicCreateDto createDto) {
         // Validate parent topic if provided
         if (createDto.getParentTopicId() != null) {
@@ -59,6 +64,7 @@ public class TopicService {
         return TopicMapper.toResponseDto(savedTopic);
     }
 
+    @CacheEvict(value = "topics", allEntries = true)
     public TopicResponseDto update(Long id, TopicUpdateDto updateDto) {
         Topic topic = getByIdOrThrow(id);
         
@@ -89,6 +95,7 @@ public class TopicService {
         return TopicMapper.toResponseDto(updatedTopic);
     }
 
+    @CacheEvict(value = "topics", allEntries = true)
     public void delete(Long id) {
         Topic topic = getByIdOrThrow(id);
         
@@ -126,11 +133,13 @@ public class TopicService {
         return false;
     }
 
+    @Cacheable(value = "topics", key = "'roots'")
     public List<TopicResponseDto> findRootTopics() {
         List<Topic> rootTopics = topicRepository.findRootTopicsOrderByDisplayOrder();
         return TopicMapper.toResponseDtoList(rootTopics);
     }
 
+    @Cacheable(value = "topics", key = "'children:' + #parentId")
     public List<TopicResponseDto> findChildTopics(Long parentId) {
         Topic parentTopic = getByIdOrThrow(parentId);
         List<Topic> childTopics = topicRepository.findChildTopicsOrderByDisplayOrder(parentTopic);
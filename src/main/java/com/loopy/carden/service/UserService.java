@@ -8,9 +8,8 @@ import com.loopy.carden.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-// Cache annotations removed temporarily
-// import org.springframework.cache.annotation.CacheEvict;
-// import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import com.loopy.carden.service.storage.CloudflareR2Service;
@@ -25,7 +24,7 @@ public class UserService {
 	private final UserRepository userRepository;
     private final CloudflareR2Service r2Service;
 
-	// @Cacheable(value = "userProfile", key = "#userId")
+	@Cacheable(value = "userProfile", key = "#userId")
 	public UserProfileDto getProfile(Long userId) {
 		User user = findUserOrThrow(userId);
 		return UserMapper.toUserProfileDto(user);
@@ -33,7 +32,7 @@ public class UserService {
 
 
 
-	// @Cacheable(value = "userTts", key = "#userId")
+	@Cacheable(value = "userTts", key = "#userId")
 	public TtsSettingsDto getTtsSettings(Long userId) {
 		User user = findUserOrThrow(userId);
 		return UserMapper.toTtsSettingsDto(user);
@@ -42,7 +41,7 @@ public class UserService {
 
 
 	@Transactional
-	// @CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
+	@CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
 	public UserProfileDto updateProfile(Long userId, UserProfileDto dto) {
 		User user = findUserOrThrow(userId);
 		UserMapper.updateUserFromProfileDto(dto, user);
@@ -51,7 +50,7 @@ public class UserService {
 	}
 
 	@Transactional
-	// @CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
+	@CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
 	public TtsSettingsDto updateTtsSettings(Long userId, TtsSettingsDto dto) {
 		User user = findUserOrThrow(userId);
 		UserMapper.updateUserFromTtsDto(dto, user);
@@ -60,7 +59,7 @@ public class UserService {
 	}
 
 	@Transactional
-	// @CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
+	@CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
 	public String uploadAvatar(Long userId, MultipartFile file) {
 		if (file == null || file.isEmpty()) {
 			throw new IllegalArgumentException("File is empty");
@@ -73,7 +72,7 @@ public class UserService {
 	}
 
 	@Transactional
-	// @CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
+	@CacheEvict(value = {"userProfile", "userTts"}, key = "#userId")
 	public String confirmAvatarUpload(Long userId, String publicUrl) {
 		User user = findUserOrThrow(userId);
 		user.setProfileImageUrl(publicUrl);
@@ -0,0 +1,212 @@
+package com.loopy.carden.service.analytics;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.loopy.carden.dto.statistics.PerformanceStatsDto;
+import com.loopy.carden.dto.statistics.StudyStreakDto;
+import com.loopy.carden.dto.statistics.UserStatisticsDto;
+import com.loopy.carden.service.InsightsService;
+import com.loopy.carden.service.InsightsService.StudyInsight;
+import com.loopy.carden.service.StatisticsService;
+import com.loopy.carden.service.overview.UserOverviewService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-flight, stale-while-revalidate front of the dashboard analytics (summary and insights).
+ *
+ * Both are derived from one {@link AnalyticsSnapshot} per user, so a dashboard asking for the
+ * summary and the insights queries the statistics once. Concurrent requests for the same user
+ * share one in-flight computation. A snapshot is fresh for {@code fresh-seconds}; after that it
+ * is still served for up to {@code stale-seconds} while one background refresh recomputes it.
+ * A partial snapshot (queries missed the latency budget) is only shared by the requests waiting
+ * for it and expires right away; {@link UserOverviewService#refresh} does not store one either.
+ * Snapshots are per node; completing a session drops the user's snapshot after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsResultCache {
+
+    private final StatisticsService statisticsService;
+    private final UserOverviewService userOverviewService;
+    private final InsightsService insightsService;
+
+    @Value("${carden.analytics.fresh-seconds:30}")
+    private long freshSeconds;
+
+    @Value("${carden.analytics.stale-seconds:300}")
+    private long staleSeconds;
+
+    @Value("${carden.analytics.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${carden.analytics.refresh-threads:4}")
+    private int refreshThreads;
+
+    private ThreadPoolExecutor executor;
+    private AsyncLoadingCache<Long, AnalyticsSnapshot> snapshots;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: when refreshes pile up, the requesting thread computes instead of queueing more
+        executor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshThreads * 64),
+                task -> {
+                    Thread thread = new Thread(task, "analytics-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .refreshAfterWrite(Duration.ofSeconds(freshSeconds))
+                .expireAfter(new SnapshotExpiry(Duration.ofSeconds(freshSeconds + staleSeconds)))
+                .executor(executor)
+                .buildAsync((userId, ignored) -> computeSnapshot(userId));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Dashboard summary: overview, streaks, last 30 days and card state distribution
+     */
+    public Map<String, Object> getSummary(Long userId) {
+        return summarize(getSnapshot(userId));
+    }
+
+    /**
+     * Personalized study insights
+     */
+    public List<StudyInsight> getInsights(Long userId) {
+        return insightsService.generateInsights(getSnapshot(userId));
+    }
+
+    /**
+     * The user's current analytics snapshot
+     */
+    public AnalyticsSnapshot getSnapshot(Long userId) {
+        return await(snapshots.get(userId));
+    }
+
+    /**
+     * Drop the user's snapshot once the current transaction has committed (immediately without one)
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userId);
+            }
+        });
+    }
+
+    private void invalidate(Long userId) {
+        snapshots.synchronous().invalidate(userId);
+    }
+
+    /**
+     * Wait for a result, rethrowing the computation's own exception (e.g. not found)
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AnalyticsSnapshot computeSnapshot(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot(userId,
+                userOverviewService.getOverview(userId),
+                statisticsService.getStudyStreak(userId),
+                statisticsService.getPerformanceStats(userId, now.minusDays(AnalyticsSnapshot.RECENT_DAYS), now),
+                now);
+
+        log.debug("Computed analytics snapshot for user {}", userId);
+        return snapshot;
+    }
+
+    /**
+     * Complete snapshots live for fresh + stale seconds after each (re)computation, partial ones not at all
+     */
+    private record SnapshotExpiry(Duration lifetime) implements Expiry<Long, AnalyticsSnapshot> {
+
+        @Override
+        public long expireAfterCreate(Long userId, AnalyticsSnapshot snapshot, long currentTime) {
+            return snapshot.isPartial() ? 0 : lifetime.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, AnalyticsSnapshot snapshot, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(userId, snapshot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, AnalyticsSnapshot snapshot, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static Map<String, Object> summarize(AnalyticsSnapshot snapshot) {
+        UserStatisticsDto overview = snapshot.overview();
+        StudyStreakDto streaks = snapshot.streaks();
+        PerformanceStatsDto performance = snapshot.recent();
+
+        return Map.of(
+                "overview", Map.of(
+                        "totalCards", overview.getTotalCards(),
+                        "totalSessions", overview.getTotalSessions(),
+                        "overallAccuracy", Math.round(overview.getOverallAccuracy() * 100.0) / 100.0,
+                        "totalStudyTimeMinutes", overview.getTotalStudyTimeMinutes()
+                ),
+                "streaks", Map.of(
+                        "current", streaks.getCurrentStreak(),
+                        "longest", streaks.getLongestStreak(),
+                        "nextMilestone", streaks.getNextMilestone(),
+                        "daysToMilestone", streaks.getDaysToMilestone()
+                ),
+                "recent", Map.of(
+                        "sessionsLast30Days", performance.getTotalSessions(),
+                        "accuracyLast30Days", Math.round(performance.getAverageAccuracy() * 100.0) / 100.0,
+                        "studyTimeLast30Days", performance.getTotalStudyTime(),
+                        "cardsStudiedLast30Days", performance.getCardsStudied()
+                ),
+                "distribution", overview.getCardStateDistribution()
+        );
+    }
+}
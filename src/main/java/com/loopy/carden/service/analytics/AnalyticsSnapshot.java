@@ -0,0 +1,30 @@
+package com.loopy.carden.service.analytics;
+
+import com.loopy.carden.dto.statistics.PerformanceStatsDto;
+import com.loopy.carden.dto.statistics.StudyStreakDto;
+import com.loopy.carden.dto.statistics.UserStatisticsDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Everything the dashboard analytics and insights are derived from, computed once per user:
+ * overview statistics, streaks and the last 30 days of performance
+ */
+public record AnalyticsSnapshot(Long userId,
+                                UserStatisticsDto overview,
+                                StudyStreakDto streaks,
+                                PerformanceStatsDto recent,
+                                LocalDateTime computedAt) {
+
+    /**
+     * Days covered by {@link #recent()}
+     */
+    public static final int RECENT_DAYS = 30;
+
+    /**
+     * Whether some overview figures missed the latency budget and hold defaults
+     */
+    public boolean isPartial() {
+        return overview.isPartial();
+    }
+}
@@ -0,0 +1,159 @@
+package com.loopy.carden.service.analytics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only queries of one request concurrently on a bounded pool.
+ *
+ * Each query runs in its own read-only transaction (its own connection), so a batch holds at most
+ * {@code threads} pool connections in total across all requests. A batch shares one latency
+ * budget: a query that fails or is not done when the budget runs out yields its fallback value
+ * and marks the batch partial, so callers can return what they have instead of failing.
+ * The query's transaction times out with the budget left when it starts (rounded up to whole
+ * seconds), so the driver cancels a statement that overruns instead of it holding its pool thread
+ * and connection until the database finishes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryFanoutExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${carden.statistics.fanout.threads:8}")
+    private int threads;
+
+    @Value("${carden.statistics.fanout.budget-ms:2000}")
+    private long budgetMs;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: when the queue is full, the requesting thread runs the query itself
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 32),
+                task -> {
+                    Thread thread = new Thread(task, "statistics-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start a batch; its latency budget starts now
+     */
+    public Batch batch(String name) {
+        return new Batch(name, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+    }
+
+    /**
+     * Queries of one request sharing a latency budget
+     */
+    public class Batch {
+
+        private final String name;
+        private final long deadline;
+        private volatile boolean partial;
+
+        private Batch(String name, long deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Submit a query; {@code fallback} is its result if it fails or misses the budget
+         */
+        public <T> Part<T> submit(String part, Supplier<T> query, T fallback) {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> runWithinBudget(query), executor);
+            return new Part<>(this, part, future, fallback);
+        }
+
+        private <T> T runWithinBudget(Supplier<T> query) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                // Waited in the queue past the budget; the caller has already used the fallback
+                throw new IllegalStateException(name + " budget spent before the query started");
+            }
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager, readOnlyTransaction);
+            transaction.setTimeout((int) Math.max(1, (remainingMs + 999) / 1000));
+            return transaction.execute(status -> query.get());
+        }
+
+        /**
+         * Whether any part fell back (failed or ran out of budget)
+         */
+        public boolean isPartial() {
+            return partial;
+        }
+    }
+
+    /**
+     * Pending result of one query in a batch
+     */
+    public static class Part<T> {
+
+        private final Batch batch;
+        private final String name;
+        private final CompletableFuture<T> future;
+        private final T fallback;
+
+        private Part(Batch batch, String name, CompletableFuture<T> future, T fallback) {
+            this.batch = batch;
+            this.name = name;
+            this.future = future;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Wait for the result within what is left of the batch budget
+         */
+        public T get() {
+            long remaining = batch.deadline - System.nanoTime();
+            try {
+                T result = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                return result != null ? result : fallback;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("{}: {} not done within budget, using fallback", batch.name, name);
+            } catch (ExecutionException e) {
+                log.warn("{}: {} failed, using fallback: {}", batch.name, name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            }
+            batch.partial = true;
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.loopy.carden.service.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts entities from the Hibernate second-level cache.
+ *
+ * Cache hits skip the {@code @SQLRestriction("deleted = false")} of Card and Deck, so a soft
+ * deleted row would still be returned by {@code findById} from its cached entry. Soft deletes
+ * evict the entry after commit: Hibernate writes the updated (deleted) state back to the cache
+ * when the transaction completes, so evicting earlier would be undone.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict an entity once the current transaction has committed (immediately without one)
+     */
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityManagerFactory.getCache().evict(entityClass, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(entityClass, id);
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.loopy.carden.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Cache with a bounded in-process Caffeine tier (L1) in front of an optional shared Redis
+ * tier (L2).
+ *
+ * Reads try L1, then L2, filling L1 on an L2 hit. Writes and evictions go to L2 first, then
+ * L1, and are published so other nodes drop their L1 copy. L2 failures are treated as misses
+ * (see {@link TwoTierCacheManager#remoteFailed}), so the cache keeps serving from L1 while
+ * Redis is unreachable. Keys are normalized to strings, the form they take in Redis and in
+ * invalidation messages. Null values are not cached.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+
+    TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                 Cache remote, TwoTierCacheManager manager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The local (L1) Caffeine cache
+     */
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String cacheKey = cacheKey(key);
+        Object value = local.getIfPresent(cacheKey);
+        if (value == null) {
+            value = remoteGet(cacheKey);
+            if (value != null) {
+                local.put(cacheKey, value);
+            }
+        }
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Load through L1: concurrent callers on this node for the same key wait for one load
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = cacheKey(key);
+        return (T) local.get(cacheKey, ignored -> {
+            Object value = remoteGet(cacheKey);
+            if (value != null) {
+                return value;
+            }
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (value != null) {
+                Object loaded = value;
+                remote(() -> {
+                    remote.put(cacheKey, loaded);
+                    return null;
+                });
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        String cacheKey = cacheKey(key);
+        remote(() -> {
+            remote.put(cacheKey, value);
+            return null;
+        });
+        local.put(cacheKey, value);
+        manager.publishEviction(name, cacheKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = cacheKey(key);
+        remote(() -> {
+            remote.evict(cacheKey);
+            return null;
+        });
+        local.invalidate(cacheKey);
+        manager.publishEviction(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        remote(() -> {
+            remote.clear();
+            return null;
+        });
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    /**
+     * Drop an entry from L1 only (eviction published by another node)
+     */
+    void evictLocal(String cacheKey) {
+        local.invalidate(cacheKey);
+    }
+
+    /**
+     * Drop all entries from L1 only (clear published by another node)
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Object remoteGet(String cacheKey) {
+        ValueWrapper wrapper = remote(() -> remote.get(cacheKey));
+        return wrapper != null ? wrapper.get() : null;
+    }
+
+    private <T> T remote(Supplier<T> operation) {
+        if (remote == null || !manager.isRemoteAvailable()) {
+            return null;
+        }
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            manager.remoteFailed(name, e);
+            return null;
+        }
+    }
+
+    static String cacheKey(Object key) {
+        return String.valueOf(key);
+    }
+}
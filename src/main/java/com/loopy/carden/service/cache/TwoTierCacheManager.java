@@ -0,0 +1,191 @@
+package com.loopy.carden.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager of {@link TwoTierCache}s: a Caffeine L1 per node over a Redis L2 shared by
+ * all nodes, or L1 only when no Redis connection factory is given.
+ *
+ * Evictions are published on a Redis channel so every other node drops its L1 copy. Messages
+ * are fire-and-forget; a node that misses one (e.g. while Redis is down) serves the stale L1
+ * entry until it expires, so L1 expiry bounds cross-node staleness.
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager implements DisposableBean {
+
+    static final String INVALIDATION_CHANNEL = "carden:cache:invalidation";
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Size and expiry of one cache (both tiers expire entries after {@code ttl})
+     */
+    public record CacheSpec(long maximumSize, Duration ttl) {
+    }
+
+    private final Map<String, CacheSpec> specs;
+    private final CacheSpec defaultSpec;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCacheManager remoteManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration remoteRetryInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    private RedisMessageListenerContainer listenerContainer;
+    private volatile long remoteRetryAt;
+
+    /**
+     * @param connectionFactory Redis for L2 and invalidation messages, or null for L1 only
+     * @param remoteDefaults    serialization of L2 entries (ignored without Redis)
+     * @param remoteRetryInterval how long L2 is skipped after a Redis failure
+     */
+    public TwoTierCacheManager(Map<String, CacheSpec> specs, CacheSpec defaultSpec,
+                               RedisConnectionFactory connectionFactory, RedisCacheConfiguration remoteDefaults,
+                               Duration remoteRetryInterval) {
+        this.specs = Map.copyOf(specs);
+        this.defaultSpec = defaultSpec;
+        this.connectionFactory = connectionFactory;
+        this.remoteRetryInterval = remoteRetryInterval;
+
+        if (connectionFactory != null) {
+            Map<String, RedisCacheConfiguration> remoteConfigs = new HashMap<>();
+            specs.forEach((name, spec) -> remoteConfigs.put(name, remoteDefaults.entryTtl(spec.ttl())));
+            this.remoteManager = RedisCacheManager.builder(connectionFactory)
+                    .cacheDefaults(remoteDefaults.entryTtl(defaultSpec.ttl()))
+                    .withInitialCacheConfigurations(remoteConfigs)
+                    .build();
+            this.remoteManager.afterPropertiesSet();
+            this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        } else {
+            this.remoteManager = null;
+            this.redisTemplate = null;
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (connectionFactory == null) {
+            log.info("Caches {} running in-process only (no Redis tier)", specs.keySet());
+            return;
+        }
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        try {
+            listenerContainer.start();
+        } catch (RuntimeException e) {
+            // The container keeps retrying the subscription in the background
+            log.warn("Could not subscribe to cache invalidations yet: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> loaded = new ArrayList<>();
+        specs.forEach((name, spec) -> loaded.add(createCache(name, spec)));
+        return loaded;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name, defaultSpec);
+    }
+
+    private TwoTierCache createCache(String name, CacheSpec spec) {
+        return caches.computeIfAbsent(name, cacheName -> new TwoTierCache(cacheName,
+                Caffeine.newBuilder()
+                        .maximumSize(spec.maximumSize())
+                        .expireAfterWrite(spec.ttl())
+                        .recordStats()
+                        .build(),
+                remoteManager != null ? remoteManager.getCache(cacheName) : null,
+                this));
+    }
+
+    boolean isRemoteAvailable() {
+        return System.currentTimeMillis() >= remoteRetryAt;
+    }
+
+    /**
+     * Skip L2 for the retry interval after a Redis error; caches keep serving from L1
+     */
+    void remoteFailed(String cacheName, RuntimeException e) {
+        boolean wasAvailable = isRemoteAvailable();
+        remoteRetryAt = System.currentTimeMillis() + remoteRetryInterval.toMillis();
+        if (wasAvailable) {
+            log.warn("Redis cache tier failed on cache {}, using local caches only for {} s: {}",
+                    cacheName, remoteRetryInterval.toSeconds(), e.getMessage());
+        }
+    }
+
+    void publishEviction(String cacheName, String cacheKey) {
+        publish(nodeId + SEPARATOR + cacheName + SEPARATOR + cacheKey, cacheName);
+    }
+
+    void publishClear(String cacheName) {
+        publish(nodeId + SEPARATOR + cacheName, cacheName);
+    }
+
+    private void publish(String message, String cacheName) {
+        if (redisTemplate == null || !isRemoteAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            remoteFailed(cacheName, e);
+        }
+    }
+
+    /**
+     * Apply an eviction published by another node to the local tier:
+     * {@code node \n cache \n key}, or {@code node \n cache} to clear the cache
+     */
+    void onInvalidation(String message) {
+        String[] parts = message.split(String.valueOf(SEPARATOR), 3);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 3) {
+            cache.evictLocal(parts[2]);
+        } else {
+            cache.clearLocal();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.loopy.carden.service.counter;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-user, per-deck card counters (user_deck_counters), so due counts are a key lookup
+ * instead of a scan of the user's study states.
+ *
+ * State totals are exact and maintained with deltas in the transaction that changes a study
+ * state. Due counts depend on the clock: a row holds the due counts as of {@code counted_at}
+ * and {@code next_due_at}, the earliest later due date, is its validity horizon. Until then
+ * no card can become due, so the row is served as is; past it (or after max-age, which
+ * bounds drift from races with a recount) the deck is recounted with one FILTER aggregate.
+ * Reads are a single statement each, recount included. Every (user, deck) with study states
+ * has a row: paths that create states add to it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardCounterService {
+
+    private static final String COLUMNS = "new_count, learning_count, review_count, leech_count, " +
+            "learning_due_count, review_due_count, next_due_at";
+
+    // Counts of the study states joined as s (COUNT(s.id) so an outer-joined empty deck counts 0)
+    private static final String AGGREGATES =
+            "COUNT(s.id) FILTER (WHERE s.card_state = 'NEW'), " +
+            "COUNT(s.id) FILTER (WHERE s.card_state IN ('LEARNING', 'RELEARNING')), " +
+            "COUNT(s.id) FILTER (WHERE s.card_state = 'REVIEW'), " +
+            "COUNT(s.id) FILTER (WHERE s.is_leech), " +
+            "COUNT(s.id) FILTER (WHERE s.card_state IN ('LEARNING', 'RELEARNING') AND s.due_date <= :now), " +
+            "COUNT(s.id) FILTER (WHERE s.card_state = 'REVIEW' AND s.due_date <= :now), " +
+            "MIN(s.due_date) FILTER (WHERE s.card_state <> 'NEW' AND s.due_date > :now), " +
+            ":now, :now";
+
+    private static final String UPSERT = "INSERT INTO user_deck_counters (user_id, deck_id, " + COLUMNS +
+            ", counted_at, updated_at) ";
+
+    private static final String ON_CONFLICT = "ON CONFLICT (user_id, deck_id) DO UPDATE SET " +
+            "new_count = EXCLUDED.new_count, learning_count = EXCLUDED.learning_count, " +
+            "review_count = EXCLUDED.review_count, leech_count = EXCLUDED.leech_count, " +
+            "learning_due_count = EXCLUDED.learning_due_count, review_due_count = EXCLUDED.review_due_count, " +
+            "next_due_at = EXCLUDED.next_due_at, counted_at = EXCLUDED.counted_at, updated_at = EXCLUDED.updated_at ";
+
+    private static final String VALID = "(c.next_due_at IS NULL OR c.next_due_at > :now) AND c.counted_at > :minCountedAt";
+
+    // Marks a row (created if missing) as past max-age, so the next read recounts it
+    private static final String INVALIDATE_SQL = "INSERT INTO user_deck_counters (user_id, deck_id, counted_at, updated_at) " +
+            "VALUES (:userId, :deckId, :minCountedAt, :now) " +
+            "ON CONFLICT (user_id, deck_id) DO UPDATE SET counted_at = EXCLUDED.counted_at, updated_at = EXCLUDED.updated_at";
+
+    // One statement: the valid row, else the deck recounted (HAVING keeps the aggregate from running
+    // otherwise, and keeps a deck without study states of the user from getting a row)
+    private static final String DECK_SQL = "WITH valid AS (" +
+            "  SELECT " + COLUMNS + " FROM user_deck_counters c " +
+            "  WHERE c.user_id = :userId AND c.deck_id = :deckId AND " + VALID +
+            "), recounted AS (" +
+            "  " + UPSERT +
+            "  SELECT :userId, :deckId, " + AGGREGATES + " " +
+            "  FROM study_states s WHERE s.user_id = :userId AND s.deck_id = :deckId " +
+            "  AND NOT EXISTS (SELECT 1 FROM valid) " +
+            "  HAVING NOT EXISTS (SELECT 1 FROM valid) AND COUNT(s.id) > 0 " +
+            "  " + ON_CONFLICT +
+            "  RETURNING " + COLUMNS +
+            ") " +
+            "SELECT * FROM valid UNION ALL SELECT * FROM recounted";
+
+    // One statement: stale rows of the user are recounted in place, then all rows are summed
+    private static final String USER_SQL = "WITH stale AS (" +
+            "  SELECT c.deck_id FROM user_deck_counters c WHERE c.user_id = :userId AND NOT (" + VALID + ")" +
+            "), recounted AS (" +
+            "  " + UPSERT +
+            "  SELECT :userId, st.deck_id, " + AGGREGATES + " " +
+            "  FROM stale st LEFT JOIN study_states s ON s.user_id = :userId AND s.deck_id = st.deck_id " +
+            "  GROUP BY st.deck_id " +
+            "  " + ON_CONFLICT +
+            "  RETURNING " + COLUMNS +
+            "), merged AS (" +
+            "  SELECT " + COLUMNS + " FROM user_deck_counters c " +
+            "  WHERE c.user_id = :userId AND c.deck_id NOT IN (SELECT deck_id FROM stale) " +
+            "  UNION ALL SELECT * FROM recounted" +
+            ") " +
+            "SELECT COALESCE(SUM(new_count), 0) AS new_count, COALESCE(SUM(learning_count), 0) AS learning_count, " +
+            "  COALESCE(SUM(review_count), 0) AS review_count, COALESCE(SUM(leech_count), 0) AS leech_count, " +
+            "  COALESCE(SUM(learning_due_count), 0) AS learning_due_count, " +
+            "  COALESCE(SUM(review_due_count), 0) AS review_due_count, MIN(next_due_at) AS next_due_at " +
+            "FROM merged";
+
+    // Applies only to a row that is still valid; previousDue guards a horizon set by the reviewed card itself
+    private static final String DELTA_SQL = "UPDATE user_deck_counters c SET " +
+            "new_count = new_count + :newDelta, learning_count = learning_count + :learningDelta, " +
+            "review_count = review_count + :reviewDelta, leech_count = leech_count + :leechDelta, " +
+            "learning_due_count = learning_due_count + :learningDueDelta, " +
+            "review_due_count = review_due_count + :reviewDueDelta, " +
+            "next_due_at = LEAST(next_due_at, CAST(:nextDue AS TIMESTAMP)), updated_at = :now " +
+            "WHERE c.user_id = :userId AND c.deck_id = :deckId AND " + VALID + " " +
+            "AND (CAST(:previousDue AS TIMESTAMP) IS NULL OR c.next_due_at IS NULL OR c.next_due_at <> :previousDue)";
+
+    private static final RowMapper<Counters> COUNTERS = (rs, i) -> new Counters(
+            rs.getInt("new_count"),
+            rs.getInt("learning_count"),
+            rs.getInt("review_count"),
+            rs.getInt("leech_count"),
+            rs.getInt("learning_due_count"),
+            rs.getInt("review_due_count"),
+            toLocalDateTime(rs.getTimestamp("next_due_at")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${carden.practice.counters.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    /**
+     * Card counts of one deck (or of all the user's decks), due counts as of the read
+     */
+    public static class Counters {
+        public static final Counters EMPTY = new Counters(0, 0, 0, 0, 0, 0, null);
+
+        public final int newCards;
+        public final int learningCards;
+        public final int reviewCards;
+        public final int leechCards;
+        public final int learningDue;
+        public final int reviewDue;
+        public final LocalDateTime nextDueAt; // earliest due date still in the future
+
+        public Counters(int newCards, int learningCards, int reviewCards, int leechCards,
+                        int learningDue, int reviewDue, LocalDateTime nextDueAt) {
+            this.newCards = newCards;
+            this.learningCards = learningCards;
+            this.reviewCards = reviewCards;
+            this.leechCards = leechCards;
+            this.learningDue = learningDue;
+            this.reviewDue = reviewDue;
+            this.nextDueAt = nextDueAt;
+        }
+
+        public int totalDue() {
+            return learningDue + reviewDue;
+        }
+
+        public boolean hasCardsAvailable() {
+            return newCards > 0 || totalDue() > 0;
+        }
+    }
+
+    /**
+     * Counters of one deck in one statement: a key lookup, recounted only when the row is past its horizon.
+     * A deck the user has no study states in (unknown, not studied or not visible) has zero counters
+     * and is not given a row.
+     */
+    public Counters getDeckCounters(Long userId, Long deckId) {
+        List<Counters> counters = jdbcTemplate.query(DECK_SQL,
+                params(userId, LocalDateTime.now()).addValue("deckId", deckId), COUNTERS);
+        return counters.isEmpty() ? Counters.EMPTY : counters.get(0);
+    }
+
+    /**
+     * Counters over all of the user's decks in one statement (stale rows recounted on the way)
+     */
+    public Counters getUserCounters(Long userId) {
+        return jdbcTemplate.queryForObject(USER_SQL, params(userId, LocalDateTime.now()), COUNTERS);
+    }
+
+    /**
+     * Rows counted at or before the returned time are past max-age and must be recounted;
+     * for statements that read user_deck_counters themselves (see StudyStateRepository.applyReview)
+     */
+    public LocalDateTime minCountedAt(LocalDateTime now) {
+        return now.minusMinutes(maxAgeMinutes);
+    }
+
+    /**
+     * Study states were created (NEW) for cards of a deck
+     */
+    public void onCardsAdded(Long userId, Long deckId, int count) {
+        if (count != 0) {
+            applyDelta(userId, deckId, count, 0, 0, 0, 0, 0, null, null);
+        }
+    }
+
+    /**
+     * NEW study states of a deck were deleted
+     */
+    public void onCardsRemoved(Long userId, Long deckId, int count) {
+        onCardsAdded(userId, deckId, -count);
+    }
+
+    /**
+     * A study state changed by a review. {@code previousState} is null when the state was not
+     * stored (and so not counted) before the review.
+     */
+    public void onReviewed(Long userId, Long deckId,
+                           CardState previousState, LocalDateTime previousDue, boolean wasLeech,
+                           CardState state, LocalDateTime due, boolean leech) {
+        LocalDateTime now = LocalDateTime.now();
+        int newDelta = 0, learningDelta = 0, reviewDelta = 0, learningDueDelta = 0, reviewDueDelta = 0;
+
+        if (previousState != null) {
+            boolean wasDue = !previousDue.isAfter(now);
+            switch (previousState) {
+                case NEW -> newDelta--;
+                case LEARNING, RELEARNING -> {
+                    learningDelta--;
+                    learningDueDelta -= wasDue ? 1 : 0;
+                }
+                case REVIEW -> {
+                    reviewDelta--;
+                    reviewDueDelta -= wasDue ? 1 : 0;
+                }
+            }
+        }
+
+        boolean isDue = !due.isAfter(now);
+        switch (state) {
+            case NEW -> newDelta++;
+            case LEARNING, RELEARNING -> {
+                learningDelta++;
+                learningDueDelta += isDue ? 1 : 0;
+            }
+            case REVIEW -> {
+                reviewDelta++;
+                reviewDueDelta += isDue ? 1 : 0;
+            }
+        }
+
+        int leechDelta = (leech ? 1 : 0) - (previousState != null && wasLeech ? 1 : 0);
+        LocalDateTime nextDue = state != CardState.NEW && !isDue ? due : null;
+        LocalDateTime guardedDue = previousState != null && previousState != CardState.NEW ? previousDue : null;
+        applyDelta(userId, deckId, newDelta, learningDelta, reviewDelta, leechDelta,
+                learningDueDelta, reviewDueDelta, nextDue, guardedDue);
+    }
+
+    private void applyDelta(Long userId, Long deckId, int newDelta, int learningDelta, int reviewDelta,
+                            int leechDelta, int learningDueDelta, int reviewDueDelta,
+                            LocalDateTime nextDue, LocalDateTime previousDue) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(DELTA_SQL, params(userId, now)
+                .addValue("deckId", deckId)
+                .addValue("newDelta", newDelta)
+                .addValue("learningDelta", learningDelta)
+                .addValue("reviewDelta", reviewDelta)
+                .addValue("leechDelta", leechDelta)
+                .addValue("learningDueDelta", learningDueDelta)
+                .addValue("reviewDueDelta", reviewDueDelta)
+                .addValue("nextDue", toTimestamp(nextDue), Types.TIMESTAMP)
+                .addValue("previousDue", toTimestamp(previousDue), Types.TIMESTAMP));
+        if (updated == 0) {
+            // Missing or past its horizon. Reviews report their delta before the state is written,
+            // so a recount here could miss the change: leave it to the next read instead.
+            jdbcTemplate.update(INVALIDATE_SQL, params(userId, now).addValue("deckId", deckId));
+            log.debug("Invalidated card counters of user {} deck {}", userId, deckId);
+        }
+    }
+
+    private MapSqlParameterSource params(Long userId, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("minCountedAt", Timestamp.valueOf(minCountedAt(now)));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.loopy.carden.service.overview;
+
+/**
+ * Published when a user's study data changes (reviews recorded, session started, completed or
+ * abandoned), so derived per-user data can be refreshed once the change has committed
+ */
+public record StudyActivityEvent(Long userId) {
+}
@@ -0,0 +1,94 @@
+package com.loopy.carden.service.overview;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes the stored overview of every user when the application is started with
+ * {@code --rebuild-user-overviews} (e.g. after {@link UserOverviewService#SCHEMA_VERSION} changed).
+ * Users are read in id order in chunks, and chunks are rebuilt in parallel; startup continues
+ * once all are done. Without the rebuild, outdated rows are still recomputed on first read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserOverviewRebuildRunner implements ApplicationRunner {
+
+    private static final String OPTION = "rebuild-user-overviews";
+
+    private static final String USER_IDS_SQL = "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserOverviewService userOverviewService;
+
+    @Value("${carden.overview.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${carden.overview.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        log.info("Rebuilding user overviews with {} threads, {} users per chunk", rebuildThreads, chunkSize);
+        long started = System.nanoTime();
+        AtomicInteger rebuilt = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            long afterId = 0;
+            List<Long> userIds;
+            while (!(userIds = nextUserIds(afterId)).isEmpty()) {
+                List<Long> chunk = userIds;
+                chunks.add(executor.submit(() -> rebuild(chunk, rebuilt, failed)));
+                afterId = userIds.get(userIds.size() - 1);
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("User overview rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Rebuilt {} user overviews in {} ms ({} failed)", rebuilt.get(),
+                (System.nanoTime() - started) / 1_000_000, failed.get());
+    }
+
+    private List<Long> nextUserIds(long afterId) {
+        return jdbcTemplate.queryForList(USER_IDS_SQL, new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", chunkSize), Long.class);
+    }
+
+    private void rebuild(List<Long> userIds, AtomicInteger rebuilt, AtomicInteger failed) {
+        for (Long userId : userIds) {
+            try {
+                userOverviewService.refresh(userId);
+                rebuilt.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Failed to rebuild overview of user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.loopy.carden.service.overview;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.loopy.carden.service.analytics.AnalyticsResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refreshes a user's stored overview in the background once a study change has committed, then
+ * drops the user's dashboard snapshot so it is rebuilt from the new overview.
+ *
+ * Refreshes are debounced per user: the first change schedules a refresh
+ * {@code refresh-debounce-seconds} later and every change committed until it starts shares
+ * it, so a user reviewing card after card gets at most one recompute per interval, covering
+ * the last change. When {@code max-pending-users} users are already waiting, further changes
+ * are dropped (and counted): those overviews catch up with the user's next change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserOverviewRefresher {
+
+    private final UserOverviewService userOverviewService;
+    private final AnalyticsResultCache analyticsResultCache;
+
+    @Value("${carden.overview.refresh-threads:4}")
+    private int refreshThreads;
+
+    @Value("${carden.overview.refresh-debounce-seconds:10}")
+    private long debounceSeconds;
+
+    @Value("${carden.overview.max-pending-users:10000}")
+    private int maxPendingUsers;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Pending refreshes are bounded by maxPendingUsers; the committing thread never refreshes
+        executor = new ScheduledThreadPoolExecutor(refreshThreads,
+                task -> {
+                    Thread thread = new Thread(task, "overview-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStudyActivity(StudyActivityEvent event) {
+        Long userId = event.userId();
+        if (queued.contains(userId)) {
+            return;
+        }
+        if (queued.size() >= maxPendingUsers) {
+            long dropped = droppedCount.incrementAndGet();
+            log.debug("Overview refresh queue full, dropped refresh of user {} ({} dropped so far)", userId, dropped);
+            return;
+        }
+        if (!queued.add(userId)) {
+            return;
+        }
+        executor.schedule(() -> {
+            // Dequeue first: a change committed from here on needs a refresh of its own
+            queued.remove(userId);
+            try {
+                userOverviewService.refresh(userId);
+                analyticsResultCache.invalidateAfterCommit(userId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh overview of user {}: {}", userId, e.getMessage());
+            }
+        }, debounceSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Number of changes whose refresh was dropped because too many users were waiting
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -0,0 +1,95 @@
+package com.loopy.carden.service.overview;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loopy.carden.dto.statistics.UserStatisticsDto;
+import com.loopy.carden.service.StatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Precomputed statistics overview of each user (user_overviews), so the overview is one
+ * primary-key read instead of the statistics queries.
+ *
+ * A row is refreshed after the user's study data changes (see {@link UserOverviewRefresher}).
+ * Some figures depend on the date (current streak, last 30 days), so a row is only served on
+ * the day it was computed; an older row, a row of another {@link #SCHEMA_VERSION} or a missing
+ * one is recomputed on read. Bump the version when the overview's shape or meaning changes and
+ * run the rebuild (see {@link UserOverviewRebuildRunner}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserOverviewService {
+
+    /**
+     * Version of the stored overview document
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final String SELECT_SQL = "SELECT overview FROM user_overviews " +
+            "WHERE user_id = :userId AND schema_version = :schemaVersion AND computed_at >= :today";
+
+    // An older computation finishing late never replaces a newer one
+    private static final String UPSERT_SQL = "INSERT INTO user_overviews (user_id, overview, schema_version, computed_at) " +
+            "VALUES (:userId, CAST(:overview AS JSONB), :schemaVersion, :computedAt) " +
+            "ON CONFLICT (user_id) DO UPDATE SET overview = EXCLUDED.overview, " +
+            "schema_version = EXCLUDED.schema_version, computed_at = EXCLUDED.computed_at " +
+            "WHERE user_overviews.computed_at <= EXCLUDED.computed_at " +
+            "OR user_overviews.schema_version <> EXCLUDED.schema_version";
+
+    private static final String DELETE_SQL = "DELETE FROM user_overviews WHERE user_id = :userId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final StatisticsService statisticsService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The user's overview: the stored document when it is current, otherwise recomputed and stored
+     */
+    public UserStatisticsDto getOverview(Long userId) {
+        List<String> rows = jdbcTemplate.queryForList(SELECT_SQL, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("schemaVersion", SCHEMA_VERSION)
+                .addValue("today", Timestamp.valueOf(LocalDate.now().atStartOfDay())), String.class);
+        if (!rows.isEmpty()) {
+            try {
+                return objectMapper.readValue(rows.get(0), UserStatisticsDto.class);
+            } catch (JsonProcessingException e) {
+                log.warn("Unreadable overview of user {}, recomputing: {}", userId, e.getMessage());
+            }
+        }
+        return refresh(userId);
+    }
+
+    /**
+     * Recompute and store the user's overview. A partial result (queries missed the latency
+     * budget) is returned but not stored; the stored row is dropped so it is recomputed on read.
+     */
+    public UserStatisticsDto refresh(Long userId) {
+        LocalDateTime computedAt = LocalDateTime.now();
+        UserStatisticsDto overview = statisticsService.getUserStatistics(userId);
+        if (overview.isPartial()) {
+            jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("userId", userId));
+            return overview;
+        }
+        try {
+            jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("overview", objectMapper.writeValueAsString(overview))
+                    .addValue("schemaVersion", SCHEMA_VERSION)
+                    .addValue("computedAt", Timestamp.valueOf(computedAt)));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize overview of user {}", userId, e);
+        }
+        return overview;
+    }
+}
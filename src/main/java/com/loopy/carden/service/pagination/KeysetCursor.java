@@ -0,0 +1,63 @@
+package com.loopy.carden.service.pagination;
+
+import com.loopy.carden.dto.CursorPageDto;
+import com.loopy.carden.exception.BadRequestException;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a listing ordered by (timestamp, id): the sort key of the last row of a page.
+ * The next page is read with a seek predicate on that key instead of an OFFSET, so every
+ * page costs the same index range scan however deep it is.
+ *
+ * Encoded for clients as an opaque URL-safe token.
+ */
+public record KeysetCursor(LocalDateTime time, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client token; null or blank means the first page
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Map a slice to a cursor page, taking the next cursor from the key of its last row
+     */
+    public static <E, T> CursorPageDto<T> toPage(Slice<E> slice, Function<E, KeysetCursor> key,
+                                                 Function<E, T> mapper) {
+        List<E> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? key.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        return CursorPageDto.<T>builder()
+                .content(rows.stream().map(mapper).toList())
+                .size(rows.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.loopy.carden.service.queue;
+
+import com.loopy.carden.entity.StudyState.CardState;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Materialized card list of one practice session.
+ *
+ * The list is computed once when the session starts (within the session's limits and
+ * filters) and is authoritative for the session: cards outside it are never served, and
+ * an empty queue means the session is done. Entries are kept in a tree ordered by
+ * (priority class, order time, card id), so the head of the tree is the session's cursor
+ * and a learning card is spliced back in at its new due time after a review. For learning
+ * and review cards the order time is the due date; for new cards it is the creation time,
+ * matching the database ordering.
+ */
+public class StudyQueue {
+
+    /**
+     * Priority classes in serving order
+     */
+    public enum PriorityClass {
+        LEARNING,
+        REVIEW,
+        NEW;
+
+        public static PriorityClass of(CardState cardState) {
+            return switch (cardState) {
+                case LEARNING, RELEARNING -> LEARNING;
+                case REVIEW -> REVIEW;
+                case NEW -> NEW;
+            };
+        }
+    }
+
+    /**
+     * Scheduling key for one card
+     */
+    public record Entry(Long cardId,
+                        Long studyStateId,
+                        Long deckId,
+                        PriorityClass priorityClass,
+                        LocalDateTime orderTime) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing(Entry::priorityClass)
+            .thenComparing(Entry::orderTime)
+            .thenComparing(Entry::cardId);
+
+    private final Long sessionId;
+    private final Long userId;
+    private final Long deckId;
+    private final Long topicId;
+    private final LocalDateTime validUntil;
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> entriesByCard = new HashMap<>();
+
+    /**
+     * @param deckId deck the session is limited to (null = all decks)
+     * @param topicId topic the session is limited to (null = all topics)
+     * @param validUntil time after which the queue is considered stale (abandoned session)
+     */
+    public StudyQueue(Long sessionId, Long userId, Long deckId, Long topicId, LocalDateTime validUntil) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.deckId = deckId;
+        this.topicId = topicId;
+        this.validUntil = validUntil;
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Whether the queue was loaded for exactly this deck/topic scope
+     */
+    public boolean hasScope(Long deckId, Long topicId) {
+        return Objects.equals(this.deckId, deckId) && Objects.equals(this.topicId, topicId);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return now.isAfter(validUntil);
+    }
+
+    /**
+     * Insert an entry, replacing any existing entry for the same card
+     */
+    public synchronized void upsert(Entry entry) {
+        Entry previous = entriesByCard.put(entry.cardId(), entry);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Remove the entry for a card (e.g. when it can no longer be loaded)
+     */
+    public synchronized void remove(Long cardId) {
+        Entry previous = entriesByCard.remove(cardId);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+    }
+
+    /**
+     * Select the next card: due learning cards first, then due review cards, then new cards
+     */
+    public synchronized Optional<Entry> peekNext(LocalDateTime now) {
+        Entry learning = headOf(PriorityClass.LEARNING);
+        if (learning != null && !learning.orderTime().isAfter(now)) {
+            return Optional.of(learning);
+        }
+
+        Entry review = headOf(PriorityClass.REVIEW);
+        if (review != null && !review.orderTime().isAfter(now)) {
+            return Optional.of(review);
+        }
+
+        return Optional.ofNullable(headOf(PriorityClass.NEW));
+    }
+
+    /**
+     * The next cards in serving order (as {@link #peekNext} would return them one after another
+     * if each were answered and left the queue), at most {@code limit}
+     */
+    public synchronized List<Entry> peekAhead(LocalDateTime now, int limit) {
+        List<Entry> ahead = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Entry entry : entries) {
+            if (ahead.size() >= limit) {
+                break;
+            }
+            if (entry.priorityClass() == PriorityClass.NEW || !entry.orderTime().isAfter(now)) {
+                ahead.add(entry);
+            }
+        }
+        return ahead;
+    }
+
+    public synchronized boolean contains(Long cardId) {
+        return entriesByCard.containsKey(cardId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of entries that can be served now (due learning and review cards, and new cards)
+     */
+    public synchronized int countAvailable(LocalDateTime now) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.priorityClass() == PriorityClass.NEW || !entry.orderTime().isAfter(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Entry headOf(PriorityClass priorityClass) {
+        Entry probe = new Entry(Long.MIN_VALUE, null, null, priorityClass, LocalDateTime.MIN);
+        Entry head = entries.ceiling(probe);
+        return head != null && head.priorityClass() == priorityClass ? head : null;
+    }
+}
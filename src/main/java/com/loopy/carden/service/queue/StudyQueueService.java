@@ -0,0 +1,201 @@
+package com.loopy.carden.service.queue;
+
+import com.loopy.carden.dto.practice.PracticeSessionStartDto;
+import com.loopy.carden.entity.StudyState;
+import com.loopy.carden.entity.StudyState.CardState;
+import com.loopy.carden.repository.StudyStateRepository;
+import com.loopy.carden.service.queue.StudyQueue.Entry;
+import com.loopy.carden.service.queue.StudyQueue.PriorityClass;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the materialized card list of each active practice session in memory.
+ *
+ * The list is loaded with a single query when a session starts and updated in place by
+ * every review, so next-card selection does not touch the database for the rest of the
+ * session. Queues are a per-node cache keyed by session id (bounded LRU, with an index by
+ * user for the review path): callers must fall back to the database when no queue is loaded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudyQueueService {
+
+    private final StudyStateRepository studyStateRepository;
+
+    @Value("${carden.practice.queue.max-sessions:10000}")
+    private int maxSessions;
+
+    @Value("${carden.practice.queue.session-ttl-hours:12}")
+    private int sessionTtlHours;
+
+    private final Map<Long, Long> sessionsByUser = new ConcurrentHashMap<>();
+
+    private final Map<Long, StudyQueue> queues = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, StudyQueue> eldest) {
+                    if (size() > maxSessions) {
+                        sessionsByUser.remove(eldest.getValue().getUserId(), eldest.getKey());
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+    /**
+     * Materialize the card list of a practice session, replacing any queue of the user's previous session
+     */
+    @Transactional(readOnly = true)
+    public StudyQueue load(Long sessionId, Long userId, PracticeSessionStartDto options) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> rows = studyStateRepository.findSessionQueueKeys(
+                userId,
+                options.getDeckId(),
+                options.getTopicId(),
+                !Boolean.FALSE.equals(options.getIncludeLearningCards()),
+                !Boolean.FALSE.equals(options.getIncludeReviewCards()),
+                !Boolean.FALSE.equals(options.getIncludeNewCards()),
+                limit(options.getMaxReviewCards(), PracticeSessionStartDto.DEFAULT_MAX_REVIEW_CARDS),
+                limit(options.getMaxNewCards(), PracticeSessionStartDto.DEFAULT_MAX_NEW_CARDS),
+                now);
+
+        StudyQueue queue = new StudyQueue(sessionId, userId, options.getDeckId(), options.getTopicId(),
+                now.plusHours(sessionTtlHours));
+        rows.forEach(row -> queue.upsert(toEntry(row)));
+
+        Long previousSessionId = sessionsByUser.put(userId, sessionId);
+        if (previousSessionId != null && !previousSessionId.equals(sessionId)) {
+            queues.remove(previousSessionId);
+        }
+        queues.put(sessionId, queue);
+
+        log.debug("Loaded queue for session {} of user {}: {} cards", sessionId, userId, queue.size());
+
+        return queue;
+    }
+
+    /**
+     * Get the queue of the user's active session, if loaded on this node
+     */
+    public Optional<StudyQueue> getQueue(Long userId) {
+        Long sessionId = sessionsByUser.get(userId);
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+
+        StudyQueue queue = queues.get(sessionId);
+        if (queue == null || queue.isExpired(LocalDateTime.now())) {
+            evictSession(userId, sessionId);
+            return Optional.empty();
+        }
+        return Optional.of(queue);
+    }
+
+    /**
+     * The user's next cards in serving order, at most {@code limit}: from the active session's
+     * queue when loaded (and, for a scoped request, loaded for the same deck/topic), otherwise
+     * from a one-off load of the candidate cards in scope
+     */
+    @Transactional(readOnly = true)
+    public List<Entry> peekAhead(Long userId, Long deckId, Long topicId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean scoped = deckId != null || topicId != null;
+        Optional<StudyQueue> loaded = getQueue(userId)
+                .filter(queue -> !scoped || queue.hasScope(deckId, topicId));
+        if (loaded.isPresent()) {
+            return loaded.get().peekAhead(now, limit);
+        }
+
+        List<Object[]> rows = studyStateRepository.findSessionQueueKeys(
+                userId, deckId, topicId, true, true, true, limit, limit, now);
+        StudyQueue queue = new StudyQueue(null, userId, deckId, topicId, now);
+        rows.forEach(row -> queue.upsert(toEntry(row)));
+        return queue.peekAhead(now, limit);
+    }
+
+    /**
+     * Re-position a card in its session queue after a review: learning cards are spliced back in
+     * at their new due time, cards that are done for the session are dropped. Cards outside the
+     * session's list are ignored.
+     */
+    public void onReviewed(StudyState state) {
+        Optional<StudyQueue> loaded = getQueue(state.getUser().getId());
+        if (loaded.isEmpty() || !loaded.get().contains(state.getCard().getId())) {
+            return;
+        }
+
+        StudyQueue queue = loaded.get();
+        PriorityClass priorityClass = PriorityClass.of(state.getCardState());
+        if (priorityClass != PriorityClass.LEARNING && state.getDueDate().isAfter(LocalDateTime.now())) {
+            queue.remove(state.getCard().getId());
+            return;
+        }
+
+        queue.upsert(new Entry(
+                state.getCard().getId(),
+                state.getId(),
+                state.getDeck().getId(),
+                priorityClass,
+                orderTime(state.getCardState(), state.getDueDate(), state.getCreatedAt())));
+    }
+
+    /**
+     * Drop the queue of the user's session (e.g. when the session ends)
+     */
+    public void evict(Long userId) {
+        Long sessionId = sessionsByUser.get(userId);
+        if (sessionId != null) {
+            evictSession(userId, sessionId);
+        }
+    }
+
+    private void evictSession(Long userId, Long sessionId) {
+        sessionsByUser.remove(userId, sessionId);
+        queues.remove(sessionId);
+    }
+
+    /**
+     * Session limit as given, or the default when the client sent null (an explicit 0 still excludes the class)
+     */
+    private static int limit(Integer requested, int defaultLimit) {
+        return requested != null ? Math.max(0, requested) : defaultLimit;
+    }
+
+    private Entry toEntry(Object[] row) {
+        CardState cardState = CardState.valueOf((String) row[3]);
+        return new Entry(
+                ((Number) row[1]).longValue(),
+                ((Number) row[0]).longValue(),
+                ((Number) row[2]).longValue(),
+                PriorityClass.of(cardState),
+                orderTime(cardState, toLocalDateTime(row[4]), toLocalDateTime(row[5])));
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private LocalDateTime orderTime(CardState cardState, LocalDateTime dueDate, LocalDateTime createdAt) {
+        if (cardState == CardState.NEW && createdAt != null) {
+            return createdAt;
+        }
+        return dueDate;
+    }
+}
@@ -0,0 +1,24 @@
+package com.loopy.carden.service.reviewlog;
+
+import com.loopy.carden.entity.StudyState.CardState;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only review log: a single review and the state transition it caused
+ */
+public record ReviewLogEntry(Long userId,
+                             Long cardId,
+                             Long deckId,
+                             LocalDateTime reviewedAt,
+                             int grade,
+                             CardState previousState,
+                             CardState newState,
+                             int previousIntervalDays,
+                             int newIntervalDays,
+                             double previousEaseFactor,
+                             double newEaseFactor,
+                             LocalDateTime previousDueDate,
+                             LocalDateTime newDueDate,
+                             Integer responseTimeMs) {
+}
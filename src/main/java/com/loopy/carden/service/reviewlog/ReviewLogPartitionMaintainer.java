@@ -0,0 +1,49 @@
+package com.loopy.carden.service.reviewlog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Creates monthly review_logs partitions ahead of time, so rows never land in the default
+ * partition (a non-empty default partition blocks creating the partition for its range).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewLogPartitionMaintainer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${carden.review-log.partition-months-ahead:2}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Runs daily; creating an existing partition is a no-op
+     */
+    @Scheduled(cron = "${carden.review-log.partition-cron:0 0 3 * * *}")
+    public void ensurePartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        try {
+            for (int i = 0; i <= monthsAhead; i++) {
+                jdbcTemplate.queryForList("SELECT create_review_logs_partition(?)", Date.valueOf(month.plusMonths(i)));
+            }
+            log.debug("Ensured review_logs partitions from {} for {} months ahead", month, monthsAhead);
+        } catch (RuntimeException e) {
+            log.error("Failed to create review_logs partitions", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.loopy.carden.service.reviewlog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched writer for the review_logs table.
+ *
+ * Reviews are appended to a bounded in-memory buffer once their transaction commits and a
+ * single background thread drains the buffer into multi-row INSERTs (JDBC batches rewritten
+ * by the driver with reWriteBatchedInserts). The request thread never waits on the log: when
+ * the buffer is full the entry is dropped and counted instead of blocking the review.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO review_logs (user_id, card_id, deck_id, reviewed_at, grade, " +
+            "previous_state, new_state, previous_interval_days, new_interval_days, previous_ease_factor, " +
+            "new_ease_factor, previous_due_date, new_due_date, response_time_ms) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${carden.review-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${carden.review-log.buffer-capacity:50000}")
+    private int bufferCapacity;
+
+    @Value("${carden.review-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${carden.review-log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private BlockingQueue<ReviewLogEntry> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        if (!enabled) {
+            log.info("Review log writer disabled");
+            return;
+        }
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "review-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Append a review to the log. Inside a transaction the entry is buffered only after commit,
+     * so rolled-back reviews are never logged.
+     */
+    public void append(ReviewLogEntry entry) {
+        if (!running) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(entry);
+                }
+            });
+        } else {
+            offer(entry);
+        }
+    }
+
+    /**
+     * Number of entries dropped because the buffer was full or a batch failed to write
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) {
+            return;
+        }
+
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Flush whatever the background thread did not get to
+        drainAndWrite();
+        log.info("Review log writer stopped ({} entries dropped in total)", droppedCount.get());
+    }
+
+    private void offer(ReviewLogEntry entry) {
+        if (!buffer.offer(entry)) {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped == 1 || dropped % 1000 == 0) {
+                log.warn("Review log buffer full (capacity {}), {} entries dropped so far", bufferCapacity, dropped);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<ReviewLogEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ReviewLogEntry first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in review log writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainAndWrite() {
+        List<ReviewLogEntry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<ReviewLogEntry> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setLong(1, entry.userId());
+                ps.setLong(2, entry.cardId());
+                ps.setLong(3, entry.deckId());
+                ps.setTimestamp(4, Timestamp.valueOf(entry.reviewedAt()));
+                ps.setInt(5, entry.grade());
+                ps.setString(6, entry.previousState().name());
+                ps.setString(7, entry.newState().name());
+                ps.setInt(8, entry.previousIntervalDays());
+                ps.setInt(9, entry.newIntervalDays());
+                ps.setDouble(10, entry.previousEaseFactor());
+                ps.setDouble(11, entry.newEaseFactor());
+                if (entry.previousDueDate() != null) {
+                    ps.setTimestamp(12, Timestamp.valueOf(entry.previousDueDate()));
+                } else {
+                    ps.setNull(12, Types.TIMESTAMP);
+                }
+                ps.setTimestamp(13, Timestamp.valueOf(entry.newDueDate()));
+                if (entry.responseTimeMs() != null) {
+                    ps.setInt(14, entry.responseTimeMs());
+                } else {
+                    ps.setNull(14, Types.INTEGER);
+                }
+            });
+            log.debug("Wrote {} review log entries", batch.size());
+        } catch (RuntimeException e) {
+            droppedCount.addAndGet(batch.size());
+            log.error("Failed to write {} review log entries", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.loopy.carden.service.rollup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-user, per-day study totals (user_daily_stats), so performance charts read one small row
+ * per day instead of loading every review session in the range.
+ *
+ * A session counts on the local date it started. Totals are additive and maintained with deltas
+ * in the transaction that changes the session: +1 session when it starts, card counts when
+ * reviews are recorded (also by the single-statement review write in StudyStateRepository),
+ * minutes whenever its duration is set. Accuracy is derived as correct / studied cards.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserDailyStatsService {
+
+    private static final String UPSERT_SQL = "INSERT INTO user_daily_stats (user_id, stat_date, session_count, " +
+            "cards_studied, cards_correct, new_cards, study_minutes, updated_at) " +
+            "VALUES (:userId, :statDate, :sessions, :cardsStudied, :cardsCorrect, :newCards, :studyMinutes, :now) " +
+            "ON CONFLICT (user_id, stat_date) DO UPDATE SET " +
+            "session_count = user_daily_stats.session_count + EXCLUDED.session_count, " +
+            "cards_studied = user_daily_stats.cards_studied + EXCLUDED.cards_studied, " +
+            "cards_correct = user_daily_stats.cards_correct + EXCLUDED.cards_correct, " +
+            "new_cards = user_daily_stats.new_cards + EXCLUDED.new_cards, " +
+            "study_minutes = user_daily_stats.study_minutes + EXCLUDED.study_minutes, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String RANGE_SQL = "SELECT stat_date, session_count, cards_studied, cards_correct, " +
+            "new_cards, study_minutes FROM user_daily_stats " +
+            "WHERE user_id = :userId AND stat_date >= :fromDate AND stat_date <= :toDate " +
+            "ORDER BY stat_date";
+
+    private static final RowMapper<DailyStats> DAILY_STATS = (rs, i) -> new DailyStats(
+            rs.getDate("stat_date").toLocalDate(),
+            rs.getInt("session_count"),
+            rs.getInt("cards_studied"),
+            rs.getInt("cards_correct"),
+            rs.getInt("new_cards"),
+            rs.getInt("study_minutes"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Study totals of one day
+     */
+    public record DailyStats(LocalDate date, int sessionCount, int cardsStudied, int cardsCorrect,
+                             int newCards, int studyMinutes) {
+
+        /**
+         * Correct answers in percent of cards studied (0 without cards)
+         */
+        public double accuracy() {
+            return cardsStudied > 0 ? cardsCorrect * 100.0 / cardsStudied : 0.0;
+        }
+    }
+
+    /**
+     * Days with study activity from {@code from} to {@code to} (both inclusive), in date order
+     */
+    public List<DailyStats> getRange(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(RANGE_SQL, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("fromDate", Date.valueOf(from))
+                .addValue("toDate", Date.valueOf(to)), DAILY_STATS);
+    }
+
+    /**
+     * Add to the totals of the day a session started on
+     */
+    public void add(Long userId, LocalDateTime sessionDate, int sessions, int cardsStudied, int cardsCorrect,
+                    int newCards, int studyMinutes) {
+        if (sessions == 0 && cardsStudied == 0 && cardsCorrect == 0 && newCards == 0 && studyMinutes == 0) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("statDate", Date.valueOf(sessionDate.toLocalDate()))
+                .addValue("sessions", sessions)
+                .addValue("cardsStudied", cardsStudied)
+                .addValue("cardsCorrect", cardsCorrect)
+                .addValue("newCards", newCards)
+                .addValue("studyMinutes", studyMinutes)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+}
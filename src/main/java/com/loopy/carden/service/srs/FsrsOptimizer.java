@@ -0,0 +1,270 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fits FSRS weights to a user's review history (review_logs).
+ *
+ * Every card's history is replayed through the FSRS memory model; each review that follows
+ * the previous one by at least a day is a prediction (recall probability vs. recalled or not)
+ * and the optimizer minimizes the mean log-loss over those predictions with Adam. Gradients
+ * are central finite differences: all 2 x 17 perturbed weight vectors are evaluated in one
+ * pass over the history, which is split by card ranges over a dedicated fork/join pool.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FsrsOptimizer {
+
+    private static final String HISTORY_SQL = "SELECT card_id, reviewed_at, grade FROM review_logs " +
+            "WHERE user_id = ? ORDER BY card_id, reviewed_at";
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final int CARDS_PER_TASK = 256;
+    private static final double EPSILON = 1e-6;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${carden.fsrs.optimizer.min-reviews:400}")
+    private int minReviews;
+
+    @Value("${carden.fsrs.optimizer.iterations:100}")
+    private int iterations;
+
+    @Value("${carden.fsrs.optimizer.learning-rate:0.04}")
+    private double learningRate;
+
+    @Value("${carden.fsrs.optimizer.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    /**
+     * Outcome of an optimization run
+     */
+    public static class Result {
+        public final double[] weights;
+        public final int reviewCount;
+        public final double logLoss;
+        public final double defaultLogLoss;
+
+        Result(double[] weights, int reviewCount, double logLoss, double defaultLogLoss) {
+            this.weights = weights;
+            this.reviewCount = reviewCount;
+            this.logLoss = logLoss;
+            this.defaultLogLoss = defaultLogLoss;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Fit weights to the user's review history, starting from the defaults. Falls back to the
+     * default weights when fitting does not improve on them.
+     */
+    public Result optimize(Long userId) {
+        History history = loadHistory(userId);
+        if (history.predictionCount < minReviews) {
+            throw new BadRequestException("Not enough review history to optimize FSRS parameters: "
+                    + history.predictionCount + " of " + minReviews + " reviews");
+        }
+
+        long start = System.nanoTime();
+        int n = FsrsScheduler.WEIGHT_COUNT;
+        double[] w = FsrsScheduler.DEFAULT_WEIGHTS.clone();
+        double[] m = new double[n];
+        double[] v = new double[n];
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+
+        double defaultLoss = meanLoss(history, new double[][]{w})[0];
+
+        for (int t = 1; t <= iterations; t++) {
+            // Row 0: current weights, rows 2i+1 / 2i+2: weight i nudged up / down
+            double[][] candidates = new double[2 * n + 1][];
+            double[] steps = new double[n];
+            candidates[0] = w;
+            for (int i = 0; i < n; i++) {
+                steps[i] = 1e-4 * Math.max(1, Math.abs(w[i]));
+                candidates[2 * i + 1] = w.clone();
+                candidates[2 * i + 1][i] += steps[i];
+                candidates[2 * i + 2] = w.clone();
+                candidates[2 * i + 2][i] -= steps[i];
+            }
+
+            double[] losses = meanLoss(history, candidates);
+
+            double[] next = w.clone();
+            for (int i = 0; i < n; i++) {
+                double gradient = (losses[2 * i + 1] - losses[2 * i + 2]) / (2 * steps[i]);
+                m[i] = beta1 * m[i] + (1 - beta1) * gradient;
+                v[i] = beta2 * v[i] + (1 - beta2) * gradient * gradient;
+                double mHat = m[i] / (1 - Math.pow(beta1, t));
+                double vHat = v[i] / (1 - Math.pow(beta2, t));
+                next[i] = clamp(w[i] - learningRate * mHat / (Math.sqrt(vHat) + 1e-8), i);
+            }
+            w = next;
+        }
+
+        double loss = meanLoss(history, new double[][]{w})[0];
+        log.info("Optimized FSRS weights for user {} on {} reviews in {} ms: log-loss {} (defaults {})",
+                userId, history.predictionCount, (System.nanoTime() - start) / 1_000_000, loss, defaultLoss);
+
+        if (!(loss < defaultLoss)) {
+            return new Result(FsrsScheduler.DEFAULT_WEIGHTS.clone(), history.predictionCount, defaultLoss, defaultLoss);
+        }
+        return new Result(w, history.predictionCount, loss, defaultLoss);
+    }
+
+    private static double clamp(double weight, int index) {
+        return Math.max(FsrsScheduler.MIN_WEIGHTS[index], Math.min(FsrsScheduler.MAX_WEIGHTS[index], weight));
+    }
+
+    private double[] meanLoss(History history, double[][] candidates) {
+        double[] sums = pool.invoke(new LossTask(history, candidates, 0, history.cardCount));
+        for (int k = 0; k < sums.length; k++) {
+            sums[k] /= history.predictionCount;
+        }
+        return sums;
+    }
+
+    /**
+     * Review history as flat arrays, grouped by card: reviews of card c are at
+     * [cardStart[c], cardStart[c + 1])
+     */
+    private static class History {
+        int cardCount;
+        int reviewCount;
+        int predictionCount;
+        int[] cardStart = new int[64];
+        long[] times = new long[1024];
+        byte[] ratings = new byte[1024];
+    }
+
+    private History loadHistory(Long userId) {
+        History history = new History();
+        long[] lastCardId = {Long.MIN_VALUE};
+
+        jdbcTemplate.query(HISTORY_SQL, rs -> {
+            long cardId = rs.getLong(1);
+            long time = rs.getTimestamp(2).toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+            int rating = rs.getInt(3) + 1;
+
+            int index = history.reviewCount;
+            if (cardId != lastCardId[0]) {
+                lastCardId[0] = cardId;
+                if (history.cardCount + 1 >= history.cardStart.length) {
+                    history.cardStart = Arrays.copyOf(history.cardStart, history.cardStart.length * 2);
+                }
+                history.cardStart[history.cardCount++] = index;
+            } else if (time - history.times[index - 1] >= SECONDS_PER_DAY) {
+                history.predictionCount++;
+            }
+
+            if (index == history.times.length) {
+                history.times = Arrays.copyOf(history.times, index * 2);
+                history.ratings = Arrays.copyOf(history.ratings, index * 2);
+            }
+            history.times[index] = time;
+            history.ratings[index] = (byte) rating;
+            history.reviewCount++;
+        }, userId);
+
+        history.cardStart[history.cardCount] = history.reviewCount;
+        return history;
+    }
+
+    /**
+     * Summed log-loss of every candidate weight vector over a range of cards
+     */
+    private static class LossTask extends RecursiveTask<double[]> {
+        private final History history;
+        private final double[][] candidates;
+        private final int fromCard;
+        private final int toCard;
+
+        LossTask(History history, double[][] candidates, int fromCard, int toCard) {
+            this.history = history;
+            this.candidates = candidates;
+            this.fromCard = fromCard;
+            this.toCard = toCard;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (toCard - fromCard > CARDS_PER_TASK) {
+                int mid = (fromCard + toCard) >>> 1;
+                LossTask left = new LossTask(history, candidates, fromCard, mid);
+                left.fork();
+                double[] right = new LossTask(history, candidates, mid, toCard).compute();
+                double[] sums = left.join();
+                for (int k = 0; k < sums.length; k++) {
+                    sums[k] += right[k];
+                }
+                return sums;
+            }
+
+            double[] sums = new double[candidates.length];
+            for (int k = 0; k < candidates.length; k++) {
+                double[] w = candidates[k];
+                double sum = 0;
+                for (int c = fromCard; c < toCard; c++) {
+                    sum += cardLoss(w, history.cardStart[c], history.cardStart[c + 1]);
+                }
+                sums[k] = sum;
+            }
+            return sums;
+        }
+
+        /**
+         * Replay one card's reviews the same way {@link FsrsScheduler} updates the memory state
+         */
+        private double cardLoss(double[] w, int from, int to) {
+            long[] times = history.times;
+            byte[] ratings = history.ratings;
+
+            double stability = FsrsScheduler.initialStability(w, ratings[from]);
+            double difficulty = FsrsScheduler.initialDifficulty(w, ratings[from]);
+            double loss = 0;
+
+            for (int i = from + 1; i < to; i++) {
+                double elapsedDays = (times[i] - times[i - 1]) / (double) SECONDS_PER_DAY;
+                if (elapsedDays < 1) {
+                    continue;
+                }
+
+                int rating = ratings[i];
+                double r = Math.min(1 - EPSILON, Math.max(EPSILON, FsrsScheduler.retrievability(elapsedDays, stability)));
+                loss -= rating > 1 ? Math.log(r) : Math.log(1 - r);
+
+                double nextStability = rating == 1
+                        ? FsrsScheduler.nextForgetStability(w, difficulty, stability, r)
+                        : FsrsScheduler.nextRecallStability(w, difficulty, stability, r, rating);
+                difficulty = FsrsScheduler.nextDifficulty(w, difficulty, rating);
+                stability = nextStability;
+            }
+            return loss;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * FSRS (Free Spaced Repetition Scheduler, v4.5 memory model) scheduling kernel.
+ *
+ * Each card carries a memory state: stability S (days until recall probability drops to 90%)
+ * and difficulty D (1-10). Intervals are chosen so that predicted recall at the due date equals
+ * the desired retention, which lets mature cards go much longer than SM-2's multiplier chain.
+ * Same-day reviews (learning steps) do not change the memory state.
+ *
+ * Instances are immutable (weights and retention of one user) and safe to share. The model
+ * functions are static so {@link FsrsOptimizer} can evaluate them with candidate weights.
+ */
+public final class FsrsScheduler implements SrsScheduler {
+
+    public static final int WEIGHT_COUNT = 17;
+
+    /**
+     * FSRS-4.5 default weights, used until a user's weights are fitted
+     */
+    public static final double[] DEFAULT_WEIGHTS = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755
+    };
+
+    /**
+     * Lower and upper bound of every weight (keeps the optimizer in the valid region)
+     */
+    static final double[] MIN_WEIGHTS = {
+            0.1, 0.1, 0.1, 0.1, 1.0, 0.1, 0.1, 0.0, 0.0, 0.0, 0.01, 0.5, 0.01, 0.01, 0.01, 0.0, 1.0
+    };
+    static final double[] MAX_WEIGHTS = {
+            100.0, 100.0, 100.0, 100.0, 10.0, 5.0, 5.0, 0.75, 4.0, 0.8, 3.0, 5.0, 0.2, 0.9, 2.0, 1.0, 6.0
+    };
+
+    public static final double DEFAULT_DESIRED_RETENTION = 0.9;
+    public static final int MAX_INTERVAL_DAYS = 36500;
+
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81.0; // R(S, S) = 0.9
+    private static final double MIN_STABILITY = 0.1;
+    private static final double INTERVAL_FUZZ = 0.05;
+
+    // Same-day learning and relearning steps (in minutes); day-scale spacing is left to the model
+    private static final int[] LEARNING_STEPS = {1, 10};
+
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final double[] weights;
+    private final double desiredRetention;
+    private final double intervalModifier;
+
+    public FsrsScheduler(double[] weights, double desiredRetention) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("FSRS needs " + WEIGHT_COUNT + " weights, got: " + weights.length);
+        }
+        this.weights = weights.clone();
+        this.desiredRetention = desiredRetention;
+        this.intervalModifier = (Math.pow(desiredRetention, 1 / DECAY) - 1) / FACTOR;
+    }
+
+    public static FsrsScheduler withDefaults() {
+        return new FsrsScheduler(DEFAULT_WEIGHTS, DEFAULT_DESIRED_RETENTION);
+    }
+
+    public double getDesiredRetention() {
+        return desiredRetention;
+    }
+
+    @Override
+    public SrsAlgorithm algorithm() {
+        return SrsAlgorithm.FSRS;
+    }
+
+    @Override
+    public void review(SrsState state, int grade, long reviewTime, RandomGenerator random) {
+        long previousReview = state.lastReviewAt;
+        SrsScheduler.recordReview(state, grade, reviewTime);
+
+        int rating = grade + 1; // FSRS ratings are 1 (again) to 4 (easy)
+        updateMemoryState(state, rating, previousReview, reviewTime);
+
+        if (state.cardState == CardState.NEW || state.isLearning()) {
+            processLearningCard(state, grade, reviewTime, random);
+        } else {
+            processReviewCard(state, grade, reviewTime, random);
+        }
+    }
+
+    /**
+     * Update stability and difficulty for a review
+     */
+    private void updateMemoryState(SrsState state, int rating, long previousReview, long reviewTime) {
+        if (state.stability <= 0 || state.difficulty <= 0) {
+            if (state.cardState == CardState.NEW || previousReview == SrsState.NO_TIME) {
+                state.stability = initialStability(weights, rating);
+                state.difficulty = initialDifficulty(weights, rating);
+                return;
+            }
+            // Card scheduled by SM-2 so far: start from its current schedule
+            state.stability = Math.max(MIN_STABILITY, state.intervalDays);
+            state.difficulty = difficultyFromEase(state.easeFactor);
+        }
+
+        double elapsedDays = (reviewTime - previousReview) / (double) SECONDS_PER_DAY;
+        if (elapsedDays < 1) {
+            return; // Same-day review
+        }
+
+        double retrievability = retrievability(elapsedDays, state.stability);
+        double stability = rating == 1
+                ? nextForgetStability(weights, state.difficulty, state.stability, retrievability)
+                : nextRecallStability(weights, state.difficulty, state.stability, retrievability, rating);
+        state.difficulty = nextDifficulty(weights, state.difficulty, rating);
+        state.stability = stability;
+    }
+
+    /**
+     * Learning and relearning: short same-day steps, then graduate with the model's interval
+     */
+    private void processLearningCard(SrsState state, int grade, long reviewTime, RandomGenerator random) {
+        int currentStep = Math.max(0, Math.min(state.currentLearningStep, LEARNING_STEPS.length - 1));
+        CardState learningState = state.cardState == CardState.RELEARNING ? CardState.RELEARNING : CardState.LEARNING;
+
+        switch (grade) {
+            case 0: // Again - restart steps
+                state.cardState = learningState;
+                currentStep = 0;
+                state.dueAt = reviewTime + LEARNING_STEPS[currentStep] * SECONDS_PER_MINUTE;
+                state.consecutiveFailures++;
+                break;
+
+            case 1: // Hard - repeat current step
+                state.cardState = learningState;
+                state.dueAt = reviewTime + LEARNING_STEPS[currentStep] * SECONDS_PER_MINUTE;
+                break;
+
+            case 2: // Good - next step or graduate
+                if (currentStep < LEARNING_STEPS.length - 1) {
+                    state.cardState = learningState;
+                    currentStep++;
+                    state.dueAt = reviewTime + LEARNING_STEPS[currentStep] * SECONDS_PER_MINUTE;
+                } else {
+                    graduate(state, reviewTime, random);
+                }
+                state.consecutiveFailures = 0;
+                break;
+
+            default: // Easy - graduate immediately
+                graduate(state, reviewTime, random);
+                state.consecutiveFailures = 0;
+                break;
+        }
+
+        state.currentLearningStep = currentStep;
+    }
+
+    /**
+     * Review cards: lapse into relearning on Again, otherwise schedule from the new stability
+     */
+    private void processReviewCard(SrsState state, int grade, long reviewTime, RandomGenerator random) {
+        if (grade == 0) {
+            state.cardState = CardState.RELEARNING;
+            state.currentLearningStep = 0;
+            state.dueAt = reviewTime + LEARNING_STEPS[0] * SECONDS_PER_MINUTE;
+            state.consecutiveFailures++;
+            return;
+        }
+
+        schedule(state, reviewTime, random);
+        state.repetitionCount++;
+        if (grade >= 2) {
+            state.consecutiveFailures = 0;
+        }
+    }
+
+    private void graduate(SrsState state, long reviewTime, RandomGenerator random) {
+        if (state.cardState != CardState.RELEARNING) {
+            state.repetitionCount = 1;
+            state.graduatedAt = reviewTime;
+        }
+        state.cardState = CardState.REVIEW;
+        schedule(state, reviewTime, random);
+    }
+
+    private void schedule(SrsState state, long reviewTime, RandomGenerator random) {
+        int interval = nextInterval(state.stability);
+
+        // Apply fuzz to prevent card synchronization (±5%)
+        if (interval > 2) {
+            double fuzzAmount = (random.nextDouble() * 2 - 1) * interval * INTERVAL_FUZZ;
+            interval = Math.max(1, (int) (interval + fuzzAmount));
+        }
+        interval = Math.min(interval, MAX_INTERVAL_DAYS);
+
+        state.intervalDays = interval;
+        state.dueAt = reviewTime + interval * SECONDS_PER_DAY;
+    }
+
+    /**
+     * Interval (days) at which predicted recall equals the desired retention
+     */
+    int nextInterval(double stability) {
+        long interval = Math.round(stability * intervalModifier);
+        return (int) Math.max(1, Math.min(interval, MAX_INTERVAL_DAYS));
+    }
+
+    // ===== FSRS-4.5 model =====
+
+    /**
+     * Probability of recall after {@code elapsedDays} for a memory of the given stability
+     */
+    public static double retrievability(double elapsedDays, double stability) {
+        return Math.pow(1 + FACTOR * elapsedDays / stability, DECAY);
+    }
+
+    public static double initialStability(double[] w, int rating) {
+        return Math.max(MIN_STABILITY, w[rating - 1]);
+    }
+
+    public static double initialDifficulty(double[] w, int rating) {
+        return clampDifficulty(w[4] - (rating - 3) * w[5]);
+    }
+
+    public static double nextDifficulty(double[] w, double difficulty, int rating) {
+        double next = difficulty - w[6] * (rating - 3);
+        // Mean reversion towards the initial difficulty of a Good rating
+        return clampDifficulty(w[7] * w[4] + (1 - w[7]) * next);
+    }
+
+    public static double nextRecallStability(double[] w, double difficulty, double stability,
+                                             double retrievability, int rating) {
+        double hardPenalty = rating == 2 ? w[15] : 1;
+        double easyBonus = rating == 4 ? w[16] : 1;
+        return stability * (1 + Math.exp(w[8])
+                * (11 - difficulty)
+                * Math.pow(stability, -w[9])
+                * (Math.exp((1 - retrievability) * w[10]) - 1)
+                * hardPenalty
+                * easyBonus);
+    }
+
+    public static double nextForgetStability(double[] w, double difficulty, double stability, double retrievability) {
+        double next = w[11]
+                * Math.pow(difficulty, -w[12])
+                * (Math.pow(stability + 1, w[13]) - 1)
+                * Math.exp((1 - retrievability) * w[14]);
+        return Math.max(MIN_STABILITY, Math.min(next, stability));
+    }
+
+    private static double clampDifficulty(double difficulty) {
+        return Math.max(1, Math.min(10, difficulty));
+    }
+
+    /**
+     * Map an SM-2 ease factor (1.3-3.0) onto FSRS difficulty (10-1)
+     */
+    private static double difficultyFromEase(double easeFactor) {
+        double ratio = (easeFactor - Sm2Scheduler.MIN_EASE_FACTOR)
+                / (Sm2Scheduler.MAX_EASE_FACTOR - Sm2Scheduler.MIN_EASE_FACTOR);
+        return clampDifficulty(10 - ratio * 9);
+    }
+}
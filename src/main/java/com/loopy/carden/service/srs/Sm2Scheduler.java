@@ -0,0 +1,191 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+import org.springframework.stereotype.Component;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Stateless SM-2 (Anki-style) scheduling kernel with learning phases.
+ *
+ * Works on {@link SrsState} only: no entities, no repositories and no allocation per review.
+ */
+@Component
+public class Sm2Scheduler implements SrsScheduler {
+
+    // SRS Algorithm Constants
+    public static final double INITIAL_EASE_FACTOR = 2.5;
+    public static final double MIN_EASE_FACTOR = 1.3;
+    public static final double MAX_EASE_FACTOR = 3.0;
+    public static final int MAX_INTERVAL_DAYS = 365;
+
+    // Learning phases (in minutes): 1min, 10min, 1day
+    private static final int[] LEARNING_STEPS = {1, 10, 1440};
+    private static final int GRADUATION_INTERVAL = 1; // days
+    private static final int EASY_GRADUATION_INTERVAL = 4; // days
+
+    // Review multipliers
+    private static final double HARD_MULTIPLIER = 1.2;
+    private static final double EASY_MULTIPLIER = 1.3;
+    private static final double INTERVAL_FUZZ = 0.05; // 5% fuzz to prevent synchronization
+
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    @Override
+    public SrsAlgorithm algorithm() {
+        return SrsAlgorithm.SM2;
+    }
+
+    @Override
+    public void review(SrsState state, int grade, long reviewTime, RandomGenerator random) {
+        SrsScheduler.recordReview(state, grade, reviewTime);
+
+        if (state.cardState == CardState.NEW || state.isLearning()) {
+            processLearningCard(state, grade, reviewTime);
+        } else {
+            processReviewCard(state, grade, reviewTime);
+        }
+
+        applyIntervalConstraints(state, random);
+    }
+
+    /**
+     * Process learning phase cards (new cards and failed review cards)
+     */
+    private void processLearningCard(SrsState state, int grade, long reviewTime) {
+        int currentStep = state.currentLearningStep;
+
+        switch (grade) {
+            case 0: // Again - restart learning
+                state.cardState = CardState.LEARNING;
+                currentStep = 0;
+                setLearningInterval(state, currentStep, reviewTime);
+                decreaseEaseFactor(state, 0.2);
+                state.consecutiveFailures++;
+                break;
+
+            case 1: // Hard - repeat current step
+                state.cardState = CardState.LEARNING;
+                setLearningInterval(state, currentStep, reviewTime);
+                decreaseEaseFactor(state, 0.15);
+                break;
+
+            case 2: // Good - advance to next step
+                state.cardState = CardState.LEARNING;
+                if (currentStep < LEARNING_STEPS.length - 1) {
+                    currentStep++;
+                    setLearningInterval(state, currentStep, reviewTime);
+                } else {
+                    // Graduate to review
+                    graduateCard(state, GRADUATION_INTERVAL, reviewTime);
+                }
+                state.consecutiveFailures = 0;
+                break;
+
+            default: // Easy - graduate immediately
+                graduateCard(state, EASY_GRADUATION_INTERVAL, reviewTime);
+                increaseEaseFactor(state, 0.15);
+                state.consecutiveFailures = 0;
+                break;
+        }
+
+        state.currentLearningStep = currentStep;
+    }
+
+    /**
+     * Process review phase cards (graduated cards)
+     */
+    private void processReviewCard(SrsState state, int grade, long reviewTime) {
+        double easeFactor = state.easeFactor;
+        int currentInterval = state.intervalDays;
+
+        switch (grade) {
+            case 0: // Again - send back to learning
+                state.cardState = CardState.RELEARNING;
+                setLearningInterval(state, 0, reviewTime);
+                decreaseEaseFactor(state, 0.2);
+                state.consecutiveFailures++;
+                state.currentLearningStep = 0;
+                break;
+
+            case 1: // Hard
+                int hardInterval = Math.max(1, (int) (currentInterval * HARD_MULTIPLIER));
+                state.intervalDays = hardInterval;
+                state.dueAt = reviewTime + hardInterval * SECONDS_PER_DAY;
+                decreaseEaseFactor(state, 0.15);
+                break;
+
+            case 2: // Good
+                int goodInterval = Math.max(1, (int) (currentInterval * easeFactor));
+                state.intervalDays = goodInterval;
+                state.dueAt = reviewTime + goodInterval * SECONDS_PER_DAY;
+                state.repetitionCount++;
+                state.consecutiveFailures = 0;
+                break;
+
+            default: // Easy
+                int easyInterval = Math.max(1, (int) (currentInterval * easeFactor * EASY_MULTIPLIER));
+                state.intervalDays = easyInterval;
+                state.dueAt = reviewTime + easyInterval * SECONDS_PER_DAY;
+                state.repetitionCount++;
+                increaseEaseFactor(state, 0.1);
+                state.consecutiveFailures = 0;
+                break;
+        }
+    }
+
+    /**
+     * Graduate a card from learning to review phase
+     */
+    private void graduateCard(SrsState state, int intervalDays, long reviewTime) {
+        state.cardState = CardState.REVIEW;
+        state.intervalDays = intervalDays;
+        state.dueAt = reviewTime + intervalDays * SECONDS_PER_DAY;
+        state.repetitionCount = 1;
+        state.graduatedAt = reviewTime;
+    }
+
+    /**
+     * Set due time for a learning step
+     */
+    private void setLearningInterval(SrsState state, int stepIndex, long reviewTime) {
+        state.dueAt = reviewTime + LEARNING_STEPS[stepIndex] * SECONDS_PER_MINUTE;
+    }
+
+    /**
+     * Apply interval constraints and fuzz
+     */
+    private void applyIntervalConstraints(SrsState state, RandomGenerator random) {
+        if (state.cardState != CardState.REVIEW) {
+            return;
+        }
+
+        int interval = state.intervalDays;
+
+        // Apply fuzz to prevent card synchronization (±5%)
+        if (interval > 2) {
+            double fuzzRange = interval * INTERVAL_FUZZ;
+            double fuzzAmount = (random.nextDouble() * 2 - 1) * fuzzRange;
+            interval = Math.max(1, (int) (interval + fuzzAmount));
+        }
+
+        // Respect maximum interval
+        interval = Math.min(interval, MAX_INTERVAL_DAYS);
+
+        state.intervalDays = interval;
+        // Recalculate due date with fuzzed interval
+        if (state.lastReviewAt != SrsState.NO_TIME) {
+            state.dueAt = state.lastReviewAt + interval * SECONDS_PER_DAY;
+        }
+    }
+
+    private void increaseEaseFactor(SrsState state, double amount) {
+        state.easeFactor = Math.min(MAX_EASE_FACTOR, state.easeFactor + amount);
+    }
+
+    private void decreaseEaseFactor(SrsState state, double amount) {
+        state.easeFactor = Math.max(MIN_EASE_FACTOR, state.easeFactor - amount);
+    }
+}
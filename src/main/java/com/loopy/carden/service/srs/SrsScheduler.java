@@ -0,0 +1,53 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Scheduling kernel: applies one review to an {@link SrsState} in place.
+ *
+ * Implementations are stateless apart from immutable configuration, work on primitives only
+ * and take randomness (interval fuzz) from the caller, so they can be shared between threads
+ * and reused for bulk rescheduling, simulation and forecasting without loading entities.
+ */
+public interface SrsScheduler {
+
+    int LEECH_THRESHOLD = 8;
+
+    SrsAlgorithm algorithm();
+
+    /**
+     * Apply one review to a state in place
+     *
+     * @param state Scheduling state, updated in place
+     * @param grade 0 (again) to 3 (easy)
+     * @param reviewTime Review time in local epoch seconds
+     * @param random Source for interval fuzz
+     */
+    void review(SrsState state, int grade, long reviewTime, RandomGenerator random);
+
+    /**
+     * Review statistics shared by all algorithms; leech detection uses the failure streak
+     * before this review
+     */
+    static void recordReview(SrsState state, int grade, long reviewTime) {
+        if (grade < 0 || grade > 3) {
+            throw new IllegalArgumentException("Grade must be between 0 and 3, got: " + grade);
+        }
+
+        state.lastReviewAt = reviewTime;
+        state.lastScore = grade;
+        state.totalReviews++;
+
+        if (grade >= 2) { // Grade 2 (Good) and 3 (Easy) are correct
+            state.correctReviews++;
+        }
+
+        state.accuracyRate = (double) state.correctReviews / state.totalReviews * 100.0;
+
+        if (state.consecutiveFailures >= LEECH_THRESHOLD) {
+            state.leech = true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.loopy.carden.service.srs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+import com.loopy.carden.entity.UserFsrsParameters;
+import com.loopy.carden.repository.UserFsrsParametersRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Picks the scheduling kernel for a review.
+ *
+ * SM-2 has no per-user configuration and is shared. FSRS schedulers carry the user's fitted
+ * weights and desired retention; they are built once and cached per user (bounded), and must be
+ * evicted whenever the user's parameters change. Eviction only reaches this node, so entries
+ * also expire after {@code cache-ttl-seconds}: other nodes pick up new parameters within that time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SrsSchedulerResolver {
+
+    private final Sm2Scheduler sm2Scheduler;
+    private final UserFsrsParametersRepository fsrsParametersRepository;
+
+    @Value("${carden.fsrs.cache-max-users:10000}")
+    private int maxUsers;
+
+    @Value("${carden.fsrs.cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<Long, FsrsScheduler> fsrsSchedulers;
+
+    @PostConstruct
+    void start() {
+        fsrsSchedulers = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Scheduler for a user and algorithm (null algorithm falls back to SM-2)
+     */
+    public SrsScheduler resolve(Long userId, SrsAlgorithm algorithm) {
+        if (algorithm != SrsAlgorithm.FSRS) {
+            return sm2Scheduler;
+        }
+
+        return fsrsSchedulers.get(userId, this::loadFsrsScheduler);
+    }
+
+    /**
+     * Drop the cached FSRS scheduler of a user (after their parameters changed)
+     */
+    public void evict(Long userId) {
+        fsrsSchedulers.invalidate(userId);
+    }
+
+    private FsrsScheduler loadFsrsScheduler(Long userId) {
+        return fsrsParametersRepository.findByUserId(userId)
+                .map(this::toScheduler)
+                .orElseGet(FsrsScheduler::withDefaults);
+    }
+
+    private FsrsScheduler toScheduler(UserFsrsParameters parameters) {
+        List<Double> weights = parameters.getWeights();
+        if (weights == null || weights.size() != FsrsScheduler.WEIGHT_COUNT) {
+            log.warn("Ignoring invalid FSRS weights of user {}", parameters.getUser().getId());
+            return new FsrsScheduler(FsrsScheduler.DEFAULT_WEIGHTS, parameters.getDesiredRetention());
+        }
+
+        double[] w = new double[weights.size()];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = weights.get(i);
+        }
+        return new FsrsScheduler(w, parameters.getDesiredRetention());
+    }
+}
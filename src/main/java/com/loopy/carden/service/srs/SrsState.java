@@ -0,0 +1,72 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.CardState;
+
+/**
+ * Scheduling state of one card, as primitives only.
+ *
+ * Times are seconds on the local time-line ({@code LocalDateTime.toEpochSecond(ZoneOffset.UTC)}),
+ * so converting to and from {@code LocalDateTime} is exact and day arithmetic needs no zone rules.
+ * The holder is mutable on purpose: {@link SrsScheduler} implementations update it in place,
+ * which keeps a review free of allocations when the same instance is reused (bulk rescheduling,
+ * simulation).
+ */
+public final class SrsState {
+
+    /**
+     * Marker for an absent time (never reviewed, not graduated)
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    public CardState cardState = CardState.NEW;
+    public int repetitionCount;
+    public double easeFactor = Sm2Scheduler.INITIAL_EASE_FACTOR;
+    public int intervalDays = 1;
+    public long dueAt;
+    public long lastReviewAt = NO_TIME;
+    public int lastScore = -1;
+    public int totalReviews;
+    public int correctReviews;
+    public double accuracyRate;
+    public int consecutiveFailures;
+    public int currentLearningStep;
+    public boolean leech;
+    public long graduatedAt = NO_TIME;
+    public double stability; // FSRS, 0 = not initialized
+    public double difficulty; // FSRS, 0 = not initialized
+
+    /**
+     * State of a card that has never been studied, due at {@code now}
+     */
+    public static SrsState newCard(long now) {
+        SrsState state = new SrsState();
+        state.dueAt = now;
+        return state;
+    }
+
+    /**
+     * Copy all fields from another state (lets callers reuse one instance)
+     */
+    public void copyFrom(SrsState other) {
+        cardState = other.cardState;
+        repetitionCount = other.repetitionCount;
+        easeFactor = other.easeFactor;
+        intervalDays = other.intervalDays;
+        dueAt = other.dueAt;
+        lastReviewAt = other.lastReviewAt;
+        lastScore = other.lastScore;
+        totalReviews = other.totalReviews;
+        correctReviews = other.correctReviews;
+        accuracyRate = other.accuracyRate;
+        consecutiveFailures = other.consecutiveFailures;
+        currentLearningStep = other.currentLearningStep;
+        leech = other.leech;
+        graduatedAt = other.graduatedAt;
+        stability = other.stability;
+        difficulty = other.difficulty;
+    }
+
+    public boolean isLearning() {
+        return cardState == CardState.LEARNING || cardState == CardState.RELEARNING;
+    }
+}
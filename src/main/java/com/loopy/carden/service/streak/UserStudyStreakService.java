@@ -0,0 +1,145 @@
+package com.loopy.carden.service.streak;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Study days of each user as a bitmap (user_study_streaks), so streaks and the calendar
+ * heatmap are read from one row instead of the user's session history.
+ *
+ * Bit i of {@code study_days} is {@code first_study_date + i} days ({@link BitSet} byte order);
+ * a day is set when a session started on it is completed. The row also keeps the length of the
+ * run of study days ending at {@code last_study_date} and the longest run, updated with a few
+ * bit operations per completion, so reads need no scan of the bitmap.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStudyStreakService {
+
+    private static final String COLUMNS = "first_study_date, last_study_date, study_days, current_streak, longest_streak";
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM user_study_streaks WHERE user_id = :userId";
+
+    private static final String CREATE_SQL = "INSERT INTO user_study_streaks (user_id, updated_at) " +
+            "VALUES (:userId, :now) ON CONFLICT (user_id) DO NOTHING";
+
+    private static final String UPDATE_SQL = "UPDATE user_study_streaks SET " +
+            "first_study_date = :firstStudyDate, last_study_date = :lastStudyDate, study_days = :studyDays, " +
+            "current_streak = :currentStreak, longest_streak = :longestStreak, updated_at = :now " +
+            "WHERE user_id = :userId";
+
+    private static final RowMapper<Streak> STREAK = (rs, i) -> new Streak(
+            toLocalDate(rs.getDate("first_study_date")),
+            toLocalDate(rs.getDate("last_study_date")),
+            BitSet.valueOf(rs.getBytes("study_days")),
+            rs.getInt("current_streak"),
+            rs.getInt("longest_streak"));
+
+    private static final Streak NONE = new Streak(null, null, new BitSet(), 0, 0);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Study days of a user; {@code lastRun} is the run of consecutive days ending at {@code lastStudyDate}
+     */
+    public record Streak(LocalDate firstStudyDate, LocalDate lastStudyDate, BitSet studyDays,
+                         int lastRun, int longestRun) {
+
+        /**
+         * Consecutive study days up to today, or up to yesterday while today has no session yet
+         */
+        public int currentStreak(LocalDate today) {
+            return isActive(today) ? lastRun : 0;
+        }
+
+        /**
+         * Whether the user studied today or yesterday (the streak is still alive)
+         */
+        public boolean isActive(LocalDate today) {
+            return lastStudyDate != null && !lastStudyDate.isBefore(today.minusDays(1));
+        }
+
+        public LocalDate streakStartDate(LocalDate today) {
+            return isActive(today) ? lastStudyDate.minusDays(lastRun - 1) : null;
+        }
+
+        /**
+         * All study days in date order (calendar heatmap)
+         */
+        public Set<LocalDate> studyDates() {
+            return studyDays.stream()
+                    .mapToObj(offset -> firstStudyDate.plusDays(offset))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+    }
+
+    /**
+     * Study days of a user (empty without completed sessions)
+     */
+    public Streak getStreak(Long userId) {
+        List<Streak> rows = jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("userId", userId), STREAK);
+        return rows.isEmpty() ? NONE : rows.get(0);
+    }
+
+    /**
+     * Mark a day as studied (a session started on it was completed)
+     */
+    public void recordStudyDay(Long userId, LocalDate day) {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", Timestamp.valueOf(now));
+        // Row lock serializes concurrent completions of the same user
+        jdbcTemplate.update(CREATE_SQL, params);
+        Streak streak = jdbcTemplate.queryForObject(SELECT_SQL + " FOR UPDATE", params, STREAK);
+
+        BitSet days = streak.studyDays();
+        LocalDate first = streak.firstStudyDate();
+        if (first == null) {
+            first = day;
+        } else if (day.isBefore(first)) {
+            // Rebase so bit 0 is the new first day
+            int shift = (int) ChronoUnit.DAYS.between(day, first);
+            BitSet shifted = new BitSet(days.length() + shift);
+            days.stream().forEach(i -> shifted.set(i + shift));
+            days = shifted;
+            first = day;
+        }
+
+        int index = (int) ChronoUnit.DAYS.between(first, day);
+        if (days.get(index)) {
+            return;
+        }
+        days.set(index);
+
+        // Setting a bit can only join runs: the run through it is the only candidate for a new longest
+        int run = days.nextClearBit(index) - days.previousClearBit(index) - 1;
+        int lastIndex = days.length() - 1;
+        int lastRun = lastIndex - days.previousClearBit(lastIndex);
+
+        jdbcTemplate.update(UPDATE_SQL, params
+                .addValue("firstStudyDate", Date.valueOf(first))
+                .addValue("lastStudyDate", Date.valueOf(first.plusDays(lastIndex)))
+                .addValue("studyDays", days.toByteArray())
+                .addValue("currentStreak", lastRun)
+                .addValue("longestStreak", Math.max(streak.longestRun(), run)));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,52 @@
+-- Study streaks for Carden Flashcards Application
+-- Version: 1.9.0
+-- Description: Per-user study day bitmap with maintained current/longest streaks
+
+-- One row per user with completed sessions. Bit i of study_days is first_study_date + i days,
+-- in java.util.BitSet byte order (bit i is bit i % 8 of byte i / 8). current_streak is the run
+-- of study days ending at last_study_date; readers treat it as broken when that is before yesterday.
+CREATE TABLE user_study_streaks (
+    user_id BIGINT NOT NULL,
+    first_study_date DATE,
+    last_study_date DATE,
+    study_days BYTEA NOT NULL DEFAULT ''::bytea,
+    current_streak INTEGER NOT NULL DEFAULT 0,
+    longest_streak INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_study_streaks PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_study_streaks_user FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+-- Initial bitmaps and streaks from completed sessions (runs found by date - row_number)
+WITH study_days AS (
+    SELECT rs.user_id, CAST(rs.session_date AS DATE) AS study_date
+    FROM review_sessions rs
+    WHERE rs.session_status = 'COMPLETED'
+    GROUP BY rs.user_id, CAST(rs.session_date AS DATE)
+), bounds AS (
+    SELECT user_id, MIN(study_date) AS first_date, MAX(study_date) AS last_date
+    FROM study_days
+    GROUP BY user_id
+), day_bytes AS (
+    SELECT d.user_id, (d.study_date - b.first_date) / 8 AS byte_index,
+           SUM(1 << ((d.study_date - b.first_date) % 8)) AS byte_value
+    FROM study_days d JOIN bounds b ON b.user_id = d.user_id
+    GROUP BY d.user_id, (d.study_date - b.first_date) / 8
+), runs AS (
+    SELECT user_id, MAX(study_date) AS run_end, COUNT(*) AS run_length
+    FROM (SELECT user_id, study_date,
+                 study_date - CAST(ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY study_date) AS INTEGER) AS run_key
+          FROM study_days) numbered
+    GROUP BY user_id, run_key
+)
+INSERT INTO user_study_streaks (user_id, first_study_date, last_study_date, study_days,
+                                current_streak, longest_streak, updated_at)
+SELECT b.user_id, b.first_date, b.last_date,
+       decode((SELECT string_agg(lpad(to_hex(COALESCE(db.byte_value, 0)), 2, '0'), '' ORDER BY i)
+               FROM generate_series(0, (b.last_date - b.first_date) / 8) AS i
+               LEFT JOIN day_bytes db ON db.user_id = b.user_id AND db.byte_index = i), 'hex'),
+       (SELECT r.run_length FROM runs r WHERE r.user_id = b.user_id AND r.run_end = b.last_date),
+       (SELECT MAX(r.run_length) FROM runs r WHERE r.user_id = b.user_id),
+       LOCALTIMESTAMP
+FROM bounds b;
@@ -0,0 +1,17 @@
+-- User overviews for Carden Flashcards Application
+-- Version: 1.10.0
+-- Description: Precomputed per-user statistics overview documents
+
+-- One row per user with the overview served by GET /v1/analytics/overview (UserStatisticsDto
+-- as JSON). Rows are refreshed after study changes commit; a row computed before today or with
+-- another schema_version is recomputed on read. No backfill: rows are created on first read
+-- or by starting the application with --rebuild-user-overviews.
+CREATE TABLE user_overviews (
+    user_id BIGINT NOT NULL,
+    overview JSONB NOT NULL,
+    schema_version INTEGER NOT NULL,
+    computed_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT pk_user_overviews PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_overviews_user FOREIGN KEY (user_id) REFERENCES users(id)
+);
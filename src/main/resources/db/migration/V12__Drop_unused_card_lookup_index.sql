@@ -0,0 +1,7 @@
+-- Unused card lookup index for Carden Flashcards Application
+-- Version: 1.11.0
+-- Description: Drops the index added for the cards-without-study-state anti-join
+
+-- New-card queries read study_states only since V6, and seeding a deck's states scans the
+-- deck's cards through idx_cards_deck_id, so nothing reads this index any more.
+DROP INDEX IF EXISTS idx_cards_deck_created_live;
@@ -0,0 +1,10 @@
+-- Due card index without NEW states for Carden Flashcards Application
+-- Version: 1.12.0
+-- Description: Limits the keyset due-card index to learning and review states
+
+-- Since V6 every card has a seeded NEW state whose due_date is its seed time, so most of a
+-- new user's rows are "due". Due queries filter card_state <> 'NEW'; with the filter in the
+-- index predicate a due page is still a single range scan instead of skipping every NEW row.
+CREATE INDEX idx_study_states_user_due_reviewed ON study_states(user_id, due_date, id)
+    WHERE card_state <> 'NEW';
+DROP INDEX IF EXISTS idx_study_states_user_due_id;
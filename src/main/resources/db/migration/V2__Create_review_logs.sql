@@ -0,0 +1,52 @@
+-- Review log for Carden Flashcards Application
+-- Version: 1.1.0
+-- Description: Append-only per-review history, range-partitioned by month
+
+-- One row per review. No foreign keys: rows are written in batches off the request path
+-- and must survive card/deck deletion; partitions are dropped wholesale for retention.
+CREATE TABLE review_logs (
+    id BIGSERIAL,
+    user_id BIGINT NOT NULL,
+    card_id BIGINT NOT NULL,
+    deck_id BIGINT NOT NULL,
+    reviewed_at TIMESTAMP NOT NULL,
+    grade SMALLINT NOT NULL,
+    previous_state VARCHAR(15) NOT NULL,
+    new_state VARCHAR(15) NOT NULL,
+    previous_interval_days INTEGER NOT NULL,
+    new_interval_days INTEGER NOT NULL,
+    previous_ease_factor DOUBLE PRECISION NOT NULL,
+    new_ease_factor DOUBLE PRECISION NOT NULL,
+    previous_due_date TIMESTAMP,
+    new_due_date TIMESTAMP NOT NULL,
+    response_time_ms INTEGER,
+
+    -- The partition key must be part of the primary key
+    CONSTRAINT pk_review_logs PRIMARY KEY (id, reviewed_at),
+    CONSTRAINT chk_review_logs_grade CHECK (grade BETWEEN 0 AND 3)
+) PARTITION BY RANGE (reviewed_at);
+
+-- Catch-all for rows outside the created months; kept empty by the partition maintenance job
+CREATE TABLE review_logs_default PARTITION OF review_logs DEFAULT;
+
+-- Create the partition for the month containing the given date (idempotent)
+CREATE OR REPLACE FUNCTION create_review_logs_partition(month_start DATE)
+RETURNS VOID AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::DATE;
+    to_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'review_logs_' || to_char(from_date, 'YYYY_MM');
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF review_logs FOR VALUES FROM (%L) TO (%L)',
+        partition_name, from_date, to_date);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Current month and the next two
+SELECT create_review_logs_partition((date_trunc('month', CURRENT_DATE) + (n || ' month')::INTERVAL)::DATE)
+FROM generate_series(0, 2) AS n;
+
+-- Indexes (created on every partition)
+CREATE INDEX idx_review_logs_user_reviewed_at ON review_logs(user_id, reviewed_at);
+CREATE INDEX idx_review_logs_card_reviewed_at ON review_logs(card_id, reviewed_at);
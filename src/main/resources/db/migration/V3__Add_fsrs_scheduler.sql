@@ -0,0 +1,34 @@
+-- FSRS scheduler support for Carden Flashcards Application
+-- Version: 1.2.0
+-- Description: Per-user/per-deck scheduling algorithm, FSRS memory state and per-user FSRS parameters
+
+-- Scheduling algorithm: user default, optional deck override (NULL = use the owner's setting)
+ALTER TABLE users ADD COLUMN srs_algorithm VARCHAR(10) NOT NULL DEFAULT 'SM2';
+ALTER TABLE users ADD CONSTRAINT chk_users_srs_algorithm CHECK (srs_algorithm IN ('SM2', 'FSRS'));
+
+ALTER TABLE decks ADD COLUMN srs_algorithm VARCHAR(10);
+ALTER TABLE decks ADD CONSTRAINT chk_decks_srs_algorithm CHECK (srs_algorithm IS NULL OR srs_algorithm IN ('SM2', 'FSRS'));
+
+-- FSRS memory state (NULL until the card is first reviewed with FSRS)
+ALTER TABLE study_states ADD COLUMN stability DOUBLE PRECISION;
+ALTER TABLE study_states ADD COLUMN difficulty DOUBLE PRECISION;
+
+-- Per-user FSRS parameters (weights fitted from review_logs)
+CREATE TABLE user_fsrs_parameters (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    weights JSONB NOT NULL,
+    desired_retention DOUBLE PRECISION NOT NULL DEFAULT 0.9,
+    trained_review_count INTEGER NOT NULL DEFAULT 0,
+    log_loss DOUBLE PRECISION,
+    optimized_at TIMESTAMP,
+
+    -- Audit fields
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT DEFAULT 0,
+
+    CONSTRAINT fk_user_fsrs_parameters_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT uk_user_fsrs_parameters_user UNIQUE (user_id),
+    CONSTRAINT chk_user_fsrs_parameters_retention CHECK (desired_retention > 0 AND desired_retention < 1)
+);
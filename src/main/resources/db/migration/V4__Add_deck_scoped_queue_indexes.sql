@@ -0,0 +1,16 @@
+-- Deck-scoped practice queue indexes for Carden Flashcards Application
+-- Version: 1.3.0
+-- Description: Covering indexes for deck- and topic-scoped queue queries
+
+-- Due cards of one user in a set of decks, earliest first. card_state and card_id are
+-- included so next-card selection runs as an index-only scan instead of visiting the heap
+-- for every candidate of the user's whole collection.
+CREATE INDEX idx_study_states_user_deck_due ON study_states(user_id, deck_id, due_date)
+    INCLUDE (card_state, card_id);
+
+-- New cards of one user in a set of decks, in creation order
+CREATE INDEX idx_study_states_user_deck_new ON study_states(user_id, deck_id, created_at)
+    INCLUDE (card_id) WHERE card_state = 'NEW';
+
+-- Resolving a topic scope to the user's decks
+CREATE INDEX idx_decks_user_topic ON decks(user_id, topic_id) WHERE deleted = FALSE;
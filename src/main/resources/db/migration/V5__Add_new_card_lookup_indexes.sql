@@ -0,0 +1,8 @@
+-- New-card lookup indexes for Carden Flashcards Application
+-- Version: 1.4.0
+-- Description: Supports the NOT EXISTS anti-join used to find cards without a study state
+
+-- Live cards of a deck in creation order: the outer side of the anti-join walks the user's
+-- decks through this index (ordered for "oldest new card first") and probes
+-- uk_study_states_user_card (user_id, card_id) once per card.
+CREATE INDEX idx_cards_deck_created_live ON cards(deck_id, created_at) WHERE deleted = FALSE;
@@ -0,0 +1,20 @@
+-- Eager new-card study states for Carden Flashcards Application
+-- Version: 1.5.0
+-- Description: Backfills NEW study states for every live card of a deck owner
+
+-- Cards now get their owner's NEW study state when they are added to a deck, so new-card
+-- queries read study_states only. This seeds the cards created before that. created_at is
+-- taken from the card so new cards keep being served in card creation order; defaults
+-- match StudyStateRepository.seedStudyStatesForDeck.
+INSERT INTO study_states (user_id, card_id, deck_id, repetition_count, ease_factor, interval_days,
+                          due_date, card_state, total_reviews, correct_reviews, accuracy_rate,
+                          consecutive_failures, current_learning_step, is_leech,
+                          created_at, updated_at, version)
+SELECT d.user_id, c.id, c.deck_id, 0, 2.5, 1,
+       CURRENT_TIMESTAMP, 'NEW', 0, 0, 0.0,
+       0, 0, FALSE,
+       COALESCE(c.created_at, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP, 0
+FROM cards c
+JOIN decks d ON d.id = c.deck_id
+WHERE c.deleted = FALSE AND d.deleted = FALSE
+ON CONFLICT (user_id, card_id) DO NOTHING;
@@ -0,0 +1,41 @@
+-- Card counters for Carden Flashcards Application
+-- Version: 1.6.0
+-- Description: Per-user/per-deck card counts maintained on review and card changes
+
+-- One row per (user, deck) with study states. State totals are kept exact by deltas;
+-- due counts are as of counted_at and stay valid until next_due_at (the earliest due date
+-- after counted_at), after which the row is recounted from study_states.
+CREATE TABLE user_deck_counters (
+    user_id BIGINT NOT NULL,
+    deck_id BIGINT NOT NULL,
+    new_count INTEGER NOT NULL DEFAULT 0,
+    learning_count INTEGER NOT NULL DEFAULT 0,
+    review_count INTEGER NOT NULL DEFAULT 0,
+    leech_count INTEGER NOT NULL DEFAULT 0,
+    learning_due_count INTEGER NOT NULL DEFAULT 0,
+    review_due_count INTEGER NOT NULL DEFAULT 0,
+    next_due_at TIMESTAMP,
+    counted_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_deck_counters PRIMARY KEY (user_id, deck_id),
+    CONSTRAINT fk_user_deck_counters_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT fk_user_deck_counters_deck FOREIGN KEY (deck_id) REFERENCES decks(id)
+);
+
+CREATE INDEX idx_user_deck_counters_deck ON user_deck_counters(deck_id);
+
+-- Initial counts from existing study states (same aggregate as CardCounterService recounts)
+INSERT INTO user_deck_counters (user_id, deck_id, new_count, learning_count, review_count, leech_count,
+                                learning_due_count, review_due_count, next_due_at, counted_at, updated_at)
+SELECT s.user_id, s.deck_id,
+       COUNT(*) FILTER (WHERE s.card_state = 'NEW'),
+       COUNT(*) FILTER (WHERE s.card_state IN ('LEARNING', 'RELEARNING')),
+       COUNT(*) FILTER (WHERE s.card_state = 'REVIEW'),
+       COUNT(*) FILTER (WHERE s.is_leech),
+       COUNT(*) FILTER (WHERE s.card_state IN ('LEARNING', 'RELEARNING') AND s.due_date <= LOCALTIMESTAMP),
+       COUNT(*) FILTER (WHERE s.card_state = 'REVIEW' AND s.due_date <= LOCALTIMESTAMP),
+       MIN(s.due_date) FILTER (WHERE s.card_state <> 'NEW' AND s.due_date > LOCALTIMESTAMP),
+       LOCALTIMESTAMP, LOCALTIMESTAMP
+FROM study_states s
+GROUP BY s.user_id, s.deck_id;
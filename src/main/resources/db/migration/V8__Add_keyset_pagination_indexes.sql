@@ -0,0 +1,18 @@
+-- Keyset pagination indexes for Carden Flashcards Application
+-- Version: 1.7.0
+-- Description: Adds the id tie-breaker to the indexes behind cursor-paginated listings
+
+-- Due cards of one user in (due_date, id) order. With id in the key a cursor page is a
+-- single index range scan starting at the cursor, without a sort of equal due dates.
+-- Replaces the (user_id, due_date) index, which is a prefix of this one.
+CREATE INDEX idx_study_states_user_due_id ON study_states(user_id, due_date, id);
+DROP INDEX IF EXISTS idx_study_states_user_due;
+
+-- New cards of one user in (created_at, id) order (whole-collection queue, next-card lookup
+-- and new-card pages)
+CREATE INDEX idx_study_states_user_new_id ON study_states(user_id, created_at, id)
+    INCLUDE (card_id) WHERE card_state = 'NEW';
+
+-- Session history of one user, newest first, read backwards from the cursor
+CREATE INDEX idx_review_sessions_user_date_id ON review_sessions(user_id, session_date, id);
+DROP INDEX IF EXISTS idx_review_sessions_user_date;
@@ -0,0 +1,33 @@
+-- Daily study rollup for Carden Flashcards Application
+-- Version: 1.8.0
+-- Description: Per-user/per-day session totals maintained as sessions change
+
+-- One row per (user, local date a session started on). Totals are additive: sessions are
+-- counted when they start, cards as reviews are recorded and minutes as durations are set.
+-- Accuracy is derived as cards_correct / cards_studied.
+CREATE TABLE user_daily_stats (
+    user_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    session_count INTEGER NOT NULL DEFAULT 0,
+    cards_studied INTEGER NOT NULL DEFAULT 0,
+    cards_correct INTEGER NOT NULL DEFAULT 0,
+    new_cards INTEGER NOT NULL DEFAULT 0,
+    study_minutes INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_daily_stats PRIMARY KEY (user_id, stat_date),
+    CONSTRAINT fk_user_daily_stats_user FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+-- Initial totals from existing sessions
+INSERT INTO user_daily_stats (user_id, stat_date, session_count, cards_studied, cards_correct,
+                              new_cards, study_minutes, updated_at)
+SELECT rs.user_id, CAST(rs.session_date AS DATE),
+       COUNT(*),
+       COALESCE(SUM(rs.cards_studied), 0),
+       COALESCE(SUM(rs.cards_correct), 0),
+       COALESCE(SUM(rs.new_cards), 0),
+       COALESCE(SUM(rs.duration_minutes), 0),
+       LOCALTIMESTAMP
+FROM review_sessions rs
+GROUP BY rs.user_id, CAST(rs.session_date AS DATE);
@@ -1,9 +1,12 @@
 package com.loopy.carden;
 
+import com.loopy.carden.config.EmbeddedRedisInitializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
 
 @SpringBootTest
+@ContextConfiguration(initializers = EmbeddedRedisInitializer.class)
 class CardenApplicationTests {
 
 	@Test
@@ -0,0 +1,56 @@
+package com.loopy.carden.config;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Starts an embedded Redis server on a free port before the context refreshes and points the
+ * two-tier cache at it, so tests exercise the Redis tier without a running Redis:
+ * {@code @ContextConfiguration(initializers = EmbeddedRedisInitializer.class)}
+ */
+public class EmbeddedRedisInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        int port = freePort();
+        RedisServer redisServer;
+        try {
+            redisServer = RedisServer.newRedisServer().port(port).bind("127.0.0.1").build();
+            redisServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded Redis on port " + port, e);
+        }
+
+        TestPropertyValues.of(
+                "spring.data.redis.host=127.0.0.1",
+                "spring.data.redis.port=" + port,
+                "spring.data.redis.password=",
+                "carden.cache.redis.enabled=true"
+        ).applyTo(context);
+
+        context.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) {
+                try {
+                    redisServer.stop();
+                } catch (IOException ignored) {
+                    // Server process is gone with the JVM anyway
+                }
+            }
+        });
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.loopy.carden.config;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Points the datasource at a PostgreSQL container (same major version as docker-compose) so
+ * native queries and Flyway migrations run against a real database:
+ * {@code @ContextConfiguration(initializers = PostgresContainerInitializer.class)}.
+ * The container is started once and shared by every test context of the JVM.
+ */
+public class PostgresContainerInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("carden_test");
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        synchronized (POSTGRES) {
+            if (!POSTGRES.isRunning()) {
+                POSTGRES.start();
+            }
+        }
+
+        TestPropertyValues.of(
+                "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                "spring.datasource.username=" + POSTGRES.getUsername(),
+                "spring.datasource.password=" + POSTGRES.getPassword()
+        ).applyTo(context);
+    }
+}
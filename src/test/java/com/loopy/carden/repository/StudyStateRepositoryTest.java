@@ -0,0 +1,288 @@
+package com.loopy.carden.repository;
+
+import com.loopy.carden.config.PostgresContainerInitializer;
+import com.loopy.carden.dto.practice.PracticeCardView;
+import com.loopy.carden.entity.StudyState;
+import com.loopy.carden.entity.StudyState.CardState;
+import com.loopy.carden.support.DatabaseFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Native statements of {@link StudyStateRepository} against PostgreSQL
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = PostgresContainerInitializer.class)
+class StudyStateRepositoryTest {
+
+    @Autowired
+    private StudyStateRepository studyStateRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseFixtures fixtures;
+    private LocalDateTime now;
+    private long userId;
+    private long deckId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new DatabaseFixtures(jdbcTemplate);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        userId = fixtures.user();
+        deckId = fixtures.deck(userId);
+        // Past max-age, so remaining counts are taken from study_states unless a test sets valid counters
+        fixtures.counters(userId, deckId, 0, 0, now.minusDays(1));
+    }
+
+    @Test
+    void applyReviewWritesStateSessionAndDailyStatsAndSelectsNextCard() {
+        long reviewedCard = fixtures.card(deckId, now.minusDays(10));
+        long reviewedState = fixtures.studyState(userId, reviewedCard, deckId, CardState.REVIEW,
+                now.minusDays(1), now.minusDays(10));
+        long learningCard = fixtures.card(deckId, now.minusDays(9));
+        long learningState = fixtures.studyState(userId, learningCard, deckId, CardState.LEARNING,
+                now.minusHours(1), now.minusDays(9));
+        long futureCard = fixtures.card(deckId, now.minusDays(8));
+        fixtures.studyState(userId, futureCard, deckId, CardState.REVIEW, now.plusDays(1), now.minusDays(8));
+        long sessionId = fixtures.session(userId, now.minusMinutes(5));
+
+        Object[] row = review(reviewedCard, reviewedState, 0L, CardState.REVIEW, now.plusDays(3), 2, 0, true, false);
+
+        assertThat(((Number) row[0]).longValue()).isEqualTo(reviewedState);
+        assertThat(((Number) row[1]).longValue()).isEqualTo(1L);
+        assertThat(((Number) row[2]).longValue()).isEqualTo(sessionId);
+        assertThat(((Number) row[3]).intValue()).isEqualTo(1);
+        assertThat(((Number) row[4]).intValue()).isEqualTo(1);
+        // Due learning card beats the not-yet-due reviewed card and the future review card
+        assertThat(((Number) row[7]).longValue()).isEqualTo(learningState);
+        assertThat(((Number) row[8]).longValue()).isEqualTo(learningCard);
+        // Snapshot saw two due cards; the reviewed one is no longer due
+        assertThat(((Number) row[9]).longValue()).isEqualTo(1L);
+
+        Map<String, Object> state = jdbcTemplate.queryForMap(
+                "SELECT interval_days, total_reviews, version FROM study_states WHERE id = ?", reviewedState);
+        assertThat(((Number) state.get("interval_days")).intValue()).isEqualTo(3);
+        assertThat(((Number) state.get("total_reviews")).intValue()).isEqualTo(1);
+        assertThat(((Number) state.get("version")).longValue()).isEqualTo(1L);
+
+        Integer dailyCards = jdbcTemplate.queryForObject(
+                "SELECT cards_studied FROM user_daily_stats WHERE user_id = ?", Integer.class, userId);
+        assertThat(dailyCards).isEqualTo(1);
+    }
+
+    @Test
+    void applyReviewWithStaleVersionWritesNoState() {
+        long card = fixtures.card(deckId, now.minusDays(1));
+        long stateId = fixtures.studyState(userId, card, deckId, CardState.REVIEW, now.minusDays(1), now.minusDays(1));
+
+        Object[] row = review(card, stateId, 5L, CardState.REVIEW, now.plusDays(3), 2, 0, true, false);
+
+        assertThat(row[0]).isNull();
+        Integer version = jdbcTemplate.queryForObject("SELECT version FROM study_states WHERE id = ?", Integer.class, stateId);
+        assertThat(version).isZero();
+    }
+
+    @Test
+    void applyReviewInsertsFirstStateOfAnUnstudiedCard() {
+        long card = fixtures.card(deckId, now.minusDays(1));
+
+        Object[] row = review(card, 0L, -1L, CardState.LEARNING, now.plusMinutes(10), 1, 0, false, false);
+
+        assertThat(row[0]).isNotNull();
+        assertThat(row[2]).isNull(); // no active session
+        Map<String, Object> state = jdbcTemplate.queryForMap(
+                "SELECT card_state, total_reviews FROM study_states WHERE user_id = ? AND card_id = ?", userId, card);
+        assertThat(state.get("card_state")).isEqualTo("LEARNING");
+        assertThat(((Number) state.get("total_reviews")).intValue()).isEqualTo(1);
+    }
+
+    @Test
+    void applyReviewServesTheReviewedCardAgainWhenItIsStillTheFirstDue() {
+        long card = fixtures.card(deckId, now.minusDays(2));
+        long stateId = fixtures.studyState(userId, card, deckId, CardState.REVIEW, now.minusDays(1), now.minusDays(2));
+        long other = fixtures.card(deckId, now.minusDays(1));
+        fixtures.studyState(userId, other, deckId, CardState.REVIEW, now.minusHours(1), now.minusDays(1));
+
+        // Failed: relearning and due right away, ahead of the due review card
+        Object[] row = review(card, stateId, 0L, CardState.RELEARNING, now, 0, 1, true, true);
+
+        assertThat(((Number) row[7]).longValue()).isEqualTo(stateId);
+        assertThat(((Number) row[8]).longValue()).isEqualTo(card);
+        assertThat(((Number) row[9]).longValue()).isEqualTo(2L);
+    }
+
+    @Test
+    void unstudiedNewCardsAreNotCountedAsDue() {
+        long card = fixtures.card(deckId, now.minusDays(2));
+        long stateId = fixtures.studyState(userId, card, deckId, CardState.REVIEW, now.minusDays(1), now.minusDays(2));
+        long newCard = fixtures.card(deckId, now.minusDays(1));
+        fixtures.studyState(userId, newCard, deckId, CardState.NEW, now.minusDays(1), now.minusDays(1));
+        long learningCard = fixtures.card(deckId, now.minusDays(1));
+        fixtures.studyState(userId, learningCard, deckId, CardState.LEARNING, now.minusMinutes(1), now.minusDays(1));
+
+        assertThat(studyStateRepository.countDueCardsByUser(userId, now)).isEqualTo(2L);
+
+        Object[] row = review(card, stateId, 0L, CardState.REVIEW, now.plusDays(3), 2, 0, true, false);
+
+        // Only the learning card is left; the new card is served but not due
+        assertThat(((Number) row[9]).longValue()).isEqualTo(1L);
+        assertThat(((Number) row[10]).intValue()).isEqualTo(1);
+    }
+
+    @Test
+    void reviewedNewStateLeavesTheRemainingNewCards() {
+        long card = fixtures.card(deckId, now.minusDays(2));
+        long stateId = fixtures.studyState(userId, card, deckId, CardState.NEW, now.minusDays(2), now.minusDays(2));
+        long other = fixtures.card(deckId, now.minusDays(1));
+        fixtures.studyState(userId, other, deckId, CardState.NEW, now.minusDays(1), now.minusDays(1));
+
+        Object[] row = review(card, stateId, 0L, CardState.LEARNING, now.plusMinutes(10), 1, 0, false, false, true);
+
+        assertThat(((Number) row[9]).longValue()).isZero();
+        assertThat(((Number) row[10]).intValue()).isEqualTo(1);
+    }
+
+    @Test
+    void remainingCountsComeFromValidCounters() {
+        long card = fixtures.card(deckId, now.minusDays(2));
+        long stateId = fixtures.studyState(userId, card, deckId, CardState.REVIEW, now.minusDays(1), now.minusDays(2));
+        // The counters already hold the review's delta and are not recounted
+        fixtures.counters(userId, deckId, 4, 3, now.minusMinutes(1));
+
+        Object[] row = review(card, stateId, 0L, CardState.REVIEW, now.plusDays(3), 2, 0, true, false);
+
+        assertThat(((Number) row[9]).longValue()).isEqualTo(3L);
+        assertThat(((Number) row[10]).intValue()).isEqualTo(4);
+    }
+
+    @Test
+    void seededNewStatesAreNotListedAsDue() {
+        long newCard = fixtures.card(deckId, now.minusDays(3));
+        fixtures.studyState(userId, newCard, deckId, CardState.NEW, now.minusDays(3), now.minusDays(3));
+        long reviewCard = fixtures.card(deckId, now.minusDays(2));
+        long reviewState = fixtures.studyState(userId, reviewCard, deckId, CardState.REVIEW,
+                now.minusDays(1), now.minusDays(2));
+        PageRequest page = PageRequest.of(0, 10);
+
+        // Next-card selection serves the review card although the seeded state is due earlier
+        assertThat(studyStateRepository.findDueCardsSlice(userId, now, PageRequest.of(0, 1)).getContent())
+                .extracting(StudyState::getId).containsExactly(reviewState);
+        assertThat(studyStateRepository.findDueCardsByUser(userId, now, page).getContent())
+                .extracting(StudyState::getId).containsExactly(reviewState);
+
+        Page<PracticeCardView> views = studyStateRepository.findDueCardViews(userId, now, page);
+        assertThat(views.getContent()).extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+        assertThat(views.getTotalElements()).isEqualTo(1L);
+        Page<PracticeCardView> deckViews = studyStateRepository.findDueCardViewsInDecks(
+                userId, List.of(deckId), now, PageRequest.of(0, 1));
+        assertThat(deckViews.getContent()).extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+        assertThat(deckViews.getTotalElements()).isEqualTo(1L);
+
+        assertThat(studyStateRepository.findDueCardViewSlice(userId, now, page).getContent())
+                .extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+        assertThat(studyStateRepository.findDueCardViewSliceInDecks(userId, List.of(deckId), now, page).getContent())
+                .extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+        LocalDateTime before = now.minusDays(5);
+        assertThat(studyStateRepository.findDueCardViewSliceAfter(userId, now, before, 0L, page).getContent())
+                .extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+        assertThat(studyStateRepository.findDueCardViewSliceInDecksAfter(
+                userId, List.of(deckId), now, before, 0L, page).getContent())
+                .extracting(PracticeCardView::studyStateId).containsExactly(reviewState);
+    }
+
+    @Test
+    void deckAlgorithmOverrideAppliesOnlyToItsOwner() {
+        jdbcTemplate.update("UPDATE decks SET srs_algorithm = 'FSRS' WHERE id = ?", deckId);
+        long card = fixtures.card(deckId, now.minusDays(1));
+        long learner = fixtures.user();
+
+        assertThat(studyStateRepository.findReviewSnapshot(userId, card).get(0)[20]).isEqualTo("FSRS");
+        assertThat(studyStateRepository.findReviewSnapshot(learner, card).get(0)[20]).isEqualTo("SM2");
+        assertThat(deckRepository.findEffectiveSrsAlgorithm(deckId, userId)).contains("FSRS");
+        assertThat(deckRepository.findEffectiveSrsAlgorithm(deckId, learner)).contains("SM2");
+    }
+
+    @Test
+    void insertMissingStudyStatesReportsOnlyRowsItInserted() {
+        long card = fixtures.card(deckId, now.minusDays(1));
+        long deletedCard = fixtures.card(deckId, now.minusDays(1));
+        jdbcTemplate.update("UPDATE cards SET deleted = true WHERE id = ?", deletedCard);
+
+        assertThat(studyStateRepository.insertMissingStudyStates(userId, List.of(card, deletedCard), now)).isEqualTo(1);
+        assertThat(studyStateRepository.insertMissingStudyStates(userId, List.of(card), now)).isZero();
+
+        Map<String, Object> state = jdbcTemplate.queryForMap(
+                "SELECT card_state, deck_id, version FROM study_states WHERE user_id = ? AND card_id = ?", userId, card);
+        assertThat(state.get("card_state")).isEqualTo("NEW");
+        assertThat(((Number) state.get("deck_id")).longValue()).isEqualTo(deckId);
+        assertThat(((Number) state.get("version")).longValue()).isZero();
+    }
+
+    @Test
+    void newCardSlicesInDecksPageThroughOnlyThoseDecks() {
+        long otherDeck = fixtures.deck(userId);
+        for (int i = 0; i < 3; i++) {
+            long card = fixtures.card(deckId, now.minusDays(10 - i));
+            fixtures.studyState(userId, card, deckId, CardState.NEW, now.minusDays(10 - i), now.minusDays(10 - i));
+            long other = fixtures.card(otherDeck, now.minusDays(10 - i));
+            fixtures.studyState(userId, other, otherDeck, CardState.NEW, now.minusDays(10 - i), now.minusDays(10 - i));
+        }
+
+        Slice<PracticeCardView> first = studyStateRepository.findNewCardViewSliceInDecks(
+                userId, List.of(deckId), PageRequest.of(0, 2));
+        PracticeCardView last = first.getContent().get(1);
+        Slice<PracticeCardView> second = studyStateRepository.findNewCardViewSliceInDecksAfter(
+                userId, List.of(deckId), last.createdAt(), last.studyStateId(), PageRequest.of(0, 2));
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(first.getContent()).extracting(PracticeCardView::deckId).containsOnly(deckId);
+        assertThat(second.getContent()).extracting(PracticeCardView::deckId).containsOnly(deckId);
+        assertThat(second.getContent().get(0).createdAt()).isAfter(last.createdAt());
+    }
+
+    /**
+     * Apply a review with the given outcome; the remaining scheduling fields are fixed
+     */
+    private Object[] review(long cardId, long stateId, long expectedVersion, CardState newState,
+                            LocalDateTime dueDate, int grade, int reviewedPriority, boolean wasDue, boolean isDue) {
+        return review(cardId, stateId, expectedVersion, newState, dueDate, grade, reviewedPriority, wasDue, isDue, false);
+    }
+
+    private Object[] review(long cardId, long stateId, long expectedVersion, CardState newState,
+                            LocalDateTime dueDate, int grade, int reviewedPriority, boolean wasDue, boolean isDue,
+                            boolean wasNew) {
+        List<Object[]> rows = studyStateRepository.applyReview(
+                userId, cardId, deckId, stateId, expectedVersion,
+                1, 2.5, (int) ChronoUnit.DAYS.between(now, dueDate), dueDate, newState.name(), now,
+                grade, 1, grade >= 2 ? 1 : 0, grade >= 2 ? 100.0 : 0.0, grade == 0 ? 1 : 0, 0, false,
+                null, null, null,
+                grade, 1500, grade >= 2 ? 1 : 0, stateId == 0 ? 1 : 0, stateId != 0 && grade != 0 ? 1 : 0,
+                stateId != 0 && grade == 0 ? 1 : 0, reviewedPriority, wasDue ? 1 : 0, isDue ? 1 : 0, wasNew ? 1 : 0,
+                now, now.minusMinutes(60));
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.loopy.carden.service;
+
+import com.loopy.carden.dto.practice.SchedulerSettingsDto;
+import com.loopy.carden.entity.User;
+import com.loopy.carden.exception.BadRequestException;
+import com.loopy.carden.exception.TooManyRequestsException;
+import com.loopy.carden.repository.UserFsrsParametersRepository;
+import com.loopy.carden.repository.UserRepository;
+import com.loopy.carden.service.srs.FsrsOptimizer;
+import com.loopy.carden.service.srs.SrsSchedulerResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedulerSettingsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserFsrsParametersRepository fsrsParametersRepository = mock(UserFsrsParametersRepository.class);
+    private final FsrsOptimizer fsrsOptimizer = mock(FsrsOptimizer.class);
+    private final AtomicReference<CountDownLatch> release = new AtomicReference<>(new CountDownLatch(1));
+    private SchedulerSettingsService service;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findById(anyLong())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(invocation.getArgument(0));
+            return Optional.of(user);
+        });
+        when(fsrsParametersRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+        // Every run blocks until the test releases it
+        when(fsrsOptimizer.optimize(anyLong())).thenAnswer(invocation -> {
+            release.get().await(5, TimeUnit.SECONDS);
+            throw new BadRequestException("Not enough review history to optimize FSRS parameters: 3 of 400 reviews");
+        });
+
+        service = new SchedulerSettingsService(userRepository, fsrsParametersRepository, fsrsOptimizer,
+                mock(SrsSchedulerResolver.class));
+        ReflectionTestUtils.setField(service, "maxConcurrentRuns", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.get().countDown();
+        service.stop();
+    }
+
+    @Test
+    void repeatedRequestsJoinTheRunInProgress() {
+        SchedulerSettingsDto first = service.optimize(1L);
+        SchedulerSettingsDto second = service.optimize(1L);
+
+        assertThat(first.getOptimizing()).isTrue();
+        assertThat(second.getOptimizing()).isTrue();
+        verify(fsrsOptimizer, timeout(2000)).optimize(1L);
+        release.get().countDown();
+        verify(fsrsOptimizer, times(1)).optimize(1L);
+    }
+
+    @Test
+    void requestsBeyondTheRunningAndQueuedSlotsAreRejected() {
+        service.optimize(1L);
+        verify(fsrsOptimizer, timeout(2000)).optimize(1L);
+        service.optimize(2L); // queued
+
+        assertThatThrownBy(() -> service.optimize(3L)).isInstanceOf(TooManyRequestsException.class);
+        assertThat(service.getSettings(3L).getOptimizing()).isFalse();
+    }
+
+    @Test
+    void failedRunIsReportedUntilTheNextRunStarts() {
+        service.optimize(1L);
+        release.get().countDown();
+
+        SchedulerSettingsDto settings = awaitFinished(1L);
+
+        assertThat(settings.getOptimizationError()).contains("Not enough review history");
+        release.set(new CountDownLatch(1));
+        assertThat(service.optimize(1L).getOptimizationError()).isNull();
+    }
+
+    private SchedulerSettingsDto awaitFinished(Long userId) {
+        long deadline = System.currentTimeMillis() + 2000;
+        SchedulerSettingsDto settings = service.getSettings(userId);
+        while (settings.getOptimizing() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            settings = service.getSettings(userId);
+        }
+        assertThat(settings.getOptimizing()).isFalse();
+        return settings;
+    }
+}
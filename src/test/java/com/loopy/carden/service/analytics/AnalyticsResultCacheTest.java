@@ -0,0 +1,60 @@
+package com.loopy.carden.service.analytics;
+
+import com.loopy.carden.dto.statistics.UserStatisticsDto;
+import com.loopy.carden.service.InsightsService;
+import com.loopy.carden.service.StatisticsService;
+import com.loopy.carden.service.overview.UserOverviewService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsResultCacheTest {
+
+    private final StatisticsService statisticsService = mock(StatisticsService.class);
+    private final UserOverviewService userOverviewService = mock(UserOverviewService.class);
+    private final InsightsService insightsService = mock(InsightsService.class);
+    private AnalyticsResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AnalyticsResultCache(statisticsService, userOverviewService, insightsService);
+        ReflectionTestUtils.setField(cache, "freshSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "staleSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "maxUsers", 100L);
+        ReflectionTestUtils.setField(cache, "refreshThreads", 1);
+        cache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void completeSnapshotIsComputedOnce() {
+        when(userOverviewService.getOverview(7L)).thenReturn(UserStatisticsDto.builder().build());
+
+        AnalyticsSnapshot first = cache.getSnapshot(7L);
+        AnalyticsSnapshot second = cache.getSnapshot(7L);
+
+        assertThat(second).isSameAs(first);
+        verify(userOverviewService, times(1)).getOverview(7L);
+    }
+
+    @Test
+    void partialSnapshotIsNotCached() {
+        when(userOverviewService.getOverview(7L)).thenReturn(UserStatisticsDto.builder().partial(true).build());
+
+        assertThat(cache.getSnapshot(7L).isPartial()).isTrue();
+        cache.getSnapshot(7L);
+
+        verify(userOverviewService, times(2)).getOverview(7L);
+    }
+}
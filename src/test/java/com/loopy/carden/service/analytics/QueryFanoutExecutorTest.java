@@ -0,0 +1,79 @@
+package com.loopy.carden.service.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueryFanoutExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private QueryFanoutExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        executor = new QueryFanoutExecutor(transactionManager);
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "budgetMs", 2500L);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    void queryTransactionTimesOutWithTheBudget() {
+        QueryFanoutExecutor.Batch batch = executor.batch("test");
+
+        assertThat(batch.submit("count", () -> 42, 0).get()).isEqualTo(42);
+        assertThat(batch.isPartial()).isFalse();
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThat(definition.getValue().getTimeout()).isBetween(2, 3);
+    }
+
+    @Test
+    void queryStillQueuedWhenTheBudgetRunsOutFallsBack() throws InterruptedException {
+        ReflectionTestUtils.setField(executor, "budgetMs", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        QueryFanoutExecutor.Batch batch = executor.batch("test");
+
+        QueryFanoutExecutor.Part<Integer> blocking = batch.submit("slow", () -> {
+            await(release);
+            return 1;
+        }, 0);
+        QueryFanoutExecutor.Part<Integer> queued = batch.submit("queued", () -> 2, 0);
+
+        assertThat(blocking.get()).isZero();
+        assertThat(queued.get()).isZero();
+        assertThat(batch.isPartial()).isTrue();
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
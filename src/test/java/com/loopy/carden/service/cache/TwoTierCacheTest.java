@@ -0,0 +1,149 @@
+package com.loopy.carden.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTest {
+
+    private final TwoTierCacheManager manager = mock(TwoTierCacheManager.class);
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+            .maximumSize(100)
+            .build();
+    private final Cache remote = spy(new ConcurrentMapCache("decks"));
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(manager.isRemoteAvailable()).thenReturn(true);
+        cache = new TwoTierCache("decks", local, remote, manager);
+    }
+
+    @Test
+    void putWritesBothTiersAndPublishesTheEviction() {
+        cache.put(42L, "deck");
+
+        assertThat(local.getIfPresent("42")).isEqualTo("deck");
+        assertThat(remote.get("42").get()).isEqualTo("deck");
+        verify(manager).publishEviction("decks", "42");
+        // Keys are normalized to strings
+        assertThat(cache.get("42").get()).isEqualTo("deck");
+    }
+
+    @Test
+    void remoteHitFillsTheLocalTier() {
+        remote.put("7", "shared");
+
+        assertThat(cache.get(7L).get()).isEqualTo("shared");
+        assertThat(local.getIfPresent("7")).isEqualTo("shared");
+    }
+
+    @Test
+    void missInBothTiersReturnsNull() {
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, String.class)).isNull();
+    }
+
+    @Test
+    void valueLoaderRunsOnceAndFillsBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cache.get(5L, () -> "loaded-" + loads.incrementAndGet());
+        String second = cache.get(5L, () -> "loaded-" + loads.incrementAndGet());
+
+        assertThat(first).isEqualTo("loaded-1");
+        assertThat(second).isEqualTo("loaded-1");
+        assertThat(remote.get("5").get()).isEqualTo("loaded-1");
+    }
+
+    @Test
+    void evictDropsBothTiers() {
+        cache.put(3L, "deck");
+
+        cache.evict(3L);
+
+        assertThat(local.getIfPresent("3")).isNull();
+        assertThat(remote.get("3")).isNull();
+        assertThat(cache.get(3L)).isNull();
+    }
+
+    @Test
+    void puttingNullEvicts() {
+        cache.put(3L, "deck");
+
+        cache.put(3L, null);
+
+        assertThat(cache.get(3L)).isNull();
+    }
+
+    @Test
+    void remoteFailureIsReportedAndServedFromTheLocalTier() {
+        local.put("9", "local copy");
+        RuntimeException failure = new IllegalStateException("Redis down");
+        doThrow(failure).when(remote).put(anyString(), any());
+
+        cache.put(9L, "new value");
+
+        verify(manager).remoteFailed("decks", failure);
+        assertThat(cache.get(9L).get()).isEqualTo("new value");
+    }
+
+    @Test
+    void unavailableRemoteIsSkipped() {
+        when(manager.isRemoteAvailable()).thenReturn(false);
+        remote.put("4", "shared");
+
+        assertThat(cache.get(4L)).isNull();
+    }
+
+    @Test
+    void invalidationFromAnotherNodeDropsOnlyTheLocalCopy() {
+        TwoTierCacheManager localOnly = new TwoTierCacheManager(
+                Map.of("decks", new TwoTierCacheManager.CacheSpec(100, Duration.ofMinutes(5))),
+                new TwoTierCacheManager.CacheSpec(100, Duration.ofMinutes(5)),
+                null, null, Duration.ofSeconds(30));
+        localOnly.afterPropertiesSet();
+        Cache decks = localOnly.getCache("decks");
+        decks.put(1L, "one");
+        decks.put(2L, "two");
+        String ownNode = (String) ReflectionTestUtils.getField(localOnly, "nodeId");
+
+        localOnly.onInvalidation(ownNode + "\ndecks\n1");
+        assertThat(decks.get(1L)).isNotNull();
+
+        localOnly.onInvalidation("other-node\ndecks\n1");
+        assertThat(decks.get(1L)).isNull();
+        assertThat(decks.get(2L)).isNotNull();
+
+        localOnly.onInvalidation("other-node\ndecks");
+        assertThat(decks.get(2L)).isNull();
+    }
+
+    @Test
+    void clearEmptiesBothTiersAndPublishesTheClear() {
+        cache.put(1L, "one");
+
+        cache.clear();
+
+        assertThat(local.estimatedSize()).isZero();
+        assertThat(remote.get("1")).isNull();
+        verify(manager).publishClear(eq("decks"));
+    }
+}
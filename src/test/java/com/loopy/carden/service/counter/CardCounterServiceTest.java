@@ -0,0 +1,226 @@
+package com.loopy.carden.service.counter;
+
+import com.loopy.carden.config.PostgresContainerInitializer;
+import com.loopy.carden.entity.StudyState.CardState;
+import com.loopy.carden.service.counter.CardCounterService.Counters;
+import com.loopy.carden.support.DatabaseFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counters maintained by {@link CardCounterService} deltas against a recount of the study states
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = PostgresContainerInitializer.class)
+class CardCounterServiceTest {
+
+    private static final CardState[] REVIEWED_STATES = {CardState.LEARNING, CardState.RELEARNING, CardState.REVIEW};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CardCounterService counterService;
+    private DatabaseFixtures fixtures;
+    private LocalDateTime now;
+    private long userId;
+    private long deckId;
+
+    @BeforeEach
+    void setUp() {
+        counterService = new CardCounterService(new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(counterService, "maxAgeMinutes", 60L);
+        fixtures = new DatabaseFixtures(jdbcTemplate);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        userId = fixtures.user();
+        deckId = fixtures.deck(userId);
+    }
+
+    @Test
+    void deltasMatchARecountOverRandomChanges() {
+        Random random = new Random(7);
+        List<Long> cards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cards.add(addNewCard(deckId));
+        }
+        assertMatchesRecount(deckId);
+
+        for (int step = 0; step < 200; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                cards.add(addNewCard(deckId));
+            } else if (action == 1) {
+                removeNewCard(deckId, cards);
+            } else {
+                review(deckId, cards.get(random.nextInt(cards.size())), random);
+            }
+
+            if (step % 20 == 0) {
+                assertMatchesRecount(deckId);
+            }
+        }
+        assertMatchesRecount(deckId);
+    }
+
+    @Test
+    void userCountersSumTheDecks() {
+        long otherDeck = fixtures.deck(userId);
+        Random random = new Random(11);
+        List<Long> cards = new ArrayList<>();
+        List<Long> otherCards = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cards.add(addNewCard(deckId));
+            otherCards.add(addNewCard(otherDeck));
+        }
+        for (int step = 0; step < 30; step++) {
+            review(deckId, cards.get(random.nextInt(cards.size())), random);
+            review(otherDeck, otherCards.get(random.nextInt(otherCards.size())), random);
+        }
+
+        Counters user = counterService.getUserCounters(userId);
+        Counters first = counterService.getDeckCounters(userId, deckId);
+        Counters second = counterService.getDeckCounters(userId, otherDeck);
+
+        assertThat(user.newCards).isEqualTo(first.newCards + second.newCards);
+        assertThat(user.learningDue).isEqualTo(first.learningDue + second.learningDue);
+        assertThat(user.reviewDue).isEqualTo(first.reviewDue + second.reviewDue);
+        assertThat(user.leechCards).isEqualTo(first.leechCards + second.leechCards);
+        assertThat(user.totalDue()).isEqualTo(first.totalDue() + second.totalDue());
+    }
+
+    @Test
+    void rowOlderThanMaxAgeIsRecounted() {
+        long card = addNewCard(deckId);
+        counterService.getDeckCounters(userId, deckId);
+
+        // A change that bypassed the deltas, on a row counted two hours ago
+        jdbcTemplate.update("UPDATE study_states SET card_state = 'REVIEW', due_date = ? WHERE user_id = ? AND card_id = ?",
+                Timestamp.valueOf(now.minusDays(1)), userId, card);
+        jdbcTemplate.update("UPDATE user_deck_counters SET counted_at = ? WHERE user_id = ? AND deck_id = ?",
+                Timestamp.valueOf(now.minusHours(2)), userId, deckId);
+
+        Counters counters = counterService.getDeckCounters(userId, deckId);
+
+        assertThat(counters.newCards).isZero();
+        assertThat(counters.reviewDue).isEqualTo(1);
+    }
+
+    @Test
+    void reviewReportedBeforeItsWriteIsCountedOnAStaleRow() {
+        long card = addNewCard(deckId);
+        jdbcTemplate.update("UPDATE user_deck_counters SET counted_at = ? WHERE user_id = ? AND deck_id = ?",
+                Timestamp.valueOf(now.minusHours(2)), userId, deckId);
+
+        // As on the review paths: the delta is reported, then the state is written
+        counterService.onReviewed(userId, deckId, CardState.NEW, now.minusDays(30), false,
+                CardState.REVIEW, now.minusDays(1), false);
+        jdbcTemplate.update("UPDATE study_states SET card_state = 'REVIEW', due_date = ? WHERE user_id = ? AND card_id = ?",
+                Timestamp.valueOf(now.minusDays(1)), userId, card);
+
+        Counters counters = counterService.getDeckCounters(userId, deckId);
+
+        assertThat(counters.newCards).isZero();
+        assertThat(counters.reviewDue).isEqualTo(1);
+    }
+
+    @Test
+    void deckWithoutStudyStatesOfTheUserHasZeroCountersAndNoRow() {
+        long otherUser = fixtures.user();
+        long foreignDeck = fixtures.deck(otherUser);
+        fixtures.card(foreignDeck, now.minusDays(1));
+
+        Counters foreign = counterService.getDeckCounters(userId, foreignDeck);
+        Counters unknown = counterService.getDeckCounters(userId, Long.MAX_VALUE);
+
+        assertThat(foreign.newCards).isZero();
+        assertThat(foreign.hasCardsAvailable()).isFalse();
+        assertThat(unknown.totalDue()).isZero();
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_deck_counters WHERE user_id = ?", Integer.class, userId);
+        assertThat(rows).isZero();
+    }
+
+    private long addNewCard(long deck) {
+        long card = fixtures.card(deck, now.minusDays(30));
+        fixtures.studyState(userId, card, deck, CardState.NEW, now.minusDays(30), now.minusDays(30));
+        counterService.onCardsAdded(userId, deck, 1);
+        return card;
+    }
+
+    private void removeNewCard(long deck, List<Long> cards) {
+        for (Long card : cards) {
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM study_states WHERE user_id = ? AND card_id = ? AND card_state = 'NEW'", userId, card);
+            if (deleted > 0) {
+                counterService.onCardsRemoved(userId, deck, deleted);
+                cards.remove(card);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move a card to a random reviewed state, due well in the past or the future so no due
+     * date is crossed while the test runs
+     */
+    private void review(long deck, long card, Random random) {
+        Map<String, Object> previous = jdbcTemplate.queryForMap(
+                "SELECT card_state, due_date, is_leech FROM study_states WHERE user_id = ? AND card_id = ?",
+                userId, card);
+        CardState previousState = CardState.valueOf((String) previous.get("card_state"));
+        LocalDateTime previousDue = ((Timestamp) previous.get("due_date")).toLocalDateTime();
+        boolean wasLeech = Boolean.TRUE.equals(previous.get("is_leech"));
+
+        CardState state = REVIEWED_STATES[random.nextInt(REVIEWED_STATES.length)];
+        LocalDateTime due = random.nextBoolean()
+                ? now.minusHours(1 + random.nextInt(1000))
+                : now.plusHours(1 + random.nextInt(1000));
+        boolean leech = random.nextInt(8) == 0;
+
+        jdbcTemplate.update("UPDATE study_states SET card_state = ?, due_date = ?, is_leech = ? " +
+                        "WHERE user_id = ? AND card_id = ?",
+                state.name(), Timestamp.valueOf(due), leech, userId, card);
+        counterService.onReviewed(userId, deck, previousState, previousDue, wasLeech, state, due, leech);
+    }
+
+    private void assertMatchesRecount(long deck) {
+        Counters counters = counterService.getDeckCounters(userId, deck);
+        // Same clock as the service (the database session may be in another time zone)
+        Map<String, Object> expected = new NamedParameterJdbcTemplate(jdbcTemplate).queryForMap(
+                "SELECT COUNT(*) FILTER (WHERE card_state = 'NEW') AS new_count, " +
+                "COUNT(*) FILTER (WHERE card_state IN ('LEARNING', 'RELEARNING')) AS learning_count, " +
+                "COUNT(*) FILTER (WHERE card_state = 'REVIEW') AS review_count, " +
+                "COUNT(*) FILTER (WHERE is_leech) AS leech_count, " +
+                "COUNT(*) FILTER (WHERE card_state IN ('LEARNING', 'RELEARNING') AND due_date <= :now) AS learning_due, " +
+                "COUNT(*) FILTER (WHERE card_state = 'REVIEW' AND due_date <= :now) AS review_due, " +
+                "MIN(due_date) FILTER (WHERE card_state <> 'NEW' AND due_date > :now) AS next_due " +
+                "FROM study_states WHERE user_id = :userId AND deck_id = :deckId",
+                Map.of("userId", userId, "deckId", deck, "now", Timestamp.valueOf(LocalDateTime.now())));
+
+        assertThat(counters.newCards).isEqualTo(((Number) expected.get("new_count")).intValue());
+        assertThat(counters.learningCards).isEqualTo(((Number) expected.get("learning_count")).intValue());
+        assertThat(counters.reviewCards).isEqualTo(((Number) expected.get("review_count")).intValue());
+        assertThat(counters.leechCards).isEqualTo(((Number) expected.get("leech_count")).intValue());
+        assertThat(counters.learningDue).isEqualTo(((Number) expected.get("learning_due")).intValue());
+        assertThat(counters.reviewDue).isEqualTo(((Number) expected.get("review_due")).intValue());
+        Timestamp nextDue = (Timestamp) expected.get("next_due");
+        assertThat(counters.nextDueAt).isEqualTo(nextDue != null ? nextDue.toLocalDateTime() : null);
+    }
+}
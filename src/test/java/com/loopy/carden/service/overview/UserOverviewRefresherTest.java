@@ -0,0 +1,72 @@
+package com.loopy.carden.service.overview;
+
+import com.loopy.carden.service.analytics.AnalyticsResultCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserOverviewRefresherTest {
+
+    private final UserOverviewService userOverviewService = mock(UserOverviewService.class);
+    private final AnalyticsResultCache analyticsResultCache = mock(AnalyticsResultCache.class);
+    private UserOverviewRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new UserOverviewRefresher(userOverviewService, analyticsResultCache);
+        ReflectionTestUtils.setField(refresher, "refreshThreads", 2);
+        ReflectionTestUtils.setField(refresher, "debounceSeconds", 1L);
+        ReflectionTestUtils.setField(refresher, "maxPendingUsers", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refresher.stop();
+    }
+
+    @Test
+    void changesWithinTheIntervalShareOneRefresh() {
+        refresher.start();
+
+        for (int i = 0; i < 10; i++) {
+            refresher.onStudyActivity(new StudyActivityEvent(7L));
+        }
+
+        verify(userOverviewService, after(300).never()).refresh(7L);
+        verify(userOverviewService, timeout(3000)).refresh(7L);
+        verify(analyticsResultCache, timeout(1000)).invalidateAfterCommit(7L);
+        verify(userOverviewService, after(500).times(1)).refresh(7L);
+    }
+
+    @Test
+    void changeAfterTheRefreshStartedGetsItsOwnRefresh() {
+        refresher.start();
+
+        refresher.onStudyActivity(new StudyActivityEvent(7L));
+        verify(userOverviewService, timeout(3000)).refresh(7L);
+        refresher.onStudyActivity(new StudyActivityEvent(7L));
+
+        verify(userOverviewService, timeout(3000).times(2)).refresh(7L);
+    }
+
+    @Test
+    void changesAreDroppedWhileTooManyUsersAreWaiting() {
+        ReflectionTestUtils.setField(refresher, "maxPendingUsers", 1);
+        refresher.start();
+
+        refresher.onStudyActivity(new StudyActivityEvent(1L));
+        refresher.onStudyActivity(new StudyActivityEvent(2L));
+
+        assertThat(refresher.getDroppedCount()).isEqualTo(1);
+        verify(userOverviewService, timeout(3000)).refresh(1L);
+        verify(userOverviewService, after(300).never()).refresh(2L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.loopy.carden.service.pagination;
+
+import com.loopy.carden.dto.CursorPageDto;
+import com.loopy.carden.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorDecodesToTheSameKey() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_456_000), 42L);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void wholeSecondsAndLargeIdsSurviveTheRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 9, 30), 1L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingTokenMeansTheFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encodeRaw("2025-03-01T09:30"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encodeRaw("yesterday|5"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encodeRaw("2025-03-01T09:30|x"))).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void pageWithMoreRowsCarriesTheKeyOfItsLastRow() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 9, 30);
+        List<KeysetCursor> rows = List.of(new KeysetCursor(time, 1L), new KeysetCursor(time.plusMinutes(1), 2L));
+
+        CursorPageDto<Long> page = KeysetCursor.toPage(new SliceImpl<>(rows, PageRequest.of(0, 2), true),
+                Function.identity(), KeysetCursor::id);
+
+        assertThat(page.getContent()).containsExactly(1L, 2L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(rows.get(1));
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        List<KeysetCursor> rows = List.of(new KeysetCursor(LocalDateTime.of(2025, 3, 1, 9, 30), 1L));
+
+        CursorPageDto<Long> page = KeysetCursor.toPage(new SliceImpl<>(rows, PageRequest.of(0, 2), false),
+                Function.identity(), KeysetCursor::id);
+
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+package com.loopy.carden.service.queue;
+
+import com.loopy.carden.dto.practice.PracticeSessionStartDto;
+import com.loopy.carden.entity.ReviewSession.StudyMode;
+import com.loopy.carden.repository.StudyStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudyQueueServiceTest {
+
+    private final StudyStateRepository studyStateRepository = mock(StudyStateRepository.class);
+    private StudyQueueService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StudyQueueService(studyStateRepository);
+        ReflectionTestUtils.setField(service, "maxSessions", 10);
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 12);
+    }
+
+    @Test
+    void missingLimitsFallBackToTheDefaults() {
+        PracticeSessionStartDto options = new PracticeSessionStartDto();
+        options.setStudyMode(StudyMode.FLIP);
+        options.setMaxNewCards(null);
+        options.setMaxReviewCards(null);
+
+        service.load(1L, 7L, options);
+
+        verify(studyStateRepository).findSessionQueueKeys(eq(7L), isNull(), isNull(), eq(true), eq(true), eq(true),
+                eq(PracticeSessionStartDto.DEFAULT_MAX_REVIEW_CARDS), eq(PracticeSessionStartDto.DEFAULT_MAX_NEW_CARDS),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void explicitZeroLimitIsKept() {
+        PracticeSessionStartDto options = new PracticeSessionStartDto();
+        options.setStudyMode(StudyMode.FLIP);
+        options.setMaxNewCards(0);
+
+        service.load(1L, 7L, options);
+
+        verify(studyStateRepository).findSessionQueueKeys(eq(7L), isNull(), isNull(), eq(true), eq(true), eq(true),
+                eq(PracticeSessionStartDto.DEFAULT_MAX_REVIEW_CARDS), eq(0), any(LocalDateTime.class));
+    }
+
+    @Test
+    void loadedQueueReplacesThePreviousSessionOfTheUser() {
+        LocalDateTime due = LocalDateTime.now().minusHours(1);
+        when(studyStateRepository.findSessionQueueKeys(anyLong(), any(), any(), anyBoolean(), anyBoolean(),
+                anyBoolean(), anyInt(), anyInt(), any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{101L, 1L, 3L, "REVIEW", Timestamp.valueOf(due),
+                        Timestamp.valueOf(due.minusDays(5))}));
+        PracticeSessionStartDto options = new PracticeSessionStartDto();
+        options.setStudyMode(StudyMode.FLIP);
+
+        service.load(1L, 7L, options);
+        StudyQueue second = service.load(2L, 7L, options);
+
+        assertThat(service.getQueue(7L)).containsSame(second);
+        assertThat(second.contains(1L)).isTrue();
+        assertThat(second.countAvailable(LocalDateTime.now())).isEqualTo(1);
+    }
+}
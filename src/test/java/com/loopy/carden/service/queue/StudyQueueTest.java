@@ -0,0 +1,95 @@
+package com.loopy.carden.service.queue;
+
+import com.loopy.carden.service.queue.StudyQueue.Entry;
+import com.loopy.carden.service.queue.StudyQueue.PriorityClass;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudyQueueTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    private final StudyQueue queue = new StudyQueue(1L, 7L, null, null, NOW.plusHours(12));
+
+    @Test
+    void servesDueLearningThenDueReviewThenNewCards() {
+        queue.upsert(entry(1L, PriorityClass.NEW, NOW.minusDays(3)));
+        queue.upsert(entry(2L, PriorityClass.REVIEW, NOW.minusDays(1)));
+        queue.upsert(entry(3L, PriorityClass.LEARNING, NOW.minusMinutes(5)));
+        queue.upsert(entry(4L, PriorityClass.REVIEW, NOW.minusDays(2)));
+
+        assertThat(queue.peekAhead(NOW, 10)).extracting(Entry::cardId).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(queue.peekNext(NOW)).map(Entry::cardId).contains(3L);
+    }
+
+    @Test
+    void cardsNotYetDueAreSkippedButNewCardsAlwaysCount() {
+        queue.upsert(entry(1L, PriorityClass.LEARNING, NOW.plusMinutes(10)));
+        queue.upsert(entry(2L, PriorityClass.REVIEW, NOW.plusDays(1)));
+        queue.upsert(entry(3L, PriorityClass.NEW, NOW.plusDays(1)));
+
+        assertThat(queue.peekNext(NOW)).map(Entry::cardId).contains(3L);
+        assertThat(queue.peekAhead(NOW, 10)).extracting(Entry::cardId).containsExactly(3L);
+        assertThat(queue.countAvailable(NOW)).isEqualTo(1);
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    @Test
+    void reinsertedLearningCardMovesToItsNewDueTime() {
+        queue.upsert(entry(1L, PriorityClass.LEARNING, NOW.minusMinutes(5)));
+        queue.upsert(entry(2L, PriorityClass.LEARNING, NOW.minusMinutes(1)));
+        queue.upsert(entry(3L, PriorityClass.REVIEW, NOW.minusDays(1)));
+
+        // Card 1 answered Hard: due again in ten minutes
+        queue.upsert(entry(1L, PriorityClass.LEARNING, NOW.plusMinutes(10)));
+
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(queue.peekAhead(NOW, 10)).extracting(Entry::cardId).containsExactly(2L, 3L);
+        assertThat(queue.peekAhead(NOW.plusMinutes(10), 10)).extracting(Entry::cardId).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void reviewedNewCardLeavesTheNewClass() {
+        queue.upsert(entry(1L, PriorityClass.NEW, NOW.minusDays(2)));
+        queue.upsert(entry(2L, PriorityClass.NEW, NOW.minusDays(1)));
+
+        queue.upsert(entry(1L, PriorityClass.LEARNING, NOW.plusMinutes(1)));
+
+        assertThat(queue.peekNext(NOW)).map(Entry::cardId).contains(2L);
+        assertThat(queue.peekNext(NOW.plusMinutes(1))).map(Entry::cardId).contains(1L);
+    }
+
+    @Test
+    void removedCardIsNoLongerServed() {
+        queue.upsert(entry(1L, PriorityClass.REVIEW, NOW.minusDays(1)));
+        queue.upsert(entry(2L, PriorityClass.REVIEW, NOW.minusDays(1)));
+
+        queue.remove(1L);
+        queue.remove(99L);
+
+        assertThat(queue.contains(1L)).isFalse();
+        assertThat(queue.peekAhead(NOW, 10)).extracting(Entry::cardId).containsExactly(2L);
+    }
+
+    @Test
+    void equalTimesAreOrderedByCardId() {
+        queue.upsert(entry(5L, PriorityClass.REVIEW, NOW.minusDays(1)));
+        queue.upsert(entry(2L, PriorityClass.REVIEW, NOW.minusDays(1)));
+        queue.upsert(entry(9L, PriorityClass.REVIEW, NOW.minusDays(1)));
+
+        assertThat(queue.peekAhead(NOW, 2)).extracting(Entry::cardId).containsExactly(2L, 5L);
+    }
+
+    @Test
+    void emptyQueueHasNoNextCard() {
+        assertThat(queue.peekNext(NOW)).isEmpty();
+        assertThat(queue.isExpired(NOW.plusHours(13))).isTrue();
+    }
+
+    private static Entry entry(Long cardId, PriorityClass priorityClass, LocalDateTime orderTime) {
+        return new Entry(cardId, cardId + 100, 3L, priorityClass, orderTime);
+    }
+}
@@ -0,0 +1,139 @@
+package com.loopy.carden.service.reviewlog;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ReviewLogWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<ReviewLogEntry> written = Collections.synchronizedList(new ArrayList<>());
+    private ReviewLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        // The writer reuses its batch list, so copy what each call received
+        doAnswer(invocation -> {
+            Collection<ReviewLogEntry> batch = invocation.getArgument(1);
+            written.addAll(batch);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+
+        writer = new ReviewLogWriter(jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "bufferCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 20L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        writer.stop();
+    }
+
+    @Test
+    void entriesAppendedOutsideATransactionAreWrittenInTheBackground() {
+        writer.start();
+
+        writer.append(entry(1L));
+        writer.append(entry(2L));
+
+        verify(jdbcTemplate, timeout(2000).atLeastOnce()).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        awaitWritten(2);
+        assertThat(written).extracting(ReviewLogEntry::cardId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void entriesAppendedInATransactionWaitForTheCommit() throws InterruptedException {
+        writer.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.append(entry(1L));
+        Thread.sleep(100);
+        verifyNoInteractions(jdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        awaitWritten(1);
+        assertThat(written).extracting(ReviewLogEntry::cardId).containsExactly(1L);
+    }
+
+    @Test
+    void stopWritesEveryBufferedEntryInBatches() {
+        writer.start();
+        for (long cardId = 1; cardId <= 25; cardId++) {
+            writer.append(entry(cardId));
+        }
+
+        writer.stop();
+
+        assertThat(written).hasSize(25);
+    }
+
+    @Test
+    void entriesAreDroppedAndCountedWhenTheBufferIsFull() {
+        // Running, but without a flusher draining the buffer
+        ReflectionTestUtils.setField(writer, "buffer", new ArrayBlockingQueue<ReviewLogEntry>(2));
+        ReflectionTestUtils.setField(writer, "running", true);
+
+        writer.append(entry(1L));
+        writer.append(entry(2L));
+        writer.append(entry(3L));
+
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledWriterIgnoresEntries() {
+        ReflectionTestUtils.setField(writer, "enabled", false);
+        writer.start();
+
+        writer.append(entry(1L));
+
+        assertThat(writer.getDroppedCount()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void awaitWritten(int count) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (written.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(written).hasSize(count);
+    }
+
+    private static ReviewLogEntry entry(Long cardId) {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 9, 30);
+        return new ReviewLogEntry(7L, cardId, 3L, now, 2, CardState.NEW, CardState.LEARNING,
+                1, 1, 2.5, 2.5, now, now.plusMinutes(10), 1200);
+    }
+}
@@ -0,0 +1,162 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FsrsSchedulerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 30);
+    private static final double[] W = FsrsScheduler.DEFAULT_WEIGHTS;
+
+    // nextDouble() == 0.5, so the ±5% fuzz is exactly zero
+    private static final RandomGenerator NO_FUZZ = () -> Long.MIN_VALUE;
+
+    private final FsrsScheduler scheduler = FsrsScheduler.withDefaults();
+
+    @Test
+    void intervalEqualsStabilityAtNinetyPercentRetention() {
+        assertThat(scheduler.nextInterval(1)).isEqualTo(1);
+        assertThat(scheduler.nextInterval(10)).isEqualTo(10);
+        assertThat(scheduler.nextInterval(123.4)).isEqualTo(123);
+        assertThat(FsrsScheduler.retrievability(10, 10)).isCloseTo(0.9, within(1e-9));
+    }
+
+    @Test
+    void higherDesiredRetentionGivesShorterIntervals() {
+        FsrsScheduler strict = new FsrsScheduler(W, 0.95);
+        FsrsScheduler relaxed = new FsrsScheduler(W, 0.8);
+
+        assertThat(strict.nextInterval(100)).isLessThan(scheduler.nextInterval(100));
+        assertThat(relaxed.nextInterval(100)).isGreaterThan(scheduler.nextInterval(100));
+    }
+
+    @Test
+    void intervalIsCappedAtOneHundredYears() {
+        assertThat(scheduler.nextInterval(1e9)).isEqualTo(FsrsScheduler.MAX_INTERVAL_DAYS);
+        assertThat(scheduler.nextInterval(0.01)).isEqualTo(1);
+    }
+
+    @Test
+    void easyOnANewCardGraduatesWithItsInitialStability() {
+        SrsState state = SrsState.newCard(epoch(START));
+
+        scheduler.review(state, 3, epoch(START), NO_FUZZ);
+
+        assertThat(state.cardState).isEqualTo(CardState.REVIEW);
+        assertThat(state.stability).isCloseTo(W[3], within(1e-9));
+        assertThat(state.difficulty).isCloseTo(W[4] - W[5], within(1e-9));
+        assertThat(state.intervalDays).isEqualTo(14);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusDays(14)));
+        assertThat(state.graduatedAt).isEqualTo(epoch(START));
+    }
+
+    @Test
+    void goodOnANewCardAdvancesToTheTenMinuteStep() {
+        SrsState state = SrsState.newCard(epoch(START));
+
+        scheduler.review(state, 2, epoch(START), NO_FUZZ);
+
+        assertThat(state.cardState).isEqualTo(CardState.LEARNING);
+        assertThat(state.currentLearningStep).isEqualTo(1);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusMinutes(10)));
+        assertThat(state.stability).isCloseTo(W[2], within(1e-9));
+    }
+
+    @Test
+    void sameDayReviewsLeaveTheMemoryStateUnchanged() {
+        SrsState state = SrsState.newCard(epoch(START));
+        scheduler.review(state, 2, epoch(START), NO_FUZZ);
+        double stability = state.stability;
+        double difficulty = state.difficulty;
+
+        scheduler.review(state, 0, epoch(START.plusMinutes(10)), NO_FUZZ);
+
+        assertThat(state.stability).isEqualTo(stability);
+        assertThat(state.difficulty).isEqualTo(difficulty);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusMinutes(11)));
+    }
+
+    @Test
+    void successfulReviewIncreasesStabilityAndFailureLowersIt() {
+        SrsState recalled = reviewCard(10, 5);
+        SrsState forgotten = reviewCard(10, 5);
+
+        scheduler.review(recalled, 2, epoch(START), NO_FUZZ);
+        scheduler.review(forgotten, 0, epoch(START), NO_FUZZ);
+
+        assertThat(recalled.stability).isGreaterThan(10);
+        assertThat(recalled.cardState).isEqualTo(CardState.REVIEW);
+        assertThat(recalled.intervalDays).isEqualTo(scheduler.nextInterval(recalled.stability));
+        assertThat(forgotten.stability).isLessThan(10);
+        assertThat(forgotten.cardState).isEqualTo(CardState.RELEARNING);
+        assertThat(forgotten.dueAt).isEqualTo(epoch(START.plusMinutes(1)));
+    }
+
+    @Test
+    void easyGrowsStabilityMoreThanGoodAndGoodMoreThanHard() {
+        double retrievability = FsrsScheduler.retrievability(10, 10);
+
+        double hard = FsrsScheduler.nextRecallStability(W, 5, 10, retrievability, 2);
+        double good = FsrsScheduler.nextRecallStability(W, 5, 10, retrievability, 3);
+        double easy = FsrsScheduler.nextRecallStability(W, 5, 10, retrievability, 4);
+
+        assertThat(hard).isLessThan(good);
+        assertThat(good).isLessThan(easy);
+    }
+
+    @Test
+    void forgetStabilityNeverExceedsThePreviousStability() {
+        double stability = FsrsScheduler.nextForgetStability(W, 1, 0.5, FsrsScheduler.retrievability(0.1, 0.5));
+
+        assertThat(stability).isLessThanOrEqualTo(0.5);
+    }
+
+    @Test
+    void difficultyStaysBetweenOneAndTen() {
+        double difficulty = 5;
+        for (int i = 0; i < 100; i++) {
+            difficulty = FsrsScheduler.nextDifficulty(W, difficulty, 1);
+        }
+        assertThat(difficulty).isLessThanOrEqualTo(10);
+
+        for (int i = 0; i < 100; i++) {
+            difficulty = FsrsScheduler.nextDifficulty(W, difficulty, 4);
+        }
+        assertThat(difficulty).isGreaterThanOrEqualTo(1);
+        assertThat(FsrsScheduler.initialDifficulty(W, 4)).isBetween(1.0, 10.0);
+    }
+
+    @Test
+    void rejectsWeightVectorsOfTheWrongLength() {
+        assertThatThrownBy(() -> new FsrsScheduler(new double[3], 0.9))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Review card with the given memory state, last reviewed exactly {@code stability} days ago
+     * (retrievability 0.9) and due now
+     */
+    private static SrsState reviewCard(double stability, double difficulty) {
+        SrsState state = new SrsState();
+        state.cardState = CardState.REVIEW;
+        state.stability = stability;
+        state.difficulty = difficulty;
+        state.intervalDays = (int) stability;
+        state.repetitionCount = 3;
+        state.dueAt = epoch(START);
+        state.lastReviewAt = epoch(START.minusDays((long) stability));
+        return state;
+    }
+
+    private static long epoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,292 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class Sm2SchedulerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    // nextDouble() == 0.5, so the ±5% fuzz is exactly zero
+    private static final RandomGenerator NO_FUZZ = () -> Long.MIN_VALUE;
+
+    private final Sm2Scheduler scheduler = new Sm2Scheduler();
+
+    @Test
+    void goodOnANewCardAdvancesToTheTenMinuteStep() {
+        SrsState state = SrsState.newCard(epoch(START));
+
+        scheduler.review(state, 2, epoch(START), NO_FUZZ);
+
+        assertThat(state.cardState).isEqualTo(CardState.LEARNING);
+        assertThat(state.currentLearningStep).isEqualTo(1);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusMinutes(10)));
+        assertThat(state.easeFactor).isCloseTo(2.5, within(1e-9));
+    }
+
+    @Test
+    void easyOnANewCardGraduatesWithAFourDayInterval() {
+        SrsState state = SrsState.newCard(epoch(START));
+
+        scheduler.review(state, 3, epoch(START), NO_FUZZ);
+
+        assertThat(state.cardState).isEqualTo(CardState.REVIEW);
+        assertThat(state.intervalDays).isEqualTo(4);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusDays(4)));
+        assertThat(state.easeFactor).isCloseTo(2.65, within(1e-9));
+        assertThat(state.graduatedAt).isEqualTo(epoch(START));
+        assertThat(state.repetitionCount).isEqualTo(1);
+    }
+
+    @Test
+    void againOnAReviewCardSendsItToRelearning() {
+        SrsState state = reviewCard(10, 2.5);
+
+        scheduler.review(state, 0, epoch(START), NO_FUZZ);
+
+        assertThat(state.cardState).isEqualTo(CardState.RELEARNING);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusMinutes(1)));
+        assertThat(state.easeFactor).isCloseTo(2.3, within(1e-9));
+        assertThat(state.consecutiveFailures).isEqualTo(1);
+        assertThat(state.intervalDays).isEqualTo(10);
+    }
+
+    @Test
+    void goodOnAReviewCardMultipliesTheIntervalByTheEaseFactor() {
+        SrsState state = reviewCard(10, 2.5);
+
+        scheduler.review(state, 2, epoch(START), NO_FUZZ);
+
+        assertThat(state.intervalDays).isEqualTo(25);
+        assertThat(state.dueAt).isEqualTo(epoch(START.plusDays(25)));
+        assertThat(state.repetitionCount).isEqualTo(4);
+    }
+
+    @Test
+    void intervalIsCappedAtOneYear() {
+        SrsState state = reviewCard(300, 3.0);
+
+        scheduler.review(state, 3, epoch(START), NO_FUZZ);
+
+        assertThat(state.intervalDays).isEqualTo(Sm2Scheduler.MAX_INTERVAL_DAYS);
+        assertThat(state.easeFactor).isEqualTo(Sm2Scheduler.MAX_EASE_FACTOR);
+    }
+
+    @Test
+    void cardBecomesALeechOnTheReviewAfterEightFailuresInARow() {
+        SrsState state = SrsState.newCard(epoch(START));
+        LocalDateTime time = START;
+        for (int i = 0; i < SrsScheduler.LEECH_THRESHOLD; i++) {
+            scheduler.review(state, 0, epoch(time), NO_FUZZ);
+            time = time.plusMinutes(1);
+        }
+        assertThat(state.leech).isFalse();
+
+        scheduler.review(state, 0, epoch(time), NO_FUZZ);
+
+        assertThat(state.leech).isTrue();
+        assertThat(state.easeFactor).isEqualTo(Sm2Scheduler.MIN_EASE_FACTOR);
+    }
+
+    @Test
+    void rejectsGradesOutsideZeroToThree() {
+        SrsState state = SrsState.newCard(epoch(START));
+
+        assertThatThrownBy(() -> scheduler.review(state, 4, epoch(START), NO_FUZZ))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Every state the kernel produces matches the SM-2 code it was extracted from, for random
+     * grade sequences with the same fuzz draws
+     */
+    @Test
+    void matchesThePreviousImplementationOverRandomReviewHistories() {
+        Random grades = new Random(42);
+        for (int history = 0; history < 500; history++) {
+            long seed = grades.nextLong();
+            Random kernelFuzz = new Random(seed);
+            Random baselineFuzz = new Random(seed);
+
+            SrsState state = SrsState.newCard(epoch(START));
+            BaselineSm2 baseline = new BaselineSm2(START);
+            LocalDateTime time = START;
+
+            for (int review = 0; review < 40; review++) {
+                int grade = grades.nextInt(4);
+                scheduler.review(state, grade, epoch(time), kernelFuzz);
+                baseline.review(grade, time, baselineFuzz);
+
+                assertThat(state.cardState).isEqualTo(baseline.cardState);
+                assertThat(state.intervalDays).isEqualTo(baseline.intervalDays);
+                assertThat(state.dueAt).isEqualTo(epoch(baseline.dueDate));
+                assertThat(state.easeFactor).isEqualTo(baseline.easeFactor);
+                assertThat(state.repetitionCount).isEqualTo(baseline.repetitionCount);
+                assertThat(state.currentLearningStep).isEqualTo(baseline.currentLearningStep);
+                assertThat(state.consecutiveFailures).isEqualTo(baseline.consecutiveFailures);
+                assertThat(state.totalReviews).isEqualTo(baseline.totalReviews);
+                assertThat(state.correctReviews).isEqualTo(baseline.correctReviews);
+                assertThat(state.accuracyRate).isEqualTo(baseline.accuracyRate);
+                assertThat(state.leech).isEqualTo(baseline.leech);
+                assertThat(state.graduatedAt).isEqualTo(baseline.graduatedAt != null
+                        ? epoch(baseline.graduatedAt) : SrsState.NO_TIME);
+
+                // Review when due, sometimes late
+                time = baseline.dueDate.plusHours(grades.nextInt(48));
+            }
+        }
+    }
+
+    private static SrsState reviewCard(int intervalDays, double easeFactor) {
+        SrsState state = new SrsState();
+        state.cardState = CardState.REVIEW;
+        state.intervalDays = intervalDays;
+        state.easeFactor = easeFactor;
+        state.repetitionCount = 3;
+        state.dueAt = epoch(START);
+        state.lastReviewAt = epoch(START.minusDays(intervalDays));
+        return state;
+    }
+
+    private static long epoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * The SM-2 logic as it was in StudyStateService before the kernel was extracted, on
+     * LocalDateTime, with Math.random() replaced by the given generator
+     */
+    private static final class BaselineSm2 {
+
+        private static final int[] LEARNING_STEPS = {1, 10, 1440};
+
+        CardState cardState = CardState.NEW;
+        int repetitionCount;
+        double easeFactor = 2.5;
+        int intervalDays = 1;
+        LocalDateTime dueDate;
+        LocalDateTime lastReviewDate;
+        int totalReviews;
+        int correctReviews;
+        double accuracyRate;
+        int consecutiveFailures;
+        int currentLearningStep;
+        boolean leech;
+        LocalDateTime graduatedAt;
+
+        BaselineSm2(LocalDateTime now) {
+            dueDate = now;
+        }
+
+        void review(int grade, LocalDateTime reviewTime, Random random) {
+            lastReviewDate = reviewTime;
+            totalReviews++;
+            if (grade >= 2) {
+                correctReviews++;
+            }
+            accuracyRate = (double) correctReviews / totalReviews * 100.0;
+            if (consecutiveFailures >= 8) {
+                leech = true;
+            }
+
+            if (cardState == CardState.NEW || cardState == CardState.LEARNING || cardState == CardState.RELEARNING) {
+                learning(grade, reviewTime);
+            } else {
+                reviewing(grade, reviewTime);
+            }
+
+            if (cardState == CardState.REVIEW) {
+                int interval = intervalDays;
+                if (interval > 2) {
+                    double fuzzRange = interval * 0.05;
+                    double fuzzAmount = (random.nextDouble() * 2 - 1) * fuzzRange;
+                    interval = Math.max(1, (int) (interval + fuzzAmount));
+                }
+                interval = Math.min(interval, 365);
+                intervalDays = interval;
+                dueDate = lastReviewDate.plusDays(interval);
+            }
+        }
+
+        private void learning(int grade, LocalDateTime reviewTime) {
+            int step = currentLearningStep;
+            switch (grade) {
+                case 0 -> {
+                    cardState = CardState.LEARNING;
+                    step = 0;
+                    dueDate = reviewTime.plusMinutes(LEARNING_STEPS[step]);
+                    easeFactor = Math.max(1.3, easeFactor - 0.2);
+                    consecutiveFailures++;
+                }
+                case 1 -> {
+                    cardState = CardState.LEARNING;
+                    dueDate = reviewTime.plusMinutes(LEARNING_STEPS[step]);
+                    easeFactor = Math.max(1.3, easeFactor - 0.15);
+                }
+                case 2 -> {
+                    cardState = CardState.LEARNING;
+                    if (step < LEARNING_STEPS.length - 1) {
+                        step++;
+                        dueDate = reviewTime.plusMinutes(LEARNING_STEPS[step]);
+                    } else {
+                        graduate(1, reviewTime);
+                    }
+                    consecutiveFailures = 0;
+                }
+                default -> {
+                    graduate(4, reviewTime);
+                    easeFactor = Math.min(3.0, easeFactor + 0.15);
+                    consecutiveFailures = 0;
+                }
+            }
+            currentLearningStep = step;
+        }
+
+        private void reviewing(int grade, LocalDateTime reviewTime) {
+            switch (grade) {
+                case 0 -> {
+                    cardState = CardState.RELEARNING;
+                    dueDate = reviewTime.plusMinutes(LEARNING_STEPS[0]);
+                    easeFactor = Math.max(1.3, easeFactor - 0.2);
+                    consecutiveFailures++;
+                    currentLearningStep = 0;
+                }
+                case 1 -> {
+                    intervalDays = Math.max(1, (int) (intervalDays * 1.2));
+                    dueDate = reviewTime.plusDays(intervalDays);
+                    easeFactor = Math.max(1.3, easeFactor - 0.15);
+                }
+                case 2 -> {
+                    intervalDays = Math.max(1, (int) (intervalDays * easeFactor));
+                    dueDate = reviewTime.plusDays(intervalDays);
+                    repetitionCount++;
+                    consecutiveFailures = 0;
+                }
+                default -> {
+                    intervalDays = Math.max(1, (int) (intervalDays * easeFactor * 1.3));
+                    dueDate = reviewTime.plusDays(intervalDays);
+                    repetitionCount++;
+                    easeFactor = Math.min(3.0, easeFactor + 0.1);
+                    consecutiveFailures = 0;
+                }
+            }
+        }
+
+        private void graduate(int days, LocalDateTime reviewTime) {
+            cardState = CardState.REVIEW;
+            intervalDays = days;
+            dueDate = reviewTime.plusDays(days);
+            repetitionCount = 1;
+            graduatedAt = reviewTime;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.loopy.carden.service.srs;
+
+import com.loopy.carden.entity.StudyState.SrsAlgorithm;
+import com.loopy.carden.repository.UserFsrsParametersRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SrsSchedulerResolverTest {
+
+    private final Sm2Scheduler sm2Scheduler = mock(Sm2Scheduler.class);
+    private final UserFsrsParametersRepository parametersRepository = mock(UserFsrsParametersRepository.class);
+
+    @Test
+    void fsrsSchedulerIsCachedUntilEvicted() {
+        SrsSchedulerResolver resolver = resolver(300);
+
+        SrsScheduler first = resolver.resolve(7L, SrsAlgorithm.FSRS);
+        assertThat(resolver.resolve(7L, SrsAlgorithm.FSRS)).isSameAs(first);
+        verify(parametersRepository, times(1)).findByUserId(7L);
+
+        resolver.evict(7L);
+
+        assertThat(resolver.resolve(7L, SrsAlgorithm.FSRS)).isNotSameAs(first);
+        verify(parametersRepository, times(2)).findByUserId(7L);
+    }
+
+    @Test
+    void expiredSchedulerIsReloaded() {
+        // What another node sees once the TTL has passed, without having received the eviction
+        SrsSchedulerResolver resolver = resolver(0);
+
+        resolver.resolve(7L, SrsAlgorithm.FSRS);
+        resolver.resolve(7L, SrsAlgorithm.FSRS);
+
+        verify(parametersRepository, times(2)).findByUserId(7L);
+    }
+
+    @Test
+    void sm2IsShared() {
+        SrsSchedulerResolver resolver = resolver(300);
+
+        assertThat(resolver.resolve(7L, SrsAlgorithm.SM2)).isSameAs(sm2Scheduler);
+        assertThat(resolver.resolve(8L, null)).isSameAs(sm2Scheduler);
+    }
+
+    private SrsSchedulerResolver resolver(long ttlSeconds) {
+        when(parametersRepository.findByUserId(7L)).thenReturn(Optional.empty());
+        SrsSchedulerResolver resolver = new SrsSchedulerResolver(sm2Scheduler, parametersRepository);
+        ReflectionTestUtils.setField(resolver, "maxUsers", 100);
+        ReflectionTestUtils.setField(resolver, "ttlSeconds", ttlSeconds);
+        resolver.start();
+        return resolver;
+    }
+}
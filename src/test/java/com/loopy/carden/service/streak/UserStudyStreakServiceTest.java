@@ -0,0 +1,150 @@
+package com.loopy.carden.service.streak;
+
+import com.loopy.carden.config.PostgresContainerInitializer;
+import com.loopy.carden.service.streak.UserStudyStreakService.Streak;
+import com.loopy.carden.support.DatabaseFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs maintained by {@link UserStudyStreakService} against runs counted from the study dates
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = PostgresContainerInitializer.class)
+class UserStudyStreakServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserStudyStreakService streakService;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        streakService = new UserStudyStreakService(new NamedParameterJdbcTemplate(jdbcTemplate));
+        userId = new DatabaseFixtures(jdbcTemplate).user();
+    }
+
+    @Test
+    void userWithoutStudyDaysHasNoStreak() {
+        Streak streak = streakService.getStreak(userId);
+
+        assertThat(streak.lastStudyDate()).isNull();
+        assertThat(streak.currentStreak(START)).isZero();
+        assertThat(streak.longestRun()).isZero();
+    }
+
+    @Test
+    void consecutiveDaysFormOneRun() {
+        for (int day = 0; day < 5; day++) {
+            streakService.recordStudyDay(userId, START.plusDays(day));
+        }
+
+        Streak streak = streakService.getStreak(userId);
+
+        assertThat(streak.lastRun()).isEqualTo(5);
+        assertThat(streak.longestRun()).isEqualTo(5);
+        assertThat(streak.streakStartDate(START.plusDays(4))).isEqualTo(START);
+    }
+
+    @Test
+    void fillingTheGapJoinsTwoRuns() {
+        streakService.recordStudyDay(userId, START);
+        streakService.recordStudyDay(userId, START.plusDays(1));
+        streakService.recordStudyDay(userId, START.plusDays(3));
+        streakService.recordStudyDay(userId, START.plusDays(4));
+        assertThat(streakService.getStreak(userId).longestRun()).isEqualTo(2);
+
+        streakService.recordStudyDay(userId, START.plusDays(2));
+
+        Streak streak = streakService.getStreak(userId);
+        assertThat(streak.lastRun()).isEqualTo(5);
+        assertThat(streak.longestRun()).isEqualTo(5);
+    }
+
+    @Test
+    void dayBeforeTheFirstRebasesTheBitmap() {
+        streakService.recordStudyDay(userId, START.plusDays(10));
+        streakService.recordStudyDay(userId, START);
+        streakService.recordStudyDay(userId, START.plusDays(1));
+
+        Streak streak = streakService.getStreak(userId);
+
+        assertThat(streak.firstStudyDate()).isEqualTo(START);
+        assertThat(streak.lastStudyDate()).isEqualTo(START.plusDays(10));
+        assertThat(streak.studyDates()).containsExactly(START, START.plusDays(1), START.plusDays(10));
+        assertThat(streak.lastRun()).isEqualTo(1);
+        assertThat(streak.longestRun()).isEqualTo(2);
+    }
+
+    @Test
+    void recordingADayAgainChangesNothing() {
+        streakService.recordStudyDay(userId, START);
+        streakService.recordStudyDay(userId, START);
+
+        Streak streak = streakService.getStreak(userId);
+
+        assertThat(streak.studyDates()).containsExactly(START);
+        assertThat(streak.lastRun()).isEqualTo(1);
+    }
+
+    @Test
+    void runsMatchTheStudyDatesForRandomCompletionOrders() {
+        Random random = new Random(3);
+        TreeSet<LocalDate> studied = new TreeSet<>();
+        for (int i = 0; i < 150; i++) {
+            LocalDate day = START.plusDays(random.nextInt(120));
+            studied.add(day);
+            streakService.recordStudyDay(userId, day);
+
+            Streak streak = streakService.getStreak(userId);
+            assertThat(streak.studyDates()).containsExactlyElementsOf(studied);
+            assertThat(streak.lastRun()).isEqualTo(runEndingAt(studied, studied.last()));
+            assertThat(streak.longestRun()).isEqualTo(longestRun(studied));
+        }
+    }
+
+    @Test
+    void streakIsAliveUntilADayIsMissed() {
+        BitSet days = new BitSet();
+        days.set(0, 3);
+        Streak streak = new Streak(START, START.plusDays(2), days, 3, 3);
+
+        assertThat(streak.currentStreak(START.plusDays(2))).isEqualTo(3);
+        assertThat(streak.currentStreak(START.plusDays(3))).isEqualTo(3);
+        assertThat(streak.currentStreak(START.plusDays(4))).isZero();
+        assertThat(streak.streakStartDate(START.plusDays(4))).isNull();
+    }
+
+    private static int runEndingAt(TreeSet<LocalDate> days, LocalDate last) {
+        int run = 0;
+        for (LocalDate day = last; days.contains(day); day = day.minusDays(1)) {
+            run++;
+        }
+        return run;
+    }
+
+    private static int longestRun(TreeSet<LocalDate> days) {
+        int longest = 0;
+        for (LocalDate day : days) {
+            longest = Math.max(longest, runEndingAt(days, day));
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,66 @@
+package com.loopy.carden.support;
+
+import com.loopy.carden.entity.StudyState.CardState;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Inserts the minimal users, decks, cards, study states and sessions the database tests need,
+ * with plain SQL so the rows look exactly like the ones the native queries read
+ */
+public class DatabaseFixtures {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseFixtures(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long user() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 12);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password) VALUES (?, ?, 'x') RETURNING id",
+                Long.class, name, name + "@test.local");
+    }
+
+    public long deck(long userId) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO decks (title, user_id) VALUES ('Deck', ?) RETURNING id",
+                Long.class, userId);
+    }
+
+    public long card(long deckId, LocalDateTime createdAt) {
+        String key = UUID.randomUUID().toString();
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO cards (deck_id, front, back, unique_key, created_at) VALUES (?, ?, 'back', ?, ?) RETURNING id",
+                Long.class, deckId, key, key, Timestamp.valueOf(createdAt));
+    }
+
+    public long studyState(long userId, long cardId, long deckId, CardState state, LocalDateTime due,
+                           LocalDateTime createdAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO study_states (user_id, card_id, deck_id, due_date, card_state, created_at, updated_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 0) RETURNING id",
+                Long.class, userId, cardId, deckId, Timestamp.valueOf(due), state.name(),
+                Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt));
+    }
+
+    public void counters(long userId, long deckId, int newCount, int reviewDueCount, LocalDateTime countedAt) {
+        jdbcTemplate.update(
+                "INSERT INTO user_deck_counters (user_id, deck_id, new_count, review_count, review_due_count, counted_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (user_id, deck_id) DO UPDATE SET " +
+                "new_count = EXCLUDED.new_count, review_count = EXCLUDED.review_count, " +
+                "review_due_count = EXCLUDED.review_due_count, counted_at = EXCLUDED.counted_at",
+                userId, deckId, newCount, reviewDueCount, reviewDueCount, Timestamp.valueOf(countedAt));
+    }
+
+    public long session(long userId, LocalDateTime sessionDate) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO review_sessions (user_id, session_date, study_mode, session_status) " +
+                "VALUES (?, ?, 'FLIP', 'IN_PROGRESS') RETURNING id",
+                Long.class, userId, Timestamp.valueOf(sessionDate));
+    }
+}